@@ -0,0 +1,167 @@
+package distributed_banking;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// What durability costs the transfer hot path, swept over sync policy and the number of threads
+// appending to one BalanceLog. Every thread appends debits back to back and, when the policy makes
+// senders wait, waits for each one to be forced the way Branch.sendTransfer does. Reported are
+//   the appends per second and the p50/p99 time of an append including that wait
+//   fsyncs per second and records per fsync, how well group commit amortizes them
+//   records at risk, appended but not yet as durable as the policy makes them, sampled every millisecond
+// Each point warms up for a second first. Results are printed and written as CSV. The log goes to --dir,
+// which should be on the disk being measured, not a tmpfs.
+// Usage: BalanceLogBenchmark [--policies=never,interval,batch] [--threads=1,4,16] [--seconds=3]
+//        [--sync-millis=10] [--dir=<directory>] [--csv=<file>]
+public class BalanceLogBenchmark {
+    private static final String[] COLUMNS = {"policy", "threads", "appends_per_sec", "append_p50_us",
+            "append_p99_us", "fsyncs_per_sec", "records_per_fsync", "at_risk_mean", "at_risk_max"};
+    // Every append is timed, one in SAMPLE_EVERY is kept
+    private static final int SAMPLE_EVERY = 8;
+    private static final int MAX_SAMPLES = 1 << 18;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        options.put("policies", "never,interval,batch");
+        options.put("threads", "1,4,16");
+        options.put("seconds", "3");
+        options.put("sync-millis", "10");
+        options.put("dir", System.getProperty("java.io.tmpdir"));
+        options.put("csv", "balance_log_benchmark.csv");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0 || !options.containsKey(arg.substring(2, separator))) {
+                System.err.println("Error: Unrecognized option " + arg);
+                System.exit(1);
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+
+        long seconds = Long.parseLong(options.get("seconds"));
+        long syncMillis = Long.parseLong(options.get("sync-millis"));
+        Path dir = Paths.get(options.get("dir"));
+        List<List<String>> rows = new ArrayList<>();
+        System.out.println(String.join(",", COLUMNS));
+        for (String policy : options.get("policies").split(",")) {
+            for (String threads : options.get("threads").split(",")) {
+                List<String> row = runPoint(BalanceLog.SyncPolicy.valueOf(policy.toUpperCase()),
+                        Integer.parseInt(threads), seconds, syncMillis, dir);
+                rows.add(row);
+                System.out.println(String.join(",", row));
+            }
+        }
+        try (Writer writer = Files.newBufferedWriter(Paths.get(options.get("csv")), StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", COLUMNS) + "\n");
+            for (List<String> row : rows) {
+                writer.write(String.join(",", row) + "\n");
+            }
+        }
+        System.out.println("wrote " + rows.size() + " points to " + options.get("csv"));
+        System.exit(0);
+    }
+
+    private static List<String> runPoint(BalanceLog.SyncPolicy policy, int threads, long seconds, long syncMillis,
+                                         Path dir) throws IOException, InterruptedException {
+        Path path = Files.createTempFile(dir, "balance_log_benchmark", ".wal");
+        Files.delete(path);
+        BalanceLog log = new BalanceLog(path, policy, syncMillis, new Metrics());
+        log.append(BalanceLog.BALANCE, 0, Integer.MAX_VALUE);
+
+        AtomicBoolean measuring = new AtomicBoolean();
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[][] samples = new long[threads][MAX_SAMPLES];
+        int[] sampled = new int[threads];
+        long[] appends = new long[threads];
+        List<Thread> appenders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread appender = new Thread(() -> {
+                long count = 0;
+                boolean measured = false;
+                while (running.get()) {
+                    long start = System.nanoTime();
+                    long sequence = log.append(BalanceLog.DEBIT, thread, 1);
+                    if (log.waitsForSync()) {
+                        log.awaitDurable(sequence);
+                    }
+                    long nanos = System.nanoTime() - start;
+                    if (!measured && measuring.get()) {
+                        measured = true;
+                        count = 0;
+                    }
+                    if (measured && count++ % SAMPLE_EVERY == 0 && sampled[thread] < MAX_SAMPLES) {
+                        samples[thread][sampled[thread]++] = nanos;
+                    }
+                }
+                appends[thread] = count;
+            }, "appender-" + t);
+            appender.start();
+            appenders.add(appender);
+        }
+
+        Thread.sleep(1000);
+        long fsyncsBefore = log.getFsyncs();
+        measuring.set(true);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long atRiskSum = 0;
+        long atRiskMax = 0;
+        int atRiskSamples = 0;
+        while (System.nanoTime() < end) {
+            long atRisk = log.getUnforced();
+            atRiskSum += atRisk;
+            atRiskMax = Math.max(atRiskMax, atRisk);
+            atRiskSamples++;
+            Thread.sleep(1);
+        }
+        running.set(false);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long fsyncs = log.getFsyncs() - fsyncsBefore;
+        for (Thread appender : appenders) {
+            appender.join();
+        }
+        log.close();
+        Files.deleteIfExists(path);
+
+        long total = 0;
+        int length = 0;
+        for (int t = 0; t < threads; t++) {
+            total += appends[t];
+            length += sampled[t];
+        }
+        long[] all = new long[length];
+        for (int t = 0, at = 0; t < threads; t++) {
+            System.arraycopy(samples[t], 0, all, at, sampled[t]);
+            at += sampled[t];
+        }
+        Arrays.sort(all);
+        return Arrays.asList(policy.name().toLowerCase(), String.valueOf(threads), format(total / elapsed),
+                format(percentile(all, 0.5) / 1000), format(percentile(all, 0.99) / 1000),
+                format(fsyncs / elapsed), format(fsyncs > 0 ? (double) total / fsyncs : 0),
+                format(atRiskSamples > 0 ? (double) atRiskSum / atRiskSamples : 0), String.valueOf(atRiskMax));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
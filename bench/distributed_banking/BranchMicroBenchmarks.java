@@ -0,0 +1,275 @@
+package distributed_banking;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// JMH micro benchmarks of the branch hot paths, run on a branch whose peers and controller are connections
+// that drop every message, so only the branch itself is measured:
+//   credit        addBranchBalance with 0, 1, 10 or 100 snapshots recording the channel
+//   marker        receivedMarker with 16, 64 or 256 peers, every marker of each snapshot in turn
+//   encode        framing each kind of BranchMessage the way ChannelWriter does
+//   decode        parsing each kind of BranchMessage the way NioConnection does
+//   send          sendTransfer from one thread
+//   sendContended sendTransfer from 4 threads, to one peer or each thread to its own
+// Usage: org.openjdk.jmh.Main BranchMicroBenchmarks [jmh options], e.g. -rf json -rff <file>
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BranchMicroBenchmarks {
+    // Every credit appends to the channel state of each recording snapshot, so credits run in batches of a
+    // fixed size, each on state reset by the iteration setup, and the batch time is scored per credit
+    private static final int CREDITS_PER_ITERATION = 20000;
+
+    @State(Scope.Thread)
+    public static class CreditState {
+        @Param({"lock", "cas"})
+        public String balance;
+
+        @Param({"0", "1", "10", "100"})
+        public int snapshots;
+
+        BranchFixture fixture;
+        Connection receivedFrom;
+
+        @Setup(Level.Trial)
+        public void createBranch() {
+            fixture = new BranchFixture(4, "--balance=" + balance, "--retain-snapshots=1000");
+            receivedFrom = fixture.peers[1];
+        }
+
+        // Recording starts on every channel but the one the first marker came on
+        @Setup(Level.Iteration)
+        public void openSnapshots() {
+            fixture.completeOpenSnapshots();
+            for (int i = 0; i < snapshots; i++) {
+                fixture.branch.receivedMarker(fixture.openSnapshot(), false, fixture.peers[0]);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MarkerState {
+        @Param({"16", "64", "256"})
+        public int peers;
+
+        BranchFixture fixture;
+        long nextMarker;
+
+        @Setup(Level.Trial)
+        public void createBranch() {
+            fixture = new BranchFixture(peers + 1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MessageState {
+        @Param({"init_branch", "transfer", "transfer_batch", "init_snapshot", "marker", "retrieve_snapshot",
+                "return_snapshot", "snapshot_complete"})
+        public String message;
+
+        Bank.BranchMessage branchMessage;
+        byte[] bytes;
+        final byte[] buffer = new byte[64 * 1024];
+
+        @Setup(Level.Trial)
+        public void buildMessage() {
+            branchMessage = messages().get(message);
+            bytes = branchMessage.toByteArray();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SendState {
+        @Param({"lock", "cas"})
+        public String balance;
+
+        BranchFixture fixture;
+
+        @Setup(Level.Trial)
+        public void createBranch() {
+            fixture = new BranchFixture(5, "--balance=" + balance);
+        }
+
+        // Enough for every transfer of an iteration
+        @Setup(Level.Iteration)
+        public void refill() {
+            fixture.branch.setBranchBalance(Integer.MAX_VALUE);
+        }
+    }
+
+    public static class ContendedSendState extends SendState {
+        @Param({"same", "own"})
+        public String destination;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10, batchSize = CREDITS_PER_ITERATION)
+    @Measurement(iterations = 20, batchSize = CREDITS_PER_ITERATION)
+    @OperationsPerInvocation(CREDITS_PER_ITERATION)
+    public void credit(CreditState state) {
+        state.fixture.branch.addBranchBalance(1, 1, state.receivedFrom);
+    }
+
+    // Each snapshot takes one marker from every peer, the first records the branch state and sends a marker
+    // to every peer. Completed snapshots are evicted once 100 are retained.
+    @Benchmark
+    public int marker(MarkerState state) {
+        long marker = state.nextMarker++;
+        int snapshotId = (int) (marker / state.peers) + 1;
+        state.fixture.branch.receivedMarker(snapshotId, false, state.fixture.peers[(int) (marker % state.peers)]);
+        return snapshotId;
+    }
+
+    @Benchmark
+    public int encode(MessageState state) throws IOException {
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(state.buffer);
+        codedOutputStream.writeUInt32NoTag(state.branchMessage.getSerializedSize());
+        state.branchMessage.writeTo(codedOutputStream);
+        return codedOutputStream.getTotalBytesWritten();
+    }
+
+    @Benchmark
+    public Bank.BranchMessage decode(MessageState state) throws InvalidProtocolBufferException {
+        return Bank.BranchMessage.parser().parseFrom(state.bytes, 0, state.bytes.length);
+    }
+
+    @Benchmark
+    public boolean send(SendState state) {
+        return state.fixture.branch.sendTransfer(0, 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean sendContended(ContendedSendState state, ThreadParams thread) {
+        int peerIndex = state.destination.equals("same") ? 0 : thread.getThreadIndex() % 4;
+        return state.fixture.branch.sendTransfer(peerIndex, 1);
+    }
+
+    // One message of every kind, sized like those of an 8 branch run
+    private static Map<String, Bank.BranchMessage> messages() {
+        Bank.InitBranch.Builder initBranch = Bank.InitBranch.newBuilder().setBalance(1000000);
+        Bank.ReturnSnapshot.LocalSnapshot.Builder localSnapshot = Bank.ReturnSnapshot.LocalSnapshot.newBuilder()
+                .setSnapshotId(42)
+                .setBalance(998000)
+                .setBranchIndex(3)
+                .setPartialSum(1001500);
+        for (int i = 0; i < 8; i++) {
+            initBranch.addAllBranches(Bank.InitBranch.Branch.newBuilder()
+                    .setName("branch" + i)
+                    .setIp("127.0.0.1")
+                    .setPort(9000 + i));
+            localSnapshot.addChannelState(i).addChannelState(500);
+        }
+        Map<String, Bank.BranchMessage> messages = new LinkedHashMap<>();
+        messages.put("init_branch", Bank.BranchMessage.newBuilder().setInitBranch(initBranch).build());
+        messages.put("transfer", Bank.BranchMessage.newBuilder()
+                .setTransfer(Bank.Transfer.newBuilder().setMoney(1234)).build());
+        messages.put("transfer_batch", Bank.BranchMessage.newBuilder()
+                .setTransferBatch(Bank.TransferBatch.newBuilder().setCount(17).setSum(20000)).build());
+        messages.put("init_snapshot", Bank.BranchMessage.newBuilder()
+                .setInitSnapshot(Bank.InitSnapshot.newBuilder().setSnapshotId(42)).build());
+        messages.put("marker", Bank.BranchMessage.newBuilder()
+                .setMarker(Bank.Marker.newBuilder().setSnapshotId(42)).build());
+        messages.put("retrieve_snapshot", Bank.BranchMessage.newBuilder()
+                .setRetrieveSnapshot(Bank.RetrieveSnapshot.newBuilder().setSnapshotId(42)).build());
+        messages.put("return_snapshot", Bank.BranchMessage.newBuilder()
+                .setReturnSnapshot(Bank.ReturnSnapshot.newBuilder().setLocalSnapshot(localSnapshot)).build());
+        messages.put("snapshot_complete", Bank.BranchMessage.newBuilder()
+                .setSnapshotComplete(Bank.SnapshotComplete.newBuilder().setSnapshotId(42)).build());
+        return messages;
+    }
+
+    // The last branch of an InitBranch list, so it connects to no one, handed a connection from every
+    // other branch by hand. It sends no transfers of its own.
+    private static class BranchFixture {
+        private final Branch branch;
+        private final Connection[] peers;
+        private final Connection controller;
+        private final List<Integer> open;
+        private int nextSnapshotId;
+
+        BranchFixture(int numberOfBranches, String... flags) {
+            String[] args = new String[flags.length + 2];
+            System.arraycopy(flags, 0, args, 0, flags.length);
+            args[flags.length] = "--workload=none";
+            args[flags.length + 1] = "--init-wait-millis=0";
+            branch = new Branch("branch" + (numberOfBranches - 1), BranchConfig.parse(args, 0));
+            Bank.InitBranch.Builder initBranch = Bank.InitBranch.newBuilder().setBalance(1000000);
+            for (int i = 0; i < numberOfBranches; i++) {
+                initBranch.addAllBranches(Bank.InitBranch.Branch.newBuilder()
+                        .setName("branch" + i)
+                        .setIp("127.0.0.1")
+                        .setPort(9000 + i));
+            }
+            controller = new DiscardingConnection();
+            branch.receivedMessage(Bank.BranchMessage.newBuilder().setInitBranch(initBranch).build(), controller);
+            peers = new Connection[numberOfBranches - 1];
+            for (int i = 0; i < peers.length; i++) {
+                peers[i] = new DiscardingConnection();
+                branch.newSocketCreated("branch" + i, peers[i]);
+            }
+            open = new ArrayList<>();
+            nextSnapshotId = 1;
+        }
+
+        int openSnapshot() {
+            open.add(nextSnapshotId);
+            return nextSnapshotId++;
+        }
+
+        // Sends the remaining markers of every open snapshot and retrieves it, which drops it
+        void completeOpenSnapshots() {
+            for (int snapshotId : open) {
+                for (int i = 1; i < peers.length; i++) {
+                    branch.receivedMarker(snapshotId, false, peers[i]);
+                }
+                branch.retrieveSnapshot(snapshotId, controller);
+            }
+            open.clear();
+        }
+    }
+
+    private static class DiscardingConnection implements Connection {
+        private volatile int peerIndex = -1;
+
+        @Override
+        public void send(Bank.BranchMessage branchMessage) {
+        }
+
+        @Override
+        public int getPeerIndex() {
+            return peerIndex;
+        }
+
+        @Override
+        public void setPeerIndex(int peerIndex) {
+            this.peerIndex = peerIndex;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// Hammers a local mesh with transfers from several threads per branch while taking overlapping
+// snapshots, and checks that every snapshot adds up to the money handed out at initialization.
+// Exits with status 1 if any snapshot does not.
+// Usage: ConservationStress <branches> <snapshots> <lock|cas> <first_port> <senders_per_branch> <in_flight>
+//        <pause_micros> <batch_millis> <blocking|nio|memory>
+public class ConservationStress {
+    private static final int BALANCE = 1000000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int numberOfBranches = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int numberOfSnapshots = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        String balanceMode = args.length > 2 ? args[2] : "cas";
+        int firstPort = args.length > 3 ? Integer.parseInt(args[3]) : 20000;
+        int sendersPerBranch = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        int inFlight = args.length > 5 ? Integer.parseInt(args[5]) : 16;
+        long pauseNanos = (args.length > 6 ? Long.parseLong(args[6]) : 50) * 1000;
+        String batchMillis = args.length > 7 ? args[7] : "0";
+        String transport = args.length > 8 ? args[8] : "blocking";
+
+        BranchConfig config = BranchConfig.parse(new String[]{"--balance=" + balanceMode,
+                "--batch-millis=" + batchMillis, "--transport=" + transport, "--init-wait-millis=500"}, 0);
+        List<Branch> branches = LocalCluster.start(numberOfBranches, BALANCE, firstPort, config).getBranches();
+        long totalMoney = (long) BALANCE * numberOfBranches;
+
+        SplittableRandom seeds = new SplittableRandom(42);
+        for (int index = 0; index < numberOfBranches; index++) {
+            Branch branch = branches.get(index);
+            int self = index;
+            for (int i = 0; i < sendersPerBranch; i++) {
+                SplittableRandom random = seeds.split();
+                Thread sender = new Thread(() -> {
+                    while (!Thread.interrupted()) {
+                        // Any peer but the branch itself
+                        int peer = random.nextInt(numberOfBranches - 1);
+                        branch.sendTransferMessage(peer < self ? peer : peer + 1, random.nextInt(5) + 1);
+                        LockSupport.parkNanos(pauseNanos);
+                    }
+                });
+                sender.setDaemon(true);
+                sender.start();
+            }
+        }
+
+        Random rand = new Random(42);
+        Queue<Integer> pending = new ArrayDeque<>();
+        int violations = 0;
+        int nextSnapshotId = 1;
+        int checked = 0;
+        long start = System.nanoTime();
+        while (checked < numberOfSnapshots) {
+            while (pending.size() < inFlight && nextSnapshotId <= numberOfSnapshots) {
+                branches.get(rand.nextInt(numberOfBranches)).initSnapshotRequest(nextSnapshotId);
+                pending.add(nextSnapshotId++);
+            }
+            int snapshotId = pending.peek();
+            if (!isComplete(branches, snapshotId)) {
+                Thread.sleep(1);
+                continue;
+            }
+            pending.remove();
+            checked++;
+            long total = total(branches, snapshotId);
+            if (total != totalMoney) {
+                violations++;
+                System.out.println("snapshot_id: " + snapshotId + " total " + total + " expected " + totalMoney);
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long transfers = 0;
+        for (Branch branch : branches) {
+            transfers += branch.getTransfersReceived();
+        }
+        System.out.println("balance=" + balanceMode
+                + " batch_millis=" + batchMillis
+                + " transport=" + transport
+                + " branches=" + numberOfBranches
+                + " snapshots=" + checked
+                + " violations=" + violations
+                + " transfers=" + transfers
+                + " seconds=" + String.format("%.1f", elapsed)
+                + " snapshots_per_sec=" + String.format("%.1f", checked / elapsed));
+        System.exit(violations == 0 ? 0 : 1);
+    }
+
+    private static boolean isComplete(List<Branch> branches, int snapshotId) {
+        for (Branch branch : branches) {
+            if (!branch.isSnapshotComplete(snapshotId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long total(List<Branch> branches, int snapshotId) {
+        long total = 0;
+        for (Branch branch : branches) {
+            Bank.ReturnSnapshot.LocalSnapshot localSnapshot = branch.getLocalSnapshot(snapshotId);
+            total += localSnapshot.getBalance();
+            List<Integer> channelStateList = localSnapshot.getChannelStateList();
+            for (int i = 1; i < channelStateList.size(); i += 2) {
+                total += channelStateList.get(i);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,106 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// Full mesh of branches and a controller inside one JVM, set up the way the branch and controller
+// scripts would, on loopback or with --transport=memory over in-memory connections. Benchmarks drive
+// transfers and snapshots through it and can read branch state directly. Branches wait
+// config.initWaitMillis after InitBranch before connecting to each other, a few hundred
+// milliseconds are plenty in one process.
+class LocalCluster {
+    private final List<Branch> branches;
+    private Controller controller;
+    private long meshMillis;
+
+    private LocalCluster() {
+        branches = new ArrayList<>();
+    }
+
+    static LocalCluster start(int numberOfBranches, int balance, int firstPort, BranchConfig config)
+            throws IOException, InterruptedException {
+        return start(numberOfBranches, balance, firstPort, config, new ControllerConfig());
+    }
+
+    static LocalCluster start(int numberOfBranches, int balance, int firstPort, BranchConfig config,
+                              ControllerConfig controllerConfig) throws IOException, InterruptedException {
+        return start(numberOfBranches, balance, firstPort, config, controllerConfig, null);
+    }
+
+    // Listeners are given by branch index, which is also the peer index other branches know it by. They
+    // are in place before the first transfer.
+    static LocalCluster start(int numberOfBranches, int balance, int firstPort, BranchConfig config,
+                              ControllerConfig controllerConfig, IntFunction<BranchListener> listeners)
+            throws IOException, InterruptedException {
+        LocalCluster cluster = new LocalCluster();
+        List<Bank.InitBranch.Branch> branchList = new ArrayList<>();
+        for (int i = 0; i < numberOfBranches; i++) {
+            Branch branch = new Branch("branch" + i, config);
+            if (listeners != null) {
+                branch.setListener(listeners.apply(i));
+            }
+            int port = firstPort + i;
+            Thread server = new Thread(() -> branch.start(port));
+            server.setDaemon(true);
+            server.start();
+            cluster.branches.add(branch);
+            branchList.add(Bank.InitBranch.Branch.newBuilder()
+                    .setName("branch" + i)
+                    .setIp("127.0.0.1")
+                    .setPort(port)
+                    .build());
+        }
+        for (Branch branch : cluster.branches) {
+            branch.awaitListening();
+        }
+
+        if (config.transport == BranchConfig.TransportMode.MEMORY) {
+            controllerConfig.transport = BranchConfig.TransportMode.MEMORY;
+        }
+        long meshStart = System.nanoTime();
+        cluster.controller = new Controller(balance * numberOfBranches, branchList, controllerConfig);
+        cluster.controller.initBranches();
+        for (Branch branch : cluster.branches) {
+            while (!branch.isMeshReady()) {
+                Thread.sleep(10);
+            }
+        }
+        cluster.meshMillis = (System.nanoTime() - meshStart) / 1000000;
+        return cluster;
+    }
+
+    List<Branch> getBranches() {
+        return branches;
+    }
+
+    Controller getController() {
+        return controller;
+    }
+
+    long getMeshMillis() {
+        return meshMillis;
+    }
+
+    long getTotalMoney() {
+        return controller.getExpectedTotal();
+    }
+
+    // Sends amountPercent percent of the balance of one branch to another
+    void transfer(int from, int to, int amountPercent) {
+        branches.get(from).sendTransferMessage(to, amountPercent);
+    }
+
+    // Started at a random branch, its retrieved() future completes with the total of the snapshot
+    PendingSnapshot snapshot() {
+        return controller.takeSnapshot();
+    }
+
+    // Branches keep running until the JVM exits, only the controller stops treating lost connections as fatal
+    void close() {
+        controller.close();
+    }
+}
@@ -0,0 +1,390 @@
+package distributed_banking;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// What snapshots cost the transfers running alongside them, swept over cluster size, transfer rate
+// and snapshot frequency. Every point runs in its own JVM on a LocalCluster: a warmup second, a
+// baseline phase without snapshots, then a phase taking snapshots at the given frequency. Reported are
+//   propagation  initiator recording its state until the last branch has every channel recorded
+//   retrieval    that last branch until the controller has the whole snapshot
+//   the transfers per second and the p50/p99 latency of a transfer, sent to credited, in both phases
+// A rate of "max" runs one closed loop sender per branch instead of a fixed rate. Results are printed
+// and written as CSV and JSON.
+// Usage: SnapshotBenchmark [--branches=4,8,16] [--rates=1000,max] [--frequencies=5,20] [--seconds=5]
+//        [--transport=memory] [--aggregation=direct] [--csv=<file>] [--json=<file>]
+public class SnapshotBenchmark {
+    private static final String[] COLUMNS = {"branches", "rate", "snapshots_per_sec", "transport", "aggregation",
+            "snapshots", "propagation_mean_us", "propagation_p99_us", "retrieval_mean_us", "retrieval_p99_us",
+            "baseline_tps", "snapshot_tps", "throughput_drop_pct", "baseline_p50_us", "baseline_p99_us",
+            "snapshot_p50_us", "snapshot_p99_us", "violations"};
+    private static final int BALANCE = 1000000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        options.put("branches", "4,8,16");
+        options.put("rates", "1000,max");
+        options.put("frequencies", "5,20");
+        options.put("seconds", "5");
+        options.put("transport", "memory");
+        options.put("aggregation", "direct");
+        options.put("csv", "snapshot_benchmark.csv");
+        options.put("json", "snapshot_benchmark.json");
+        boolean point = false;
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (arg.equals("--point")) {
+                point = true;
+            } else if (!arg.startsWith("--") || separator < 0 || !options.containsKey(arg.substring(2, separator))) {
+                System.err.println("Error: Unrecognized option " + arg);
+                System.exit(1);
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        if (point) {
+            System.out.println("POINT " + String.join(",", runPoint(options)));
+            System.exit(0);
+        }
+
+        List<List<String>> rows = new ArrayList<>();
+        System.out.println(String.join(",", COLUMNS));
+        for (String branches : options.get("branches").split(",")) {
+            for (String rate : options.get("rates").split(",")) {
+                for (String frequency : options.get("frequencies").split(",")) {
+                    List<String> row = fork(branches, rate, frequency, options);
+                    if (row != null) {
+                        rows.add(row);
+                        System.out.println(String.join(",", row));
+                    }
+                }
+            }
+        }
+        writeCsv(rows, options.get("csv"));
+        writeJson(rows, options.get("json"));
+        System.out.println("wrote " + rows.size() + " points to " + options.get("csv") + " and " + options.get("json"));
+    }
+
+    // A fresh JVM per point, the branches of a LocalCluster keep running until their JVM exits
+    private static List<String> fork(String branches, String rate, String frequency, Map<String, String> options)
+            throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SnapshotBenchmark.class.getName(), "--point", "--branches=" + branches, "--rates=" + rate,
+                "--frequencies=" + frequency, "--seconds=" + options.get("seconds"),
+                "--transport=" + options.get("transport"), "--aggregation=" + options.get("aggregation"))
+                .redirectErrorStream(true)
+                .start();
+        List<String> row = null;
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("POINT ")) {
+                    row = Arrays.asList(line.substring("POINT ".length()).split(","));
+                } else {
+                    output.add(line);
+                }
+            }
+        }
+        if (process.waitFor() != 0 || row == null) {
+            System.err.println("Error: Point branches=" + branches + " rate=" + rate + " frequency=" + frequency
+                    + " failed");
+            for (String line : output) {
+                System.err.println(line);
+            }
+            return null;
+        }
+        return row;
+    }
+
+    private static List<String> runPoint(Map<String, String> options) throws IOException, InterruptedException {
+        int numberOfBranches = Integer.parseInt(options.get("branches"));
+        String rate = options.get("rates");
+        double frequency = Double.parseDouble(options.get("frequencies"));
+        long phaseNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("seconds")));
+
+        List<String> flags = new ArrayList<>();
+        flags.add("--transport=" + options.get("transport"));
+        flags.add("--init-wait-millis=200");
+        if (rate.equals("max")) {
+            flags.add("--workload=closed");
+        } else {
+            flags.add("--workload=rate");
+            flags.add("--rate=" + rate);
+        }
+        BranchConfig config = BranchConfig.parse(flags.toArray(new String[0]), 0);
+        ControllerConfig controllerConfig = ControllerConfig.parse(
+                new String[]{"--aggregation=" + options.get("aggregation")}, 0);
+        Recorder recorder = new Recorder(numberOfBranches);
+        LocalCluster cluster = LocalCluster.start(numberOfBranches, BALANCE, 30000, config, controllerConfig,
+                recorder::listener);
+
+        Thread.sleep(1000);
+        LatencyHistogram baseline = new LatencyHistogram();
+        recorder.phase = baseline;
+        long start = System.nanoTime();
+        LockSupport.parkNanos(phaseNanos);
+        recorder.phase = null;
+        double baselineSeconds = (System.nanoTime() - start) / 1e9;
+
+        LatencyHistogram during = new LatencyHistogram();
+        AtomicInteger violations = new AtomicInteger();
+        List<PendingSnapshot> taken = new ArrayList<>();
+        long period = (long) (1e9 / frequency);
+        recorder.phase = during;
+        start = System.nanoTime();
+        for (long next = start; next - start < phaseNanos; next += period) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            PendingSnapshot pendingSnapshot = cluster.snapshot();
+            SnapshotTiming timing = recorder.timing(pendingSnapshot.getSnapshotId());
+            pendingSnapshot.retrieved().thenAccept(total -> {
+                timing.retrieved(System.nanoTime());
+                if (total != cluster.getTotalMoney()) {
+                    violations.incrementAndGet();
+                }
+            });
+            taken.add(pendingSnapshot);
+        }
+        recorder.phase = null;
+        double snapshotSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] propagation = new long[taken.size()];
+        long[] retrieval = new long[taken.size()];
+        int complete = 0;
+        for (PendingSnapshot pendingSnapshot : taken) {
+            try {
+                pendingSnapshot.retrieved().get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                continue;
+            }
+            SnapshotTiming timing = recorder.timing(pendingSnapshot.getSnapshotId());
+            synchronized (timing) {
+                if (timing.completions == numberOfBranches && timing.retrievedAt != 0) {
+                    propagation[complete] = timing.lastCompletedAt - timing.initiatedAt;
+                    retrieval[complete] = timing.retrievedAt - timing.lastCompletedAt;
+                    complete++;
+                }
+            }
+        }
+        cluster.close();
+
+        double baselineTps = baseline.count() / baselineSeconds;
+        double snapshotTps = during.count() / snapshotSeconds;
+        return Arrays.asList(String.valueOf(numberOfBranches), rate, format(frequency), options.get("transport"),
+                options.get("aggregation"), String.valueOf(complete),
+                micros(mean(propagation, complete)), micros(percentile(propagation, complete, 0.99)),
+                micros(mean(retrieval, complete)), micros(percentile(retrieval, complete, 0.99)),
+                format(baselineTps), format(snapshotTps),
+                format(baselineTps > 0 ? 100 * (baselineTps - snapshotTps) / baselineTps : 0),
+                micros(baseline.percentile(0.5)), micros(baseline.percentile(0.99)),
+                micros(during.percentile(0.5)), micros(during.percentile(0.99)),
+                String.valueOf(violations.get()));
+    }
+
+    private static double mean(long[] values, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+        }
+        return length > 0 ? (double) sum / length : 0;
+    }
+
+    private static double percentile(long[] values, int length, double quantile) {
+        if (length == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(values, length);
+        Arrays.sort(sorted);
+        return sorted[Math.min(length - 1, (int) Math.ceil(quantile * length) - 1)];
+    }
+
+    private static String micros(double nanos) {
+        return format(nanos / 1000);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static void writeCsv(List<List<String>> rows, String path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", COLUMNS) + "\n");
+            for (List<String> row : rows) {
+                writer.write(String.join(",", row) + "\n");
+            }
+        }
+    }
+
+    private static void writeJson(List<List<String>> rows, String path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int r = 0; r < rows.size(); r++) {
+                List<String> row = rows.get(r);
+                writer.write("    {");
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    String value = row.get(c);
+                    boolean number = value.matches("-?[0-9.]+");
+                    writer.write((c == 0 ? "" : ", ") + "\"" + COLUMNS[c] + "\": "
+                            + (number ? value : "\"" + value + "\""));
+                }
+                writer.write(r == rows.size() - 1 ? "}\n" : "},\n");
+            }
+            writer.write("]\n");
+        }
+    }
+
+    // Pairs every credit with the send it came from: transfers on a channel arrive in the order they were
+    // sent, so the receiver takes the send times off the head of that channel's queue
+    private static class Recorder {
+        private final int numberOfBranches;
+        // Send times by channel, sender * numberOfBranches + receiver
+        private final List<Queue<Long>> sendTimes;
+        private final Map<Integer, SnapshotTiming> timings;
+        // Where transfer latencies go, none between phases
+        private volatile LatencyHistogram phase;
+
+        Recorder(int numberOfBranches) {
+            this.numberOfBranches = numberOfBranches;
+            sendTimes = new ArrayList<>();
+            for (int i = 0; i < numberOfBranches * numberOfBranches; i++) {
+                sendTimes.add(new ConcurrentLinkedQueue<>());
+            }
+            timings = new ConcurrentHashMap<>();
+        }
+
+        SnapshotTiming timing(int snapshotId) {
+            return timings.computeIfAbsent(snapshotId, id -> new SnapshotTiming());
+        }
+
+        BranchListener listener(int self) {
+            return new BranchListener() {
+                @Override
+                public void sent(int peerIndex) {
+                    sendTimes.get(self * numberOfBranches + peerIndex).add(System.nanoTime());
+                }
+
+                @Override
+                public void credited(int peerIndex, int transfers) {
+                    long now = System.nanoTime();
+                    LatencyHistogram histogram = phase;
+                    Queue<Long> queue = sendTimes.get(peerIndex * numberOfBranches + self);
+                    for (int i = 0; i < transfers; i++) {
+                        Long sentAt = queue.poll();
+                        if (sentAt != null && histogram != null) {
+                            histogram.record(now - sentAt);
+                        }
+                    }
+                }
+
+                @Override
+                public void recorded(int snapshotId, boolean initiator) {
+                    if (initiator) {
+                        timing(snapshotId).initiated(System.nanoTime());
+                    }
+                }
+
+                @Override
+                public void completed(int snapshotId) {
+                    timing(snapshotId).completed(System.nanoTime());
+                }
+            };
+        }
+    }
+
+    private static class SnapshotTiming {
+        private long initiatedAt;
+        private int completions;
+        private long lastCompletedAt;
+        private long retrievedAt;
+
+        synchronized void initiated(long nanos) {
+            initiatedAt = nanos;
+        }
+
+        synchronized void completed(long nanos) {
+            completions++;
+            lastCompletedAt = Math.max(lastCompletedAt, nanos);
+        }
+
+        synchronized void retrieved(long nanos) {
+            retrievedAt = nanos;
+        }
+    }
+
+    // Log-linear buckets: each power of two of nanoseconds is split into 2^SUB_BITS buckets, so a
+    // percentile is off by at most 1/16th of its value
+    private static class LatencyHistogram {
+        private static final int SUB_BITS = 4;
+        private final AtomicLongArray buckets;
+        private final LongAdder count;
+
+        LatencyHistogram() {
+            buckets = new AtomicLongArray(64 << SUB_BITS);
+            count = new LongAdder();
+        }
+
+        void record(long nanos) {
+            buckets.incrementAndGet(index(Math.max(0, nanos)));
+            count.increment();
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        // Middle of the bucket holding the value at this quantile
+        double percentile(double quantile) {
+            long total = count();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return (lowerBound(i) + lowerBound(i + 1)) / 2.0;
+                }
+            }
+            return lowerBound(buckets.length());
+        }
+
+        private static int index(long nanos) {
+            if (nanos < 1 << SUB_BITS) {
+                return (int) nanos;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) (nanos >>> (exponent - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+            return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+        }
+
+        private static double lowerBound(int index) {
+            if (index < 1 << SUB_BITS) {
+                return index;
+            }
+            int exponent = (index >> SUB_BITS) + SUB_BITS - 1;
+            int sub = index & ((1 << SUB_BITS) - 1);
+            return Math.scalb((double) ((1 << SUB_BITS) + sub), exponent - SUB_BITS);
+        }
+    }
+}
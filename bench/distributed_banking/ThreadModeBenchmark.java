@@ -0,0 +1,54 @@
+package distributed_banking;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Starts a full mesh of branches inside one JVM and reports the platform thread count and transfer
+// throughput for the chosen thread mode. Any further arguments are passed to the branches as flags, e.g.
+// a --workload to drive them to saturation.
+// Usage: ThreadModeBenchmark <branches> <platform|virtual> <first_port> <seconds> [branch flags...]
+public class ThreadModeBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int numberOfBranches = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        String threads = args.length > 1 ? args[1] : "platform";
+        int firstPort = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        List<String> flags = new ArrayList<>();
+        flags.add("--init-wait-millis=500");
+        flags.addAll(Arrays.asList(args).subList(Math.min(4, args.length), args.length));
+        flags.add("--threads=" + threads);
+        BranchConfig config = BranchConfig.parse(flags.toArray(new String[0]), 0);
+        LocalCluster cluster = LocalCluster.start(numberOfBranches, 1000000, firstPort, config);
+        List<Branch> branches = cluster.getBranches();
+        long meshMillis = cluster.getMeshMillis();
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        long before = totalTransfers(branches);
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long transfers = totalTransfers(branches) - before;
+
+        System.out.println("threads=" + threads
+                + " branches=" + numberOfBranches
+                + " mesh_ms=" + meshMillis
+                + " platform_threads=" + threadMXBean.getThreadCount()
+                + " peak_platform_threads=" + threadMXBean.getPeakThreadCount()
+                + " transfers_per_sec=" + String.format("%.1f", transfers / elapsed));
+        System.exit(0);
+    }
+
+    private static long totalTransfers(List<Branch> branches) {
+        long total = 0;
+        for (Branch branch : branches) {
+            total += branch.getTransfersReceived();
+        }
+        return total;
+    }
+}
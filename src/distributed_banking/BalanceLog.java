@@ -0,0 +1,328 @@
+package distributed_banking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// Append-only write-ahead log of the balance of a branch: the balance it was set to, then every debit and
+// credit. Callers copy their record into a shared buffer; a background thread swaps it for an empty one,
+// appends it as one write and forces it to disk according to the sync policy, so a single fsync covers
+// every record appended while the previous one ran (group commit). After a 4 byte MAGIC every record
+// takes RECORD_BYTES:
+//   type (1 byte), peer index (2), amount (4), CRC32 of those 7 bytes (4)
+// Opening an existing log replays it up to the first torn or corrupt record and starts over with a log
+// holding only the recovered balance.
+class BalanceLog {
+    static final int MAGIC = 0x434c5731;
+    static final int RECORD_BYTES = 11;
+    static final byte BALANCE = 1;
+    static final byte DEBIT = 2;
+    static final byte CREDIT = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    enum SyncPolicy {
+        // Written as soon as possible and left to the OS, survives the process but not the host
+        NEVER,
+        // Also forced at most every syncMillis, the host can lose that much
+        INTERVAL,
+        // Forced after every write, debits wait for it before their transfer is sent
+        BATCH
+    }
+
+    private final SyncPolicy policy;
+    private final long syncNanos;
+    private final FileChannel channel;
+    private final ReentrantLock appendLock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private final Condition durableAdvanced;
+    private final CRC32 crc;
+    private final LongAdder records;
+    private final LongAdder fsyncs;
+    private final Metrics.Histogram fsyncNanos;
+    private final Thread writer;
+    private final Integer recoveredBalance;
+    private final long recoveredRecords;
+    // Guarded by appendLock
+    private ByteBuffer pending;
+    private long appended;
+    private long durable;
+    private boolean closed;
+    // Only touched by the writer
+    private ByteBuffer writing;
+
+    BalanceLog(Path path, SyncPolicy policy, long syncMillis, Metrics metrics) throws IOException {
+        this.policy = policy;
+        syncNanos = TimeUnit.MILLISECONDS.toNanos(syncMillis);
+        appendLock = new ReentrantLock();
+        notEmpty = appendLock.newCondition();
+        notFull = appendLock.newCondition();
+        durableAdvanced = appendLock.newCondition();
+        crc = new CRC32();
+        pending = ByteBuffer.allocateDirect(BUFFER_SIZE - BUFFER_SIZE % RECORD_BYTES);
+        writing = ByteBuffer.allocateDirect(pending.capacity());
+        records = metrics.counter("branch_wal_records_total", "Records appended to the write-ahead log");
+        fsyncs = metrics.counter("branch_wal_fsyncs_total", "Times the write-ahead log was forced to disk");
+        fsyncNanos = metrics.histogram("branch_wal_fsync_nanos", "Time to force the write-ahead log to disk");
+        metrics.gauge("branch_wal_unforced_records", "Records appended and not yet as durable as the sync policy "
+                + "makes them", this::getUnforced);
+
+        // Replay what is there, then swap in a log that starts from the recovered balance
+        long[] replayed = Files.exists(path) ? replay(path) : null;
+        recoveredBalance = replayed == null || replayed[2] == 0 ? null : (int) replayed[0];
+        recoveredRecords = replayed == null ? 0 : replayed[1];
+        Path fresh = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(fresh, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer start = ByteBuffer.allocate(4 + RECORD_BYTES).putInt(MAGIC);
+            if (recoveredBalance != null) {
+                encode(start, BALANCE, 0, recoveredBalance);
+            }
+            start.flip();
+            while (start.hasRemaining()) {
+                out.write(start);
+            }
+            out.force(true);
+        }
+        Files.move(fresh, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        writer = new Thread(this::run, "wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // Branches are stopped with a signal, whatever is still buffered then is written and forced
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    // Balance, number of valid records and 1 if there was a BALANCE record to start from, otherwise 0
+    private static long[] replay(Path path) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE - BUFFER_SIZE % RECORD_BYTES);
+            CRC32 crc = new CRC32();
+            long balance = 0;
+            long count = 0;
+            boolean started = false;
+            boolean first = true;
+            while (in.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                if (first) {
+                    if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+                        throw new IOException(path + " is not a balance log");
+                    }
+                    first = false;
+                }
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    byte type = buffer.get(buffer.position());
+                    int amount = buffer.getInt(buffer.position() + 3);
+                    crc.reset();
+                    for (int i = 0; i < 7; i++) {
+                        crc.update(buffer.get(buffer.position() + i));
+                    }
+                    if ((int) crc.getValue() != buffer.getInt(buffer.position() + 7)) {
+                        return new long[]{balance, count, started ? 1 : 0};
+                    }
+                    buffer.position(buffer.position() + RECORD_BYTES);
+                    if (type == BALANCE) {
+                        balance = amount;
+                        started = true;
+                    } else if (type == DEBIT) {
+                        balance -= amount;
+                    } else if (type == CREDIT) {
+                        balance += amount;
+                    }
+                    count++;
+                }
+                // A torn record at the end of the file is left over once nothing more can be read
+                if (buffer.hasRemaining() && in.position() == in.size()) {
+                    break;
+                }
+                buffer.compact();
+            }
+            return new long[]{balance, count, started ? 1 : 0};
+        }
+    }
+
+    // The balance the log ended with, null for a new log or one that was never given a balance
+    Integer getRecoveredBalance() {
+        return recoveredBalance;
+    }
+
+    long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    boolean waitsForSync() {
+        return policy == SyncPolicy.BATCH;
+    }
+
+    // Returns the sequence number of the record, blocks only while the writer is a whole buffer behind
+    long append(byte type, int peerIndex, int amount) {
+        appendLock.lock();
+        try {
+            while (pending.remaining() < RECORD_BYTES) {
+                notFull.awaitUninterruptibly();
+            }
+            if (pending.position() == 0) {
+                notEmpty.signal();
+            }
+            encode(pending, type, peerIndex, amount);
+            records.increment();
+            return ++appended;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Caller holds appendLock, or owns the buffer
+    private void encode(ByteBuffer buffer, byte type, int peerIndex, int amount) {
+        int start = buffer.position();
+        buffer.put(type).putShort((short) peerIndex).putInt(amount);
+        crc.reset();
+        for (int i = start; i < start + 7; i++) {
+            crc.update(buffer.get(i));
+        }
+        buffer.putInt((int) crc.getValue());
+    }
+
+    // Returns once the record is as durable as the policy makes it, forced to disk or, with NEVER, written
+    void awaitDurable(long sequence) {
+        appendLock.lock();
+        try {
+            while (durable < sequence) {
+                durableAdvanced.awaitUninterruptibly();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    long getAppended() {
+        appendLock.lock();
+        try {
+            return appended;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    long getUnforced() {
+        appendLock.lock();
+        try {
+            return appended - durable;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    long getFsyncs() {
+        return fsyncs.sum();
+    }
+
+    private void run() {
+        long lastForce = System.nanoTime();
+        long written = 0;
+        long forced = 0;
+        try {
+            while (true) {
+                long sequence;
+                boolean closing;
+                appendLock.lock();
+                try {
+                    // With INTERVAL, records written but not yet forced are forced once they are due
+                    while (pending.position() == 0 && !closed) {
+                        if (policy == SyncPolicy.INTERVAL && written > forced) {
+                            long due = lastForce + syncNanos - System.nanoTime();
+                            if (due <= 0) {
+                                break;
+                            }
+                            notEmpty.awaitNanos(due);
+                        } else {
+                            notEmpty.await();
+                        }
+                    }
+                    ByteBuffer full = pending;
+                    pending = writing;
+                    writing = full;
+                    sequence = appended;
+                    closing = closed;
+                    notFull.signalAll();
+                } finally {
+                    appendLock.unlock();
+                }
+
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                writing.clear();
+                written = sequence;
+                long now = System.nanoTime();
+                if (closing || policy == SyncPolicy.BATCH
+                        || policy == SyncPolicy.INTERVAL && now - lastForce >= syncNanos && written > forced) {
+                    // Only the data, the file length is not needed to replay it
+                    channel.force(false);
+                    lastForce = System.nanoTime();
+                    fsyncNanos.record(lastForce - now);
+                    fsyncs.increment();
+                    forced = written;
+                }
+
+                appendLock.lock();
+                try {
+                    durable = policy == SyncPolicy.NEVER ? written : forced;
+                    durableAdvanced.signalAll();
+                } finally {
+                    appendLock.unlock();
+                }
+                if (closing) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // A branch that cannot log its balance is not durable any more. Marked closed first, so the
+            // shutdown hook does not wait for this thread
+            appendLock.lock();
+            try {
+                closed = true;
+            } finally {
+                appendLock.unlock();
+            }
+            e.printStackTrace();
+            System.err.println("Error: Unable to write the write-ahead log");
+            System.exit(1);
+        }
+    }
+
+    // The writer is not interrupted, that would close the file channel under it
+    void close() {
+        appendLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notEmpty.signal();
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            writer.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -3,154 +3,516 @@ package distributed_banking;
 import protobuf.Bank;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class Branch {
-    private final Object balanceLock;
-    private Map<Integer, Bank.ReturnSnapshot.LocalSnapshot> snapshot;
+public class Branch implements MessageHandler {
+    private static final long EPOCH = 1L << 32;
+
+    // Not a monitor, so that virtual threads blocked on a socket write while holding it do not pin their carrier
+    private final TimedLock balanceLock;
+    // Guarded by balanceLock
+    private SnapshotStore snapshot;
+    private volatile SnapshotState[] activeSnapshots;
     private List<String> initBranches;
-    private Map<Socket, String> connections;
-    private List<Socket> keySockets;
-    private int branchBalance;
+    private Map<Connection, String> connections;
+    private List<Connection> keyConnections;
+    // Indexed by peer index
+    private ReentrantLock[] sendLocks;
+    private Connection[] peers;
+    // Only when transfers are batched
+    private TransferBatcher batcher;
+    // Only when tracing. Sequence numbers of traced events per channel: sent ones guarded by the send
+    // lock of the peer, received ones only touched by the receiving thread of the channel
+    private TraceWriter trace;
+    private int[] sentSequence;
+    private int[] receivedSequence;
+    // Only when the balance is logged
+    private BalanceLog balanceLog;
+    // Only when measured in process
+    private volatile BranchListener listener;
+    // Balance in the low 32 bits, number of local snapshots recorded so far (the epoch) in the high 32 bits
+    private final AtomicLong ledger;
     private int totalNumberOfBranches;
-    private Map<Integer, boolean[]> isRecording;
+    private int selfIndex;
     private String branchName;
-    private Random rand;
+    private BranchConfig config;
+    private Transport transport;
+    private Executor connectionExecutor;
+    // The connection InitBranch arrived on
+    private volatile Connection controller;
+    // Local snapshots are sent up the tree of first markers instead of being retrieved by the controller
+    private volatile boolean treeAggregation;
+    // Whether replies carry the recorded channel state, otherwise only partial sums are sent
+    private volatile boolean verbose;
+    private final Metrics metrics;
+    private final LongAdder transfersSent;
+    private final LongAdder transfersReceived;
+    private final LongAdder channelStateEntries;
+    private final Metrics.Histogram markerFanout;
+    private final CountDownLatch listening;
+    // Released once InitBranch has named every branch, peers may connect before this branch gets it
+    private final CountDownLatch initialized;
 
-    private Branch() {
-        balanceLock = new Object();
+    Branch(String branchName, BranchConfig config) {
+        this.branchName = branchName;
+        this.config = config;
+        metrics = new Metrics();
+        // Timing every acquisition costs two clock reads, so only when someone is looking
+        if (config.metricsEnabled() || config.lockProfile) {
+            balanceLock = new TimedLock("balanceLock", "branch_balance_lock", metrics, () -> activeSnapshots.length);
+        } else {
+            balanceLock = new TimedLock();
+        }
+        transfersSent = metrics.counter("branch_transfers_sent_total", "Transfers sent, every transfer of a batch");
+        transfersReceived = metrics.counter("branch_transfers_received_total",
+                "Transfers credited, every transfer of a batch");
+        channelStateEntries = metrics.counter("branch_channel_state_entries_total",
+                "Credits recorded as channel state, once for every snapshot recording them");
+        markerFanout = metrics.histogram("branch_marker_fanout_nanos",
+                "Time to record the local state and queue a marker on every channel");
+        metrics.gauge("branch_balance", "Current balance", this::getBranchBalance);
+        metrics.gauge("branch_active_snapshots", "Snapshots still recording an incoming channel",
+                () -> activeSnapshots.length);
+        metrics.gauge("branch_snapshots_retained", "Snapshots kept by the branch", this::getRetainedSnapshots);
+        metrics.gauge("branch_snapshot_store_bytes", "Estimated size of the snapshots kept by the branch",
+                this::getSnapshotFootprintBytes);
+        metrics.counter("branch_snapshots_evicted_total", "Snapshots evicted over the retention limits",
+                this::getEvictedSnapshots);
+        listening = new CountDownLatch(1);
+        initialized = new CountDownLatch(1);
         connections = new Hashtable<>();
-        snapshot = new HashMap<>();
-        keySockets = new ArrayList<>();
+        snapshot = new SnapshotStore(config.retainSnapshots, config.retainMillis, config.retainBytes, this::evicted);
+        activeSnapshots = new SnapshotState[0];
+        keyConnections = new ArrayList<>();
+        sendLocks = new ReentrantLock[0];
+        peers = new Connection[0];
         initBranches = new ArrayList<>();
-        isRecording = new HashMap<>();
-        branchBalance = 0;
+        ledger = new AtomicLong();
         totalNumberOfBranches = 0;
-        rand = new Random(System.currentTimeMillis());
     }
 
     public static void main(String[] args) {
-        Branch branch = new Branch();
-        branch.branchName = args[0];
-        branch.start(args);
+        try {
+            Branch branch = new Branch(args[0], BranchConfig.parse(args, 2));
+            branch.start(Integer.parseInt(args[1]));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
     }
 
     String getBranchName() {
         return branchName;
     }
 
-    private void start(String[] args) {
-        int portNumber = Integer.parseInt(args[1]);
+    long getTransfersReceived() {
+        return transfersReceived.sum();
+    }
+
+    void setListener(BranchListener listener) {
+        this.listener = listener;
+    }
+
+    // Returns once the branch accepts connections
+    void awaitListening() throws InterruptedException {
+        listening.await();
+    }
+
+    // Connected to every other branch
+    boolean isMeshReady() {
+        return totalNumberOfBranches > 0 && connections.size() == totalNumberOfBranches - 1;
+    }
+
+    void start(int portNumber) {
+        connectionExecutor = config.connectionExecutor();
+        if (config.traceDirectory != null) {
+            try {
+                trace = new TraceWriter(Paths.get(config.traceDirectory, branchName + ".trace"));
+            } catch (IOException e) {
+                System.err.println("Error: Unable to open trace file");
+                System.exit(1);
+            }
+        }
+        if (config.walDirectory != null) {
+            try {
+                balanceLog = new BalanceLog(Paths.get(config.walDirectory, branchName + ".wal"), config.walSync,
+                        config.walSyncMillis, metrics);
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.err.println("Error: Unable to open write-ahead log");
+                System.exit(1);
+            }
+            if (balanceLog.getRecoveredBalance() != null) {
+                System.out.println(branchName + " recovered balance " + balanceLog.getRecoveredBalance() + " from "
+                        + balanceLog.getRecoveredRecords() + " log records");
+            }
+        }
 
         // Start listening on given port number
-        ServerSocket serverSocket = null;
-        String hostName = null;
         try {
-            serverSocket = new ServerSocket(portNumber);
-            hostName = InetAddress.getLocalHost().getCanonicalHostName();
-            System.out.println(branchName + " running on host " + hostName + " and port number " + portNumber);
+            transport = config.transport(this, connectionExecutor);
+            transport.bind(portNumber);
+            listening.countDown();
+            String hostName = InetAddress.getLocalHost().getCanonicalHostName();
+            System.out.println(branchName + " running on host " + hostName + " and port number " + portNumber
+                    + " using the " + config.transport.name().toLowerCase() + " transport");
         } catch (IOException e) {
             System.err.println("Error: Unable to establish server");
             System.exit(1);
         }
+        if (config.metricsEnabled()) {
+            try {
+                MetricsExporter.start(metrics, config.metricsPort, config.metricsFile, config.metricsMillis);
+            } catch (IOException e) {
+                System.err.println("Error: Unable to export metrics");
+                System.exit(1);
+            }
+        }
+        transport.serve();
+    }
 
-        Socket socket;
-        try {
-            // For controller request
-            socket = serverSocket.accept();
-            Thread requestThread = new ProcessRequest(socket, hostName, portNumber, this, false);
-            requestThread.start();
-            // Other branches
-            while (!Thread.interrupted()) {
-                try {
-                    socket = serverSocket.accept();
-                    Thread newThread = new ProcessRequest(socket, hostName, portNumber, this, true);
-                    newThread.start();
-                } catch (IOException e) {
-                    System.err.println("Error: Server unable to accept client request");
-                }
+    @Override
+    public void receivedMessage(Bank.BranchMessage branchMessage, Connection receivedFrom) {
+        switch (branchMessage.getBranchMessageCase()) {
+            case INIT_BRANCH:
+                controller = receivedFrom;
+                channelMetrics("controller", receivedFrom);
+                initBranch(branchMessage.getInitBranch());
+                break;
+            case TRANSFER:
+                traceReceived(TraceWriter.RECEIVED_TRANSFER, receivedFrom, branchMessage.getTransfer().getMoney());
+                addBranchBalance(branchMessage.getTransfer().getMoney(), 1, receivedFrom);
+                break;
+            case TRANSFER_BATCH:
+                Bank.TransferBatch transferBatch = branchMessage.getTransferBatch();
+                traceReceived(TraceWriter.RECEIVED_BATCH, receivedFrom, transferBatch.getSum());
+                addBranchBalance(transferBatch.getSum(), transferBatch.getCount(), receivedFrom);
+                break;
+            case INIT_SNAPSHOT:
+                Bank.InitSnapshot initSnapshot = branchMessage.getInitSnapshot();
+                initSnapshotRequest(initSnapshot.getSnapshotId(), initSnapshot.getTraceMarkers());
+                break;
+            case MARKER:
+                Bank.Marker marker = branchMessage.getMarker();
+                traceReceived(TraceWriter.RECEIVED_MARKER, receivedFrom, marker.getSnapshotId());
+                // Stamped before waiting for balanceLock, that wait is part of the hop
+                receivedMarker(marker.getSnapshotId(), marker.getToParent(), marker.getHops() > 0 ? marker : null,
+                        System.nanoTime(), receivedFrom);
+                break;
+            case RETRIEVE_SNAPSHOT:
+                retrieveSnapshot(branchMessage.getRetrieveSnapshot().getSnapshotId(), receivedFrom);
+                break;
+            case RETURN_SNAPSHOT:
+                receivedSubtree(branchMessage.getReturnSnapshot());
+                break;
+            case SNAPSHOT_COMPLETE:
+                break;
+            case MESH_READY:
+                break;
+            case BRANCHMESSAGE_NOT_SET:
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void initBranch(Bank.InitBranch initBranch) {
+        selfIndex = 0;
+        treeAggregation = initBranch.getTreeAggregation();
+        verbose = initBranch.getVerbose();
+        setTotalNumberOfBranches(initBranch.getAllBranchesCount());
+        // A restarted branch carries on with the balance it had, not the share handed out at initialization
+        Integer recoveredBalance = balanceLog == null ? null : balanceLog.getRecoveredBalance();
+        setBranchBalance(recoveredBalance != null ? recoveredBalance : initBranch.getBalance());
+
+        // Tell branch about the names of all the branches
+        for (int i = 0; i < initBranch.getAllBranchesCount(); i++) {
+            setInitBranches(i, initBranch.getAllBranches(i).getName());
+        }
+
+        // Identify which branch is this
+        for (int i = 0; i < initBranch.getAllBranchesCount(); i++) {
+            if (initBranch.getAllBranches(i).getName().equals(branchName)) {
+                selfIndex = i;
+                break;
             }
-            serverSocket.close();
-        } catch (IOException e) {
+        }
+        initialized.countDown();
+
+        // Wait till every branch receives Init from controller
+        try {
+            Thread.sleep(config.initWaitMillis);
+        } catch (InterruptedException e) {
             e.printStackTrace();
         }
+
+        // Connect to all branch below the current branch
+        for (int i = selfIndex + 1; i < initBranch.getAllBranchesCount(); i++) {
+            try {
+                Bank.InitBranch.Branch branchToConnectTo = initBranch.getAllBranches(i);
+                Connection connection = connectToBranch(branchToConnectTo);
+                newSocketCreated(branchToConnectTo.getName(), connection);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        // A lone branch has no connection to wait for
+        if (initBranch.getAllBranchesCount() == 1) {
+            notifyMeshReady();
+        }
+    }
+
+    private void channelMetrics(String peerName, Connection connection) {
+        String labels = "peer=\"" + peerName + "\"";
+        metrics.gauge("branch_channel_bytes_in", labels, "Bytes received on a channel", connection::getBytesIn);
+        metrics.gauge("branch_channel_bytes_out", labels, "Bytes sent on a channel", connection::getBytesOut);
+        ChannelWriter writer = connection.getWriter();
+        if (writer != null) {
+            metrics.counter("branch_channel_messages_total", labels, "Messages written to a channel",
+                    writer::getMessagesWritten);
+            metrics.counter("branch_channel_writes_total", labels, "Writes to the socket of a channel",
+                    writer::getWrites);
+            metrics.counter("branch_channel_flushes_total", labels, "Buffered messages flushed to a channel",
+                    writer::getFlushes);
+            metrics.gauge("branch_channel_queued", labels, "Messages queued on a channel and not yet written",
+                    writer::getQueuedMessages);
+        }
+    }
+
+    private Connection connectToBranch(Bank.InitBranch.Branch branchToConnectTo) throws IOException {
+        return transport.connect(branchToConnectTo.getIp(), branchToConnectTo.getPort(), branchName,
+                initBranches.indexOf(branchToConnectTo.getName()));
     }
 
-    void newSocketCreated(String branchName, Socket socket) {
-        connections.put(socket, branchName);
-        keySockets.add(socket);
-        if (connections.size() == totalNumberOfBranches - 1) {
-            Runnable transferMoney = this::sendMoney;
-            new Thread(transferMoney).start();
+    @Override
+    public void newSocketCreated(String branchName, Connection connection) {
+        try {
+            initialized.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // Resolved once here so that transfers and markers never look up the sender by name. Connections
+        // this branch made got it from connect(), before their first message was read
+        connection.setPeerIndex(initBranches.indexOf(branchName));
+        boolean meshReady;
+        // Connections are made and accepted on different threads, recordSnapshot walks keyConnections
+        balanceLock.lock();
+        try {
+            peers[connection.getPeerIndex()] = connection;
+            connections.put(connection, branchName);
+            keyConnections.add(connection);
+            meshReady = connections.size() == totalNumberOfBranches - 1;
+        } finally {
+            balanceLock.unlock();
+        }
+        channelMetrics(branchName, connection);
+        if (meshReady) {
+            notifyMeshReady();
+            if (config.replayDirectory != null) {
+                String trace = this.branchName + ".trace";
+                connectionExecutor.execute(new TraceReplay(this, Paths.get(config.replayDirectory, trace)));
+            } else {
+                startWorkload();
+            }
         }
     }
 
     void setTotalNumberOfBranches(int totalNumberOfBranches) {
         this.totalNumberOfBranches = totalNumberOfBranches;
+        ReentrantLock[] locks = new ReentrantLock[totalNumberOfBranches];
+        for (int i = 0; i < totalNumberOfBranches; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        sendLocks = locks;
+        peers = new Connection[totalNumberOfBranches];
+        sentSequence = new int[totalNumberOfBranches];
+        receivedSequence = new int[totalNumberOfBranches];
+        if (config.batchMillis > 0) {
+            batcher = new TransferBatcher(locks, config.batchMillis);
+        }
     }
 
-    private void sendMoney() {
-        while (!Thread.interrupted()) {
-            rand = new Random();
-            int interval = rand.nextInt(5) * 1000;
-            //int interval = 3;
-            try {
-                Thread.sleep(interval);
-                sendTransferMessage();
-            } catch (InterruptedException e) {
-                System.out.println("Error: Interruption in thread delay");
-                e.printStackTrace();
+    private void startWorkload() {
+        // Transfers come from elsewhere, e.g. a benchmark calling sendTransfer
+        if (config.workload == BranchConfig.WorkloadMode.NONE) {
+            return;
+        }
+        int[] destinations = new int[totalNumberOfBranches - 1];
+        for (int i = 0, j = 0; i < totalNumberOfBranches; i++) {
+            if (i != selfIndex) {
+                destinations[j++] = i;
             }
         }
+        // Branches given the same seed still send different transfers
+        long seed = (config.seed != null ? config.seed : System.nanoTime()) + selfIndex;
+        Workload workload = new Workload(this, config, destinations, seed);
+        System.out.println(branchName + " sending " + config.workload.name().toLowerCase()
+                + " workload with seed " + workload.getSeed());
+        workload.start(connectionExecutor);
     }
 
-    private void sendTransferMessage() {
-        synchronized (balanceLock) {
-            if (branchBalance != 0) {
-                Random rand = new Random();
-                int randomIndex = rand.nextInt(keySockets.size());
-                Socket keySocket = keySockets.get(randomIndex);
-                // Calculate the amount to be sent
-                int amountPercent = rand.nextInt(5) + 1;
-                int sendAmount = ((branchBalance * amountPercent) / 100);
-                branchBalance = branchBalance - sendAmount;
-                // Form the transfer message
-                Bank.Transfer branch = Bank.Transfer.newBuilder()
-                        .setMoney(sendAmount)
-                        .build();
-                Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setTransfer(branch).build();
-                // Send message to the output stream
-                try {
-                    branchMessage.writeDelimitedTo(keySocket.getOutputStream());
-                } catch (IOException e) {
-                    e.printStackTrace();
+    // Sends amountPercent percent of the balance to the given peer, returns false without sending if the
+    // balance is 0
+    boolean sendTransferMessage(int peerIndex, int amountPercent) {
+        return sendTransfer(peerIndex, amountPercent, -1);
+    }
+
+    // Sends exactly the given amount, returns false without sending if the balance does not cover it
+    boolean sendTransfer(int peerIndex, int amount) {
+        return sendTransfer(peerIndex, 0, amount);
+    }
+
+    private boolean sendTransfer(int peerIndex, int amountPercent, int amount) {
+        Connection keyConnection = peers[peerIndex];
+        ReentrantLock sendLock = sendLocks[peerIndex];
+        try {
+            keyConnection.awaitCapacity();
+        } catch (InterruptedIOException e) {
+            return false;
+        }
+        lockTransfers(TimedLock.Site.SEND);
+        // A sender waiting for its debit to be forced holds the send lock but not balanceLock. Blocking on
+        // it here would keep balanceLock, and every credit, waiting for that fsync
+        while (!sendLock.tryLock()) {
+            unlockTransfers();
+            sendLock.lock();
+            sendLock.unlock();
+            lockTransfers(TimedLock.Site.SEND);
+        }
+        boolean transfersLocked = true;
+        try {
+            // Calculate the amount to be sent
+            long ledgerValue;
+            int sendAmount;
+            do {
+                ledgerValue = ledger.get();
+                int balance = balanceOf(ledgerValue);
+                sendAmount = amount >= 0 ? amount : (int) (((long) balance * amountPercent) / 100);
+                if (balance == 0 || sendAmount > balance) {
+                    return false;
                 }
+            } while (!ledger.compareAndSet(ledgerValue, ledgerValue - sendAmount));
+            long logged = balanceLog == null ? -1 : balanceLog.append(BalanceLog.DEBIT, peerIndex, sendAmount);
+            // The debit is made, from here on the send lock alone keeps a marker from overtaking this transfer
+            // on its channel, so credits are not held up while the message is built and queued. Recording a
+            // snapshot needs every send lock under balanceLock, so it does wait for this
+            unlockTransfers();
+            transfersLocked = false;
+            if (logged >= 0 && balanceLog.waitsForSync()) {
+                // Group commit: credits and transfers on other channels carry on and share the fsync
+                balanceLog.awaitDurable(logged);
+            }
+            transfersSent.increment();
+            if (trace != null) {
+                trace.record(TraceWriter.SENT_TRANSFER, peerIndex, sentSequence[peerIndex]++, sendAmount);
+            }
+            BranchListener branchListener = listener;
+            if (branchListener != null) {
+                branchListener.sent(peerIndex);
+            }
+            if (batcher != null) {
+                batcher.add(keyConnection, sendAmount);
+                return true;
+            }
+            // Form the transfer message
+            Bank.Transfer branch = Bank.Transfer.newBuilder()
+                    .setMoney(sendAmount)
+                    .build();
+            Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setTransfer(branch).build();
+            // Queue message behind any marker already sent on this channel, it is written outside the lock
+            try {
+                keyConnection.send(branchMessage);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return true;
+        } finally {
+            sendLock.unlock();
+            if (transfersLocked) {
+                unlockTransfers();
             }
         }
     }
 
+    // Called by the receiving thread of the channel
+    private void traceReceived(byte type, Connection receivedFrom, int value) {
+        if (trace != null) {
+            int index = receivedFrom.getPeerIndex();
+            trace.record(type, index, receivedSequence[index]++, value);
+        }
+    }
+
     void setBranchBalance(int branchBalance) {
-        synchronized (balanceLock) {
-            this.branchBalance = branchBalance;
+        balanceLock.lock();
+        try {
+            ledger.set((epochOf(ledger.get()) << 32) | branchBalance);
+            if (balanceLog != null) {
+                balanceLog.append(BalanceLog.BALANCE, selfIndex, branchBalance);
+            }
+        } finally {
+            balanceLock.unlock();
+        }
+    }
+
+    int getBranchBalance() {
+        return balanceOf(ledger.get());
+    }
+
+    // A batch is credited and recorded as one amount, the sum of its transfers
+    void addBranchBalance(int amount, int transfers, Connection connection) {
+        lockTransfers(TimedLock.Site.RECEIVE);
+        try {
+            long previous = ledger.getAndAdd(amount);
+            // Not waited for, the transfer is already taken off its channel and would not be received again
+            if (balanceLog != null) {
+                balanceLog.append(BalanceLog.CREDIT, connection.getPeerIndex(), amount);
+            }
+            recordChannels(epochOf(previous), amount, connection);
+            transfersReceived.add(transfers);
+        } finally {
+            unlockTransfers();
+        }
+        BranchListener branchListener = listener;
+        if (branchListener != null) {
+            branchListener.credited(connection.getPeerIndex(), transfers);
         }
     }
 
-    void addBranchBalance(int amount, Socket socket) {
-        synchronized (balanceLock) {
-            this.branchBalance += amount;
-            recordChannels(amount, socket);
+    // Transfers only exclude each other and snapshots when the balance is not updated with CAS
+    private void lockTransfers(TimedLock.Site site) {
+        if (config.balance == BranchConfig.BalanceMode.LOCK) {
+            balanceLock.lock(site);
         }
     }
 
-    Map<Socket, String> getConnectionsMap() {
+    private void unlockTransfers() {
+        if (config.balance == BranchConfig.BalanceMode.LOCK) {
+            balanceLock.unlock();
+        }
+    }
+
+    private static int balanceOf(long ledgerValue) {
+        return (int) ledgerValue;
+    }
+
+    private static long epochOf(long ledgerValue) {
+        return ledgerValue >>> 32;
+    }
+
+    Map<Connection, String> getConnectionsMap() {
         return connections;
     }
 
@@ -159,110 +521,420 @@ public class Branch {
     }
 
     void initSnapshotRequest(int snapshotId) {
-        // When branch state is recorded, all other messages should be sent after the marker messages only
-        // on respective channel
-        synchronized (balanceLock) {
-            Bank.ReturnSnapshot.LocalSnapshot localSnapshot = Bank.ReturnSnapshot.LocalSnapshot.newBuilder()
-                    .setBalance(branchBalance)
-                    .setSnapshotId(snapshotId)
-                    .addAllChannelState(new ArrayList<>())
-                    .build();
-            snapshot.put(snapshotId, localSnapshot);
-            sendMarkerMessage(snapshotId);
-            // Start recording for all channels
-            for (int i = 0; i < initBranches.size(); i++) {
-                startRecording(snapshotId, i);
+        initSnapshotRequest(snapshotId, false);
+    }
+
+    // A traced snapshot carries its initiator and hop count on every marker, and every branch returns
+    // the markers it received with their send and receive times
+    void initSnapshotRequest(int snapshotId, boolean traceMarkers) {
+        SnapshotEvents.Initiated event = new SnapshotEvents.Initiated();
+        event.begin();
+        int channelsRecording;
+        balanceLock.lock(TimedLock.Site.INIT);
+        try {
+            SnapshotState snapshotState = recordSnapshot(snapshotId, -1, traceMarkers ? selfIndex : -1, 0);
+            // No other branch
+            if (snapshotState.isComplete()) {
+                completed(snapshotState);
             }
+            channelsRecording = snapshotState.getChannelsRecording();
+        } finally {
+            balanceLock.unlock();
+        }
+        if (event.shouldCommit()) {
+            event.snapshotId = snapshotId;
+            event.branchIndex = selfIndex;
+            event.channelsRecording = channelsRecording;
+            event.commit();
         }
     }
 
-    void receivedMarker(int snapshotId, Socket receivedFrom) {
-        synchronized (balanceLock) {
-            // First Marker
-            if (!snapshot.keySet().contains(snapshotId)) {
-                // Start recording for all channels
-                for (int i = 0; i < initBranches.size(); i++) {
-                    startRecording(snapshotId, i);
+    void receivedMarker(int snapshotId, boolean fromChild, Connection receivedFrom) {
+        receivedMarker(snapshotId, fromChild, null, 0, receivedFrom);
+    }
+
+    // traced is the marker itself when it carries a trace context
+    private void receivedMarker(int snapshotId, boolean fromChild, Bank.Marker traced, long receivedNanos,
+                                Connection receivedFrom) {
+        SnapshotEvents.MarkerReceived event = new SnapshotEvents.MarkerReceived();
+        event.begin();
+        int index = receivedFrom.getPeerIndex();
+        boolean first;
+        int recordedEntries = 0;
+        int channelsRecording;
+        balanceLock.lock(TimedLock.Site.MARKER);
+        try {
+            SnapshotState snapshotState = snapshot.get(snapshotId);
+            if (snapshotState == null && snapshot.isEvicted(snapshotId)) {
+                // Recording it again would start the evicted snapshot over and send its markers to every peer
+                return;
+            }
+            first = snapshotState == null;
+            if (first) {
+                // First Marker, the incoming channel it came on is empty
+                snapshotState = traced == null ? recordSnapshot(snapshotId, index, -1, 0)
+                        : recordSnapshot(snapshotId, index, traced.getInitiator(), traced.getHops());
+                if (traced != null) {
+                    snapshotState.addMarkerHop(index, traced.getHops(), traced.getSentNanos(), receivedNanos);
                 }
+                // Only one incoming channel, and the marker came on it
+                if (snapshotState.isComplete()) {
+                    completed(snapshotState);
+                }
+            } else {
+                // Not first Marker. A child's marker always comes after this branch recorded its state,
+                // so every child is counted by the time the last marker arrives
+                if (fromChild) {
+                    snapshotState.addChild();
+                }
+                if (traced != null) {
+                    snapshotState.addMarkerHop(index, traced.getHops(), traced.getSentNanos(), receivedNanos);
+                }
+                recordedEntries = snapshotState.recordedEntries(index);
+                stopRecording(snapshotState, index);
+            }
+            channelsRecording = snapshotState.getChannelsRecording();
+        } finally {
+            balanceLock.unlock();
+        }
+        if (event.shouldCommit()) {
+            event.snapshotId = snapshotId;
+            event.branchIndex = selfIndex;
+            event.peerIndex = index;
+            event.first = first;
+            event.recordedEntries = recordedEntries;
+            event.channelsRecording = channelsRecording;
+            event.commit();
+        }
+    }
 
-                // Stop recording for incoming channel received this marker from
-                String branchNameReceivedFrom = connections.get(receivedFrom);
-                stopRecording(snapshotId, initBranches.indexOf(branchNameReceivedFrom));
+    // Caller holds balanceLock. When branch state is recorded, all other messages should be sent after the
+    // marker messages only on respective channel, so sending is held off on every channel until the markers
+    // are queued. Receiving carries on and uses the epoch of its credit to tell if it came after the cut.
+    // The initiator is -1 unless the snapshot is traced, hops is how many the first marker took to get here.
+    // The caller completes the snapshot if there is no other channel to wait for.
+    private SnapshotState recordSnapshot(int snapshotId, int receivedFromIndex, int initiator, int hops) {
+        SnapshotState snapshotState = new SnapshotState(snapshotId, epochOf(ledger.get()) + 1, initBranches.size(),
+                receivedFromIndex);
+        if (initiator >= 0) {
+            snapshotState.trace(initiator, hops);
+        }
+        // Start recording for all incoming channels
+        for (int i = 0; i < initBranches.size(); i++) {
+            if (i != selfIndex && i != receivedFromIndex) {
+                snapshotState.startRecording(i);
+                recordingStarted(snapshotId, i);
+            }
+        }
+        snapshot.put(snapshotState);
+        BranchListener branchListener = listener;
+        if (branchListener != null) {
+            branchListener.recorded(snapshotId, receivedFromIndex < 0);
+        }
+        // Published before the epoch moves, so every credit made after the cut can see it
+        if (!snapshotState.isComplete()) {
+            activate(snapshotState);
+        }
 
-                // Record balance
-                Bank.ReturnSnapshot.LocalSnapshot localSnapshot = Bank.ReturnSnapshot.LocalSnapshot.newBuilder()
-                        .setBalance(branchBalance)
-                        .addAllChannelState(new ArrayList<>())
-                        .setSnapshotId(snapshotId)
-                        .build();
-                snapshot.put(snapshotId, localSnapshot);
+        List<ReentrantLock> locked = new ArrayList<>();
+        try {
+            for (Connection connection : keyConnections) {
+                ReentrantLock sendLock = sendLocks[connection.getPeerIndex()];
+                sendLock.lock();
+                locked.add(sendLock);
+            }
+            // Record balance
+            long fanoutStart = System.nanoTime();
+            snapshotState.setBalance(balanceOf(ledger.getAndAdd(EPOCH)));
+            sendMarkerMessage(snapshotState);
+            markerFanout.record(System.nanoTime() - fanoutStart);
+        } finally {
+            for (ReentrantLock sendLock : locked) {
+                sendLock.unlock();
+            }
+        }
+        return snapshotState;
+    }
 
-                // Send Marker message
-                sendMarkerMessage(snapshotId);
+    private void recordingStarted(int snapshotId, int index) {
+        SnapshotEvents.ChannelRecordingStarted event = new SnapshotEvents.ChannelRecordingStarted();
+        if (event.isEnabled()) {
+            event.snapshotId = snapshotId;
+            event.branchIndex = selfIndex;
+            event.peerIndex = index;
+            event.commit();
+        }
+    }
 
-            } else {
-                // Not first Marker
-                // Stop recording for all channels
-                String branchNameReceivedFrom = connections.get(receivedFrom);
-                stopRecording(snapshotId, initBranches.indexOf(branchNameReceivedFrom));
+    private void recordingStopped(SnapshotState snapshotState, int index) {
+        SnapshotEvents.ChannelRecordingStopped event = new SnapshotEvents.ChannelRecordingStopped();
+        if (event.isEnabled()) {
+            event.snapshotId = snapshotState.getSnapshotId();
+            event.branchIndex = selfIndex;
+            event.peerIndex = index;
+            event.recordedEntries = snapshotState.recordedEntries(index);
+            event.recordingNanos = System.nanoTime() - snapshotState.getRecordedAt();
+            event.commit();
+        }
+    }
+
+    private void stopRecording(SnapshotState snapshotState, int index) {
+        recordingStopped(snapshotState, index);
+        snapshotState.stopRecording(index);
+        if (snapshotState.isComplete()) {
+            deactivate(snapshotState);
+            completed(snapshotState);
+        }
+    }
+
+    // Caller holds balanceLock
+    private void completed(SnapshotState snapshotState) {
+        BranchListener branchListener = listener;
+        if (branchListener != null) {
+            branchListener.completed(snapshotState.getSnapshotId());
+        }
+        if (treeAggregation) {
+            reportSubtreeIfReady(snapshotState);
+        } else {
+            notifyComplete(snapshotState.getSnapshotId());
+        }
+    }
+
+    void receivedSubtree(Bank.ReturnSnapshot returnSnapshot) {
+        balanceLock.lock(TimedLock.Site.MARKER);
+        try {
+            SnapshotState snapshotState = snapshot.get(returnSnapshot.getLocalSnapshot().getSnapshotId());
+            // The snapshot was given up on, so is its subtree
+            if (snapshotState == null && snapshot.isEvicted(returnSnapshot.getLocalSnapshot().getSnapshotId())) {
+                return;
+            }
+            if (snapshotState == null) {
+                System.err.println("Error: Snapshot " + returnSnapshot.getLocalSnapshot().getSnapshotId()
+                        + " is not retained");
+                return;
             }
+            // The controller needs the marker hops of every branch to trace the snapshot
+            snapshotState.addSubtree(returnSnapshot, verbose || snapshotState.isTraced());
+            reportSubtreeIfReady(snapshotState);
+        } finally {
+            balanceLock.unlock();
         }
     }
 
-    private void startRecording(int snapshotId, int index) {
-        boolean[] booleans = isRecording.get(snapshotId);
-        if (booleans == null) {
-            isRecording.put(snapshotId, new boolean[initBranches.size()]);
+    // Caller holds balanceLock. Once this branch and every branch below it in the tree are complete, their
+    // local snapshots go to the parent in one message, or to the controller from the initiator
+    private void reportSubtreeIfReady(SnapshotState snapshotState) {
+        if (!snapshotState.isSubtreeComplete()) {
+            return;
+        }
+        int parentIndex = snapshotState.getParentIndex();
+        Connection reportTo = parentIndex < 0 ? controller : peers[parentIndex];
+        snapshot.retrieved(snapshotState);
+        if (reportTo == null) {
+            return;
+        }
+        Bank.ReturnSnapshot returnSnapshot = Bank.ReturnSnapshot.newBuilder()
+                .setLocalSnapshot(snapshotState.toLocalSnapshot(selfIndex, verbose))
+                .setSubtreeBranches(snapshotState.getSubtreeBranches())
+                .setSubtreeSum(snapshotState.getSubtreeSum())
+                .addAllSubtree(snapshotState.getSubtree())
+                .build();
+        Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setReturnSnapshot(returnSnapshot).build();
+        try {
+            reportTo.send(branchMessage);
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-        isRecording.get(snapshotId)[index] = true;
     }
 
-    private void stopRecording(int snapshotId, int index) {
-        synchronized (balanceLock) {
-            isRecording.get(snapshotId)[index] = false;
+    // Tells the controller this branch is connected to every other branch
+    private void notifyMeshReady() {
+        Bank.MeshReady meshReady = Bank.MeshReady.newBuilder()
+                .setBranchIndex(selfIndex)
+                .build();
+        Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setMeshReady(meshReady).build();
+        try {
+            controller.send(branchMessage);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Tells the controller it can retrieve this branch's part of the snapshot
+    private void notifyComplete(int snapshotId) {
+        Connection controller = this.controller;
+        if (controller == null) {
+            return;
+        }
+        Bank.SnapshotComplete snapshotComplete = Bank.SnapshotComplete.newBuilder()
+                .setSnapshotId(snapshotId)
+                .build();
+        Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setSnapshotComplete(snapshotComplete).build();
+        try {
+            controller.send(branchMessage);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void activate(SnapshotState snapshotState) {
+        SnapshotState[] active = Arrays.copyOf(activeSnapshots, activeSnapshots.length + 1);
+        active[active.length - 1] = snapshotState;
+        activeSnapshots = active;
+    }
+
+    // Evicted before all its markers arrived, stop recording it
+    private void evicted(SnapshotState snapshotState) {
+        if (!snapshotState.isComplete()) {
+            deactivate(snapshotState);
+            for (int i = 0; i < initBranches.size(); i++) {
+                if (snapshotState.isRecording(i)) {
+                    recordingStopped(snapshotState, i);
+                }
+            }
         }
     }
 
-    private void recordChannels(int moneyTransferred, Socket receivingSocket) {
-        String branchName = connections.get(receivingSocket);
-        int index = initBranches.indexOf(branchName);
-        for (int snapshotId : isRecording.keySet()) {
-            if (isRecording.get(snapshotId)[index]) {
-                Bank.ReturnSnapshot.LocalSnapshot localSnapshot = snapshot.get(snapshotId);
-                localSnapshot.getChannelStateList().add(index);
-                localSnapshot.getChannelStateList().add(moneyTransferred);
+    private void deactivate(SnapshotState snapshotState) {
+        List<SnapshotState> active = new ArrayList<>(Arrays.asList(activeSnapshots));
+        active.remove(snapshotState);
+        activeSnapshots = active.toArray(new SnapshotState[0]);
+    }
+
+    // A credit with a given epoch came after exactly that many local snapshots were recorded
+    private void recordChannels(long epoch, int moneyTransferred, Connection receivingConnection) {
+        SnapshotState[] active = activeSnapshots;
+        if (active.length == 0) {
+            return;
+        }
+        int index = receivingConnection.getPeerIndex();
+        for (SnapshotState snapshotState : active) {
+            if (snapshotState.getEpoch() <= epoch && snapshotState.isRecording(index)) {
+                snapshotState.record(index, moneyTransferred);
+                channelStateEntries.increment();
             }
         }
     }
 
-    void retrieveSnapshot(int snapshotId, Socket receivedFrom) {
-        Bank.ReturnSnapshot.LocalSnapshot localSnapshot = snapshot.get(snapshotId);
-        returnSnapshot(receivedFrom, localSnapshot);
+    boolean isSnapshotComplete(int snapshotId) {
+        balanceLock.lock();
+        try {
+            SnapshotState snapshotState = snapshot.get(snapshotId);
+            return snapshotState != null && snapshotState.isComplete();
+        } finally {
+            balanceLock.unlock();
+        }
     }
 
-    private void returnSnapshot(Socket returnTo, Bank.ReturnSnapshot.LocalSnapshot localSnapshot) {
+    Bank.ReturnSnapshot.LocalSnapshot getLocalSnapshot(int snapshotId) {
+        SnapshotState snapshotState;
+        balanceLock.lock(TimedLock.Site.RETRIEVE);
+        try {
+            snapshotState = snapshot.get(snapshotId);
+        } finally {
+            balanceLock.unlock();
+        }
+        return snapshotState == null ? null : snapshotState.toLocalSnapshot(selfIndex, true);
+    }
+
+    int getRetainedSnapshots() {
+        balanceLock.lock();
+        try {
+            return snapshot.size();
+        } finally {
+            balanceLock.unlock();
+        }
+    }
+
+    long getEvictedSnapshots() {
+        balanceLock.lock();
+        try {
+            return snapshot.getEvicted();
+        } finally {
+            balanceLock.unlock();
+        }
+    }
+
+    // A running total, read without balanceLock
+    long getSnapshotFootprintBytes() {
+        return snapshot.footprintBytes();
+    }
+
+    void retrieveSnapshot(int snapshotId, Connection receivedFrom) {
+        SnapshotEvents.LocalSnapshotRetrieved event = new SnapshotEvents.LocalSnapshotRetrieved();
+        event.begin();
+        SnapshotState snapshotState;
+        balanceLock.lock(TimedLock.Site.RETRIEVE);
+        try {
+            snapshotState = snapshot.get(snapshotId);
+            if (snapshotState != null) {
+                snapshot.retrieved(snapshotState);
+            }
+        } finally {
+            balanceLock.unlock();
+        }
+        if (snapshotState != null) {
+            returnSnapshot(receivedFrom, snapshotState.toLocalSnapshot(selfIndex, verbose));
+        } else {
+            System.err.println("Error: Snapshot " + snapshotId + " is not retained");
+        }
+        if (event.shouldCommit()) {
+            event.snapshotId = snapshotId;
+            event.branchIndex = selfIndex;
+            event.recordedEntries = snapshotState == null ? 0 : snapshotState.recordedEntries();
+            event.retained = snapshotState != null;
+            event.commit();
+        }
+    }
+
+    private void returnSnapshot(Connection returnTo, Bank.ReturnSnapshot.LocalSnapshot localSnapshot) {
         Bank.ReturnSnapshot returnSnapshot = Bank.ReturnSnapshot.newBuilder()
                 .setLocalSnapshot(localSnapshot)
                 .build();
         Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setReturnSnapshot(returnSnapshot).build();
         try {
-            branchMessage.writeDelimitedTo(returnTo.getOutputStream());
+            returnTo.send(branchMessage);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private void sendMarkerMessage(int snapshotId) {
+    private void sendMarkerMessage(SnapshotState snapshotState) {
+        int snapshotId = snapshotState.getSnapshotId();
+        int parentIndex = snapshotState.getParentIndex();
+        boolean traced = snapshotState.isTraced();
         // Form marker message
-        Bank.Marker marker = Bank.Marker.newBuilder()
-                .setSnapshotId(snapshotId)
-                .build();
+        Bank.Marker.Builder markerBuilder = Bank.Marker.newBuilder()
+                .setSnapshotId(snapshotId);
+        if (traced) {
+            markerBuilder.setInitiator(snapshotState.getInitiator()).setHops(snapshotState.getHops() + 1);
+        }
+        Bank.Marker marker = markerBuilder.build();
         Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setMarker(marker).build();
+        // In tree mode the marker back to the parent makes this branch its child
+        Bank.BranchMessage toParent = treeAggregation
+                ? Bank.BranchMessage.newBuilder().setMarker(marker.toBuilder().setToParent(true)).build()
+                : branchMessage;
 
-        // Send marker message
-        for (Socket socket : getConnectionsMap().keySet()) {
+        // Queue marker message on every channel, callers hold balanceLock so no transfer can overtake it.
+        // Batched debits are already out of the recorded balance, they go ahead of the marker
+        for (Connection connection : getConnectionsMap().keySet()) {
+            if (batcher != null) {
+                batcher.flush(connection);
+            }
+            if (trace != null) {
+                int index = connection.getPeerIndex();
+                trace.record(TraceWriter.SENT_MARKER, index, sentSequence[index]++, snapshotId);
+            }
+            Bank.BranchMessage markerMessage = connection.getPeerIndex() == parentIndex ? toParent : branchMessage;
+            if (traced) {
+                // Stamped per channel, a marker queued late in the fan-out should not be charged to its channel
+                markerMessage = Bank.BranchMessage.newBuilder()
+                        .setMarker(markerMessage.getMarker().toBuilder().setSentNanos(System.nanoTime()))
+                        .build();
+            }
             try {
-                branchMessage.writeDelimitedTo(socket.getOutputStream());
+                connection.send(markerMessage);
             } catch (IOException e) {
                 e.printStackTrace();
             }
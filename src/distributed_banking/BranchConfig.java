@@ -0,0 +1,227 @@
+package distributed_banking;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Optional "--key=value" flags given after the branch name and port number
+class BranchConfig {
+    enum TransportMode {
+        BLOCKING, NIO, MEMORY
+    }
+
+    enum ThreadMode {
+        PLATFORM, VIRTUAL
+    }
+
+    enum BalanceMode {
+        LOCK, CAS
+    }
+
+    enum WorkloadMode {
+        INTERVAL, RATE, CLOSED, BURST, NONE
+    }
+
+    TransportMode transport = TransportMode.BLOCKING;
+    ThreadMode threads = ThreadMode.PLATFORM;
+    BalanceMode balance = BalanceMode.LOCK;
+    int selectors = 1;
+    int queueCapacity = 1024;
+    int flushBytes = 8 * 1024;
+    long flushMillis = 1;
+    // Kernel send and receive buffer of every branch socket, 0 leaves them to the OS
+    int socketBuffer = 64 * 1024;
+    int retainSnapshots = 100;
+    long retainMillis = 10 * 60 * 1000;
+    long retainBytes = 64L * 1024 * 1024;
+    long batchMillis = 0;
+    WorkloadMode workload = WorkloadMode.INTERVAL;
+    int rate = 1000;
+    int outstanding = 1;
+    int burst = 100;
+    double zipf = 0;
+    // Picked at startup when not given
+    Long seed;
+    String traceDirectory;
+    String replayDirectory;
+    long initWaitMillis = 3000;
+    // Metrics are exported when either is set
+    int metricsPort = 0;
+    String metricsFile;
+    long metricsMillis = 10000;
+    // balanceLock is also profiled while metrics are exported
+    boolean lockProfile = false;
+    // The balance is only logged when a directory is given
+    String walDirectory;
+    BalanceLog.SyncPolicy walSync = BalanceLog.SyncPolicy.BATCH;
+    long walSyncMillis = 10;
+
+    static BranchConfig parse(String[] args, int from) {
+        BranchConfig config = new BranchConfig();
+        for (int i = from; i < args.length; i++) {
+            String arg = args[i];
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Unrecognized option " + arg);
+            }
+            String key = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (key) {
+                case "transport":
+                    config.transport = TransportMode.valueOf(value.toUpperCase());
+                    break;
+                case "threads":
+                    config.threads = ThreadMode.valueOf(value.toUpperCase());
+                    if (config.threads == ThreadMode.VIRTUAL && !virtualThreadsSupported()) {
+                        throw new IllegalArgumentException("Virtual threads require JDK 21 or newer");
+                    }
+                    break;
+                case "balance":
+                    config.balance = BalanceMode.valueOf(value.toUpperCase());
+                    break;
+                case "selectors":
+                    config.selectors = positive(key, value);
+                    break;
+                case "queue-capacity":
+                    config.queueCapacity = positive(key, value);
+                    break;
+                case "flush-bytes":
+                    config.flushBytes = positive(key, value);
+                    break;
+                case "flush-millis":
+                    config.flushMillis = Long.parseLong(notNegative(key, value));
+                    break;
+                case "socket-buffer":
+                    config.socketBuffer = Integer.parseInt(notNegative(key, value));
+                    break;
+                case "retain-snapshots":
+                    config.retainSnapshots = Integer.parseInt(notNegative(key, value));
+                    break;
+                case "retain-millis":
+                    config.retainMillis = Long.parseLong(notNegative(key, value));
+                    break;
+                case "retain-bytes":
+                    config.retainBytes = Long.parseLong(notNegative(key, value));
+                    break;
+                case "batch-millis":
+                    config.batchMillis = Long.parseLong(notNegative(key, value));
+                    break;
+                case "workload":
+                    config.workload = WorkloadMode.valueOf(value.toUpperCase());
+                    break;
+                case "rate":
+                    config.rate = positive(key, value);
+                    break;
+                case "outstanding":
+                    config.outstanding = positive(key, value);
+                    break;
+                case "burst":
+                    config.burst = positive(key, value);
+                    break;
+                case "zipf":
+                    config.zipf = Double.parseDouble(value);
+                    if (config.zipf < 0) {
+                        throw new IllegalArgumentException(key + " must not be negative");
+                    }
+                    break;
+                case "seed":
+                    config.seed = Long.parseLong(value);
+                    break;
+                case "trace":
+                    config.traceDirectory = value;
+                    break;
+                case "replay":
+                    config.replayDirectory = value;
+                    break;
+                case "init-wait-millis":
+                    config.initWaitMillis = Long.parseLong(notNegative(key, value));
+                    break;
+                case "metrics-port":
+                    config.metricsPort = Integer.parseInt(notNegative(key, value));
+                    break;
+                case "metrics-file":
+                    config.metricsFile = value;
+                    break;
+                case "metrics-millis":
+                    config.metricsMillis = positive(key, value);
+                    break;
+                case "lock-profile":
+                    if (!value.equals("true") && !value.equals("false")) {
+                        throw new IllegalArgumentException("lock-profile must be true or false");
+                    }
+                    config.lockProfile = value.equals("true");
+                    break;
+                case "wal":
+                    config.walDirectory = value;
+                    break;
+                case "wal-sync":
+                    config.walSync = BalanceLog.SyncPolicy.valueOf(value.toUpperCase());
+                    break;
+                case "wal-sync-millis":
+                    config.walSyncMillis = positive(key, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized option " + arg);
+            }
+        }
+        return config;
+    }
+
+    boolean metricsEnabled() {
+        return metricsPort > 0 || metricsFile != null;
+    }
+
+    Transport transport(MessageHandler handler, Executor executor) throws IOException {
+        switch (transport) {
+            case NIO:
+                return new NioTransport(handler, this, executor);
+            case MEMORY:
+                return new InMemoryTransport(handler, this, executor);
+            default:
+                return new SocketTransport(handler, this, executor);
+        }
+    }
+
+    // Runs every connection handler on its own thread of the configured kind
+    Executor connectionExecutor() {
+        if (threads == ThreadMode.VIRTUAL) {
+            // Looked up reflectively so that the build does not require JDK 21
+            try {
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Virtual threads require JDK 21 or newer");
+            }
+        }
+        return command -> new Thread(command).start();
+    }
+
+    // Connection writers drain their queues on virtual threads as well when the handlers run on them, on a
+    // shared pool of platform threads otherwise
+    Executor drainerExecutor(Executor connectionExecutor) {
+        return threads == ThreadMode.VIRTUAL ? connectionExecutor : ChannelWriter.DRAINERS;
+    }
+
+    private static boolean virtualThreadsSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    static String notNegative(String key, String value) {
+        if (Long.parseLong(value) < 0) {
+            throw new IllegalArgumentException(key + " must not be negative");
+        }
+        return value;
+    }
+
+    static int positive(String key, String value) {
+        int number = Integer.parseInt(value);
+        if (number <= 0) {
+            throw new IllegalArgumentException(key + " must be positive");
+        }
+        return number;
+    }
+}
@@ -0,0 +1,18 @@
+package distributed_banking;
+
+// Told about transfers and local snapshots as a branch handles them, for measuring a cluster running
+// in one JVM. Calls are made on the branch's own threads, some while it holds balanceLock or a send
+// lock, so implementations only take timestamps and count.
+interface BranchListener {
+    // Under the send lock of the peer, so the calls for one channel come in the order of its transfers
+    void sent(int peerIndex);
+
+    // By the receiving thread of the channel, for a single transfer or a whole batch
+    void credited(int peerIndex, int transfers);
+
+    // State recorded, by the initiator on InitSnapshot or by any other branch on its first marker
+    void recorded(int snapshotId, boolean initiator);
+
+    // Last marker in, every incoming channel of the snapshot is recorded
+    void completed(int snapshotId);
+}
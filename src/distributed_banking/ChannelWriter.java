@@ -0,0 +1,203 @@
+package distributed_banking;
+
+import com.google.protobuf.CodedOutputStream;
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Outbound side of one connection. Senders put messages on a FIFO queue; a drainer from a shared pool
+// frames them into a reusable CodedOutputStream buffer, which reaches the socket in a single write once
+// flushBytes are pending or flushMillis have passed since the first unflushed message. Messages are
+// never reordered, markers and transfers share the queue and the buffer.
+// Queuing never blocks, it happens under the send locks, for markers under balanceLock too, and a thread
+// blocked there on a full queue would stop this branch from crediting and so from reading its sockets. Senders of
+// transfers wait for room in awaitCapacity before they take any lock instead, markers and replies are
+// always queued, so a queue holds a few more than queueCapacity messages.
+class ChannelWriter {
+    // Shared by every writer in the process unless drainers run on virtual threads, at most one drainer
+    // runs per writer at a time
+    static final ExecutorService DRAINERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "channel-drainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "channel-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Queue<Bank.BranchMessage> queue;
+    private final int queueCapacity;
+    // Messages on the queue, its size() would walk it
+    private final AtomicInteger queued;
+    // Senders parked until the queue has room, woken by the drainer
+    private final Queue<Thread> capacityWaiters;
+    private final AtomicBoolean draining;
+    private final Executor drainers;
+    private final CountingOutputStream sink;
+    private final CodedOutputStream codedOutputStream;
+    private final ReentrantLock writeLock;
+    private final int flushBytes;
+    private final long flushMillis;
+    // Set by the flusher without writeLock, a drainer holds it across blocking writes
+    private volatile boolean flushScheduled;
+    private volatile boolean flushDue;
+    private long pendingBytes;
+    private volatile long messages;
+    private volatile long flushes;
+
+    ChannelWriter(OutputStream outputStream, Executor drainers, int queueCapacity, int flushBytes, long flushMillis) {
+        this.drainers = drainers;
+        this.queueCapacity = queueCapacity;
+        this.flushBytes = flushBytes;
+        this.flushMillis = flushMillis;
+        queue = new ConcurrentLinkedQueue<>();
+        queued = new AtomicInteger();
+        capacityWaiters = new ConcurrentLinkedQueue<>();
+        draining = new AtomicBoolean();
+        sink = new CountingOutputStream(outputStream);
+        codedOutputStream = CodedOutputStream.newInstance(sink, flushBytes);
+        writeLock = new ReentrantLock();
+    }
+
+    // Only enqueues, callers holding the send locks never wait on the socket
+    void write(Bank.BranchMessage branchMessage) {
+        queued.incrementAndGet();
+        queue.add(branchMessage);
+        scheduleDrain();
+    }
+
+    // Returns once the queue has room. Senders waiting at once can each still queue one
+    void awaitCapacity() throws InterruptedIOException {
+        while (queued.get() >= queueCapacity) {
+            Thread current = Thread.currentThread();
+            capacityWaiters.add(current);
+            // Looked at again once registered, the drainer may have made room before it could see this waiter
+            if (queued.get() >= queueCapacity) {
+                LockSupport.park(this);
+            }
+            capacityWaiters.remove(current);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for space in the outbound queue");
+            }
+        }
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            drainers.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        writeLock.lock();
+        try {
+            Bank.BranchMessage branchMessage;
+            while ((branchMessage = queue.poll()) != null) {
+                if (queued.decrementAndGet() < queueCapacity && !capacityWaiters.isEmpty()) {
+                    for (Thread waiter : capacityWaiters) {
+                        LockSupport.unpark(waiter);
+                    }
+                }
+                int size = branchMessage.getSerializedSize();
+                codedOutputStream.writeUInt32NoTag(size);
+                branchMessage.writeTo(codedOutputStream);
+                pendingBytes += CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+                messages++;
+            }
+            if (flushDue || flushMillis == 0 || pendingBytes >= flushBytes) {
+                flush();
+            } else if (pendingBytes > 0 && !flushScheduled) {
+                flushScheduled = true;
+                FLUSHER.schedule(this::scheduledFlush, flushMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            draining.set(false);
+            writeLock.unlock();
+        }
+        // A message enqueued after the last poll but before draining was reset would otherwise wait
+        if (!queue.isEmpty() || flushDue) {
+            scheduleDrain();
+        }
+    }
+
+    private void flush() throws IOException {
+        flushDue = false;
+        if (pendingBytes > 0) {
+            codedOutputStream.flush();
+            pendingBytes = 0;
+            flushes++;
+        }
+    }
+
+    // The flush itself happens on a drainer, a slow peer must not hold up the shared flusher thread
+    private void scheduledFlush() {
+        flushDue = true;
+        flushScheduled = false;
+        scheduleDrain();
+    }
+
+    int getQueuedMessages() {
+        return queued.get();
+    }
+
+    long getBytesWritten() {
+        return sink.bytes;
+    }
+
+    long getMessagesWritten() {
+        return messages;
+    }
+
+    long getWrites() {
+        return sink.writes;
+    }
+
+    long getFlushes() {
+        return flushes;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private final OutputStream outputStream;
+        private volatile long bytes;
+        private volatile long writes;
+
+        CountingOutputStream(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            outputStream.write(b, off, len);
+            bytes += len;
+            writes++;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            outputStream.flush();
+        }
+    }
+}
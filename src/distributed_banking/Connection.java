@@ -0,0 +1,36 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+// One end of a branch-to-branch or controller-to-branch link. Messages sent on a
+// connection are delivered in order, which the snapshot algorithm depends on.
+interface Connection {
+    void send(Bank.BranchMessage branchMessage) throws IOException;
+
+    // Called before any lock is taken for a send, returns once the connection has room for another
+    // message. send itself never waits for room, it is called under the send locks.
+    default void awaitCapacity() throws InterruptedIOException {
+    }
+
+    // Bytes read from and written to the socket, links without one count none
+    default long getBytesIn() {
+        return 0;
+    }
+
+    default long getBytesOut() {
+        return 0;
+    }
+
+    // Writer batching the outgoing messages, null for links that write each one as it is sent
+    default ChannelWriter getWriter() {
+        return null;
+    }
+
+    // Position of the branch at the other end in the InitBranch list, -1 for the controller
+    int getPeerIndex();
+
+    void setPeerIndex(int peerIndex);
+}
@@ -5,33 +5,76 @@ import protobuf.Bank;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.net.Socket;
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Controller {
 
-    private static Map<Integer, String[]> snapshots = new Hashtable<>();
+    private final int totalMoney;
+    private final List<Bank.InitBranch.Branch> branchList;
+    private final ControllerConfig config;
+    private final List<Connection> connectionList;
+    // Snapshots requested and not yet retrieved, by snapshot id
+    private final Map<Integer, PendingSnapshot> snapshots;
+    private final AtomicInteger nextSnapshotId;
+    // Counted down once by every branch connected to all the others
+    private final CountDownLatch meshReady;
+    private final Set<Integer> meshReadyBranches;
+    private final Random rand;
+    private final Metrics metrics;
+    private final LongAdder snapshotsStarted;
+    private final LongAdder snapshotsRetrieved;
+    private final LongAdder snapshotViolations;
+    private final Metrics.Histogram snapshotNanos;
+    private Transport transport;
+    private volatile boolean closing;
+
+    Controller(int totalMoney, List<Bank.InitBranch.Branch> branchList, ControllerConfig config) {
+        this.totalMoney = totalMoney;
+        this.branchList = branchList;
+        this.config = config;
+        connectionList = new ArrayList<>();
+        snapshots = new ConcurrentHashMap<>();
+        nextSnapshotId = new AtomicInteger(1);
+        meshReady = new CountDownLatch(branchList.size());
+        meshReadyBranches = ConcurrentHashMap.newKeySet();
+        rand = new Random();
+        metrics = new Metrics();
+        snapshotsStarted = metrics.counter("controller_snapshots_started_total", "Snapshots requested");
+        snapshotsRetrieved = metrics.counter("controller_snapshots_retrieved_total",
+                "Snapshots with every local snapshot retrieved");
+        snapshotViolations = metrics.counter("controller_snapshot_violations_total",
+                "Retrieved snapshots whose total is not the money in the system");
+        snapshotNanos = metrics.histogram("controller_snapshot_nanos",
+                "Time from requesting a snapshot to retrieving its last local snapshot");
+        metrics.gauge("controller_snapshots_in_flight", "Snapshots requested and not yet retrieved", snapshots::size);
+    }
 
     public static void main(String[] args) throws IOException {
+        ControllerConfig config;
+        try {
+            config = ControllerConfig.parse(args, 2);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
         int totalMoney = Integer.parseInt(args[0]);
-        List<Socket> socketList = new ArrayList<>();
         String fileIn = args[1];
         BufferedReader bufferedReader = new BufferedReader(new FileReader(fileIn));
         String currentLine;
-        int numberOfBranches = 0;
-        List<String> branchIp = new ArrayList<>();
-        List<String> branchPort = new ArrayList<>();
         List<Bank.InitBranch.Branch> branchList = new ArrayList<>();
         while ((currentLine = bufferedReader.readLine()) != null) {
-            numberOfBranches++;
             String[] strings = currentLine.split(" ");
-            branchIp.add(strings[1]);
-            branchPort.add(strings[2]);
-
             Bank.InitBranch.Branch branch = Bank.InitBranch.Branch.newBuilder()
                     .setName(strings[0])
                     .setIp(strings[1])
@@ -41,117 +84,283 @@ public class Controller {
         }
         bufferedReader.close();
 
-        // Send init branch message to all branches
-        Bank.InitBranch initBranch = Bank.InitBranch.newBuilder()
-                .setBalance(totalMoney / numberOfBranches)
-                .addAllAllBranches(branchList)
-                .build();
-        Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setInitBranch(initBranch).build();
-        for (int i = 0; i < branchIp.size(); i++) {
-            Socket socket = new Socket(branchIp.get(i), Integer.parseInt(branchPort.get(i)));
-            socketList.add(socket);
-            branchMessage.writeDelimitedTo(socket.getOutputStream());
-        }
+        Controller controller = new Controller(totalMoney, branchList, config);
+        controller.initBranches();
 
         // Wait till all branches are connected to each other
         try {
-            Thread.sleep(5000);
+            if (!controller.awaitMesh(config.meshTimeoutMillis)) {
+                System.err.println("Error: " + controller.getBranchesNotReady()
+                        + " branches not connected to every other branch after " + config.meshTimeoutMillis + " ms");
+                System.exit(1);
+            }
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
 
-        int snapshotId = 1;
+        // Up to config.window snapshots are in flight at a time, each is checked and printed as soon as it is retrieved
+        Semaphore window = new Semaphore(config.window);
+        AtomicInteger violations = new AtomicInteger();
+        long start = System.nanoTime();
+        int taken = 0;
+        while (!Thread.interrupted() && (config.snapshots == 0 || taken < config.snapshots)) {
+            window.acquireUninterruptibly();
+            PendingSnapshot pendingSnapshot = controller.takeSnapshot();
+            pendingSnapshot.retrieved().thenAccept(total -> {
+                // Print output
+                StringBuilder output = new StringBuilder("snapshot_id: ").append(pendingSnapshot.getSnapshotId())
+                        .append(" total: ").append(total);
+                if (total != controller.getExpectedTotal()) {
+                    violations.incrementAndGet();
+                    output.append(" violated, expected: ").append(controller.getExpectedTotal());
+                }
+                if (config.verbose) {
+                    for (String op : pendingSnapshot.getLocalSnapshots()) {
+                        output.append(System.lineSeparator()).append(op);
+                    }
+                }
+                if (pendingSnapshot.getPropagation() != null) {
+                    output.append(System.lineSeparator())
+                            .append(pendingSnapshot.getPropagation().report(controller.getBranchNames()));
+                }
+                System.out.println(output);
+                window.release();
+            });
+            taken++;
+        }
 
-        while (!Thread.interrupted()) {
+        // Wait for the snapshots still in flight
+        window.acquireUninterruptibly(config.window);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.println("snapshots: " + taken
+                + " seconds: " + String.format("%.3f", elapsed)
+                + " snapshots_per_sec: " + String.format("%.1f", taken / elapsed)
+                + " violations: " + violations.get());
 
-            // Send snapshotRequest
-            requestSnapshot(socketList, snapshotId);
+        controller.close();
+        System.exit(violations.get() == 0 ? 0 : 1);
+    }
 
-            // Wait till all snapshots are ready
-            try {
-                Thread.sleep(5000);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+    // Connects to every branch and sends it the InitBranch message, the branches then connect to each other
+    void initBranches() throws IOException {
+        Bank.InitBranch initBranch = Bank.InitBranch.newBuilder()
+                .setBalance(totalMoney / branchList.size())
+                .addAllAllBranches(branchList)
+                .setTreeAggregation(config.treeAggregation)
+                .setVerbose(config.verbose)
+                .build();
+        Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setInitBranch(initBranch).build();
+        // Replies from every branch are read on one selector thread
+        BranchConfig connectionConfig = new BranchConfig();
+        connectionConfig.transport = config.transport;
+        // Every request is waited on, write it as soon as it is queued
+        connectionConfig.flushMillis = 0;
+        transport = connectionConfig.transport(new ReplyHandler(), command -> new Thread(command).start());
+        transport.startClient();
+        if (config.metricsEnabled()) {
+            MetricsExporter.start(metrics, config.metricsPort, config.metricsFile, config.metricsMillis);
+        }
+        for (int i = 0; i < branchList.size(); i++) {
+            Bank.InitBranch.Branch branch = branchList.get(i);
+            Connection connection = transport.connect(branch.getIp(), branch.getPort(), null, i);
+            String labels = "branch=\"" + branch.getName() + "\"";
+            metrics.gauge("controller_channel_bytes_in", labels, "Bytes received from a branch", connection::getBytesIn);
+            metrics.gauge("controller_channel_bytes_out", labels, "Bytes sent to a branch", connection::getBytesOut);
+            connectionList.add(connection);
+            connection.send(branchMessage);
+        }
+    }
 
-            // Retrieve snapshot
-            retrieveSnapshot(socketList, snapshotId, branchList);
+    // Returns false if some branch has not reported its connections up within the timeout
+    boolean awaitMesh(long timeoutMillis) throws InterruptedException {
+        return meshReady.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
 
-            // Wait till all snapshots are received
-            try {
-                Thread.sleep(5000);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+    long getBranchesNotReady() {
+        return meshReady.getCount();
+    }
 
-            // Print output
-            System.out.println("snapshot_id: " + snapshotId);
-            for (String op : snapshots.get(snapshotId)) {
-                System.out.println(op);
-            }
-            snapshotId++;
+    List<String> getBranchNames() {
+        List<String> branchNames = new ArrayList<>();
+        for (Bank.InitBranch.Branch branch : branchList) {
+            branchNames.add(branch.getName());
         }
+        return branchNames;
+    }
 
-        for (Socket socket : socketList) {
-            socket.close();
-        }
+    // Every branch starts with the same share, so the remainder of the division is not in the system
+    long getExpectedTotal() {
+        return (long) (totalMoney / branchList.size()) * branchList.size();
     }
 
-    private static void retrieveSnapshot(List<Socket> socketList, int snapshotId, List<Bank.InitBranch.Branch> branchList) {
-        for (int i = 0; i < socketList.size(); i++) {
-            Socket socket = socketList.get(i);
-            Bank.RetrieveSnapshot retrieveSnapshot = Bank.RetrieveSnapshot.newBuilder()
-                    .setSnapshotId(snapshotId)
-                    .build();
-            Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setRetrieveSnapshot(retrieveSnapshot).build();
-            try {
-                branchMessage.writeDelimitedTo(socket.getOutputStream());
-                int finalI = i;
-                new Thread(() -> {
-                    Bank.BranchMessage branchMessageRt;
-                    try {
-                        //noinspection StatementWithEmptyBody
-                        while ((branchMessageRt = Bank.BranchMessage.parseDelimitedFrom(socket.getInputStream())) == null)
-                            ;
-                        Bank.ReturnSnapshot.LocalSnapshot localSnapshot = branchMessageRt.getReturnSnapshot().getLocalSnapshot();
-
-                        // Print output
-                        StringBuilder stringBuilder = new StringBuilder();
-                        stringBuilder.append(branchList.get(finalI).getName()).append(": ").append(localSnapshot.getBalance());
-                        List<Integer> channelStateList = localSnapshot.getChannelStateList();
-                        for (int i1 = 0; i1 < channelStateList.size(); i1 += 2) {
-                            stringBuilder.append(", ");
-                            stringBuilder.append(branchList.get(i1).getName())
-                                    .append("->")
-                                    .append(branchList.get(finalI).getName())
-                                    .append(": ")
-                                    .append(channelStateList.get(i1 + 1));
-                        }
-                        snapshots.get(snapshotId)[finalI] = stringBuilder.toString();
-
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }).start();
-            } catch (IOException e) {
-                e.printStackTrace();
+    // Starts a snapshot at a random branch. Its retrieved() future completes with the total once every
+    // local snapshot is in
+    PendingSnapshot takeSnapshot() {
+        int snapshotId = nextSnapshotId.getAndIncrement();
+        int index = rand.nextInt(connectionList.size());
+        boolean traceMarkers = config.traceMarkers > 0 && snapshotId % config.traceMarkers == 0;
+        PendingSnapshot pendingSnapshot = new PendingSnapshot(snapshotId, connectionList.size(),
+                traceMarkers ? new MarkerPropagation(index, connectionList.size()) : null);
+        snapshots.put(snapshotId, pendingSnapshot);
+        SnapshotEvents.Completed completedEvent = new SnapshotEvents.Completed();
+        SnapshotEvents.Retrieved retrievedEvent = new SnapshotEvents.Retrieved();
+        completedEvent.begin();
+        retrievedEvent.begin();
+        pendingSnapshot.completed().thenRun(() -> {
+            if (completedEvent.shouldCommit()) {
+                completedEvent.snapshotId = snapshotId;
+                completedEvent.branches = connectionList.size();
+                completedEvent.commit();
             }
+        });
+        // Retrieve snapshot once every branch reports its local snapshot complete. With tree aggregation
+        // the initiator sends every local snapshot on its own instead
+        if (!config.treeAggregation) {
+            pendingSnapshot.completed().thenRun(() -> retrieveSnapshot(snapshotId));
         }
+        long start = System.nanoTime();
+        snapshotsStarted.increment();
+        pendingSnapshot.retrieved().thenAccept(total -> {
+            snapshots.remove(snapshotId);
+            snapshotNanos.record(System.nanoTime() - start);
+            snapshotsRetrieved.increment();
+            if (total != getExpectedTotal()) {
+                snapshotViolations.increment();
+            }
+            if (retrievedEvent.shouldCommit()) {
+                retrievedEvent.snapshotId = snapshotId;
+                retrievedEvent.total = total;
+                retrievedEvent.violated = total != getExpectedTotal();
+                retrievedEvent.commit();
+            }
+        });
+
+        // Send snapshotRequest
+        requestSnapshot(snapshotId, index, traceMarkers);
+        return pendingSnapshot;
     }
 
-    private static void requestSnapshot(List<Socket> socketList, int snapshotId) {
-        Random rand = new Random();
-        int index = rand.nextInt(socketList.size());
+    // From here on lost connections are expected and no longer an error
+    void close() {
+        closing = true;
+    }
+
+    private void retrieveSnapshot(int snapshotId) {
+        Bank.RetrieveSnapshot retrieveSnapshot = Bank.RetrieveSnapshot.newBuilder()
+                .setSnapshotId(snapshotId)
+                .build();
+        Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setRetrieveSnapshot(retrieveSnapshot).build();
+        for (Connection connection : connectionList) {
+            send(connection, branchMessage);
+        }
+    }
+
+    private void requestSnapshot(int snapshotId, int index, boolean traceMarkers) {
         Bank.InitSnapshot initSnapshot = Bank.InitSnapshot.newBuilder()
                 .setSnapshotId(snapshotId)
+                .setTraceMarkers(traceMarkers)
                 .build();
         Bank.BranchMessage branchMessage = Bank.BranchMessage.newBuilder().setInitSnapshot(initSnapshot).build();
+        SnapshotEvents.Requested event = new SnapshotEvents.Requested();
+        if (event.isEnabled()) {
+            event.snapshotId = snapshotId;
+            event.initiatorIndex = index;
+            event.commit();
+        }
+        send(connectionList.get(index), branchMessage);
+    }
+
+    private static void send(Connection connection, Bank.BranchMessage branchMessage) {
         try {
-            branchMessage.writeDelimitedTo(socketList.get(index).getOutputStream());
+            connection.send(branchMessage);
         } catch (IOException e) {
             e.printStackTrace();
         }
-        snapshots.put(snapshotId, new String[socketList.size()]);
+    }
+
+    // Replies of all branches arrive on the transport's loop thread and are matched to snapshots by id
+    private class ReplyHandler implements MessageHandler {
+
+        @Override
+        public void receivedMessage(Bank.BranchMessage branchMessage, Connection receivedFrom) {
+            PendingSnapshot pendingSnapshot;
+            switch (branchMessage.getBranchMessageCase()) {
+                case SNAPSHOT_COMPLETE:
+                    pendingSnapshot = snapshots.get(branchMessage.getSnapshotComplete().getSnapshotId());
+                    if (pendingSnapshot != null) {
+                        pendingSnapshot.branchCompleted();
+                    }
+                    break;
+                case MESH_READY:
+                    if (meshReadyBranches.add(branchMessage.getMeshReady().getBranchIndex())) {
+                        meshReady.countDown();
+                    }
+                    break;
+                case RETURN_SNAPSHOT:
+                    Bank.ReturnSnapshot returnSnapshot = branchMessage.getReturnSnapshot();
+                    pendingSnapshot = snapshots.get(returnSnapshot.getLocalSnapshot().getSnapshotId());
+                    if (pendingSnapshot != null) {
+                        received(pendingSnapshot, returnSnapshot);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void newSocketCreated(String branchName, Connection connection) {
+            // Branches never connect to the controller
+        }
+
+        @Override
+        public void connectionClosed(Connection connection) {
+            if (!closing) {
+                System.err.println("Error: Lost connection to " + branchList.get(connection.getPeerIndex()).getName());
+                System.exit(1);
+            }
+        }
+
+        // One branch, or with tree aggregation a whole subtree of branches, summed up by the branches themselves
+        private void received(PendingSnapshot pendingSnapshot, Bank.ReturnSnapshot returnSnapshot) {
+            if (config.verbose) {
+                describe(pendingSnapshot, returnSnapshot.getLocalSnapshot());
+                for (Bank.ReturnSnapshot.LocalSnapshot localSnapshot : returnSnapshot.getSubtreeList()) {
+                    describe(pendingSnapshot, localSnapshot);
+                }
+            }
+            // Added before the last reply completes the snapshot, so the report sees every branch
+            MarkerPropagation propagation = pendingSnapshot.getPropagation();
+            if (propagation != null) {
+                Bank.ReturnSnapshot.LocalSnapshot localSnapshot = returnSnapshot.getLocalSnapshot();
+                propagation.add(localSnapshot.getBranchIndex(), localSnapshot.getMarkerHopsList());
+                for (Bank.ReturnSnapshot.LocalSnapshot subtree : returnSnapshot.getSubtreeList()) {
+                    propagation.add(subtree.getBranchIndex(), subtree.getMarkerHopsList());
+                }
+            }
+            pendingSnapshot.received(1 + returnSnapshot.getSubtreeBranches(),
+                    returnSnapshot.getLocalSnapshot().getPartialSum() + returnSnapshot.getSubtreeSum());
+        }
+
+        private void describe(PendingSnapshot pendingSnapshot, Bank.ReturnSnapshot.LocalSnapshot localSnapshot) {
+            int index = localSnapshot.getBranchIndex();
+            pendingSnapshot.describe(index, describe(localSnapshot, index));
+        }
+
+        private String describe(Bank.ReturnSnapshot.LocalSnapshot localSnapshot, int index) {
+            StringBuilder stringBuilder = new StringBuilder();
+            stringBuilder.append(branchList.get(index).getName()).append(": ").append(localSnapshot.getBalance());
+            List<Integer> channelStateList = localSnapshot.getChannelStateList();
+            for (int i1 = 0; i1 < channelStateList.size(); i1 += 2) {
+                stringBuilder.append(", ");
+                stringBuilder.append(branchList.get(channelStateList.get(i1)).getName())
+                        .append("->")
+                        .append(branchList.get(index).getName())
+                        .append(": ")
+                        .append(channelStateList.get(i1 + 1));
+            }
+            return stringBuilder.toString();
+        }
     }
 
 }
@@ -0,0 +1,74 @@
+package distributed_banking;
+
+// Optional "--key=value" flags given after the balance and the input file name
+class ControllerConfig {
+    int window = 1;
+    int snapshots = 0;
+    boolean treeAggregation = false;
+    boolean verbose = false;
+    // Every n-th snapshot traces its markers, 0 traces none
+    int traceMarkers = 0;
+    // Only an in-process cluster sets the memory transport, the branches of a real one are remote
+    BranchConfig.TransportMode transport = BranchConfig.TransportMode.NIO;
+    // Metrics are exported when either is set
+    int metricsPort = 0;
+    String metricsFile;
+    long metricsMillis = 10000;
+    // How long to wait for every branch to connect to all the others before taking snapshots
+    long meshTimeoutMillis = 60000;
+
+    static ControllerConfig parse(String[] args, int from) {
+        ControllerConfig config = new ControllerConfig();
+        for (int i = from; i < args.length; i++) {
+            String arg = args[i];
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Unrecognized option " + arg);
+            }
+            String key = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (key) {
+                case "window":
+                    config.window = BranchConfig.positive(key, value);
+                    break;
+                case "snapshots":
+                    config.snapshots = Integer.parseInt(BranchConfig.notNegative(key, value));
+                    break;
+                case "aggregation":
+                    if (!value.equals("direct") && !value.equals("tree")) {
+                        throw new IllegalArgumentException("aggregation must be direct or tree");
+                    }
+                    config.treeAggregation = value.equals("tree");
+                    break;
+                case "verbose":
+                    if (!value.equals("true") && !value.equals("false")) {
+                        throw new IllegalArgumentException("verbose must be true or false");
+                    }
+                    config.verbose = value.equals("true");
+                    break;
+                case "trace-markers":
+                    config.traceMarkers = Integer.parseInt(BranchConfig.notNegative(key, value));
+                    break;
+                case "metrics-port":
+                    config.metricsPort = Integer.parseInt(BranchConfig.notNegative(key, value));
+                    break;
+                case "metrics-file":
+                    config.metricsFile = value;
+                    break;
+                case "metrics-millis":
+                    config.metricsMillis = BranchConfig.positive(key, value);
+                    break;
+                case "mesh-timeout-millis":
+                    config.meshTimeoutMillis = BranchConfig.positive(key, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized option " + arg);
+            }
+        }
+        return config;
+    }
+
+    boolean metricsEnabled() {
+        return metricsPort > 0 || metricsFile != null;
+    }
+}
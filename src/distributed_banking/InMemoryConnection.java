@@ -0,0 +1,95 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.InterruptedIOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// One end of an in-process link. Sending puts the message object itself on the other end's inbound
+// MpscQueue and wakes the loop that reads it, nothing is serialized. Sending itself never blocks: the
+// loops of a branch send markers while holding its locks, and a loop blocked on a full link would stop
+// draining its own, so senders wait for room in awaitCapacity before they take any lock instead.
+class InMemoryConnection implements Connection {
+    private final InMemoryTransport.Loop loop;
+    private final MpscQueue<Bank.BranchMessage> inbound;
+    private final int queueCapacity;
+    // Messages on the inbound queue
+    private final AtomicInteger queued;
+    // Senders parked until the inbound queue has room, woken by the loop that drains it
+    private final Queue<Thread> capacityWaiters;
+    // Set while the connection is on its loop's ready queue
+    private final AtomicBoolean scheduled;
+    private InMemoryConnection other;
+    private volatile int peerIndex = -1;
+
+    InMemoryConnection(InMemoryTransport.Loop loop, int queueCapacity) {
+        this.loop = loop;
+        inbound = new MpscQueue<>();
+        this.queueCapacity = queueCapacity;
+        queued = new AtomicInteger();
+        capacityWaiters = new ConcurrentLinkedQueue<>();
+        scheduled = new AtomicBoolean();
+    }
+
+    void connectTo(InMemoryConnection other) {
+        this.other = other;
+    }
+
+    @Override
+    public void send(Bank.BranchMessage branchMessage) {
+        other.queued.incrementAndGet();
+        other.inbound.offer(branchMessage);
+        other.loop.schedule(other);
+    }
+
+    // Senders waiting at once can each still send one, so a link holds a few more than queueCapacity
+    @Override
+    public void awaitCapacity() throws InterruptedIOException {
+        while (other.queued.get() >= other.queueCapacity) {
+            Thread current = Thread.currentThread();
+            other.capacityWaiters.add(current);
+            // Looked at again once registered, the loop may have made room before it could see this waiter
+            if (other.queued.get() >= other.queueCapacity) {
+                LockSupport.park(this);
+            }
+            other.capacityWaiters.remove(current);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for space on the link");
+            }
+        }
+    }
+
+    @Override
+    public int getPeerIndex() {
+        return peerIndex;
+    }
+
+    @Override
+    public void setPeerIndex(int peerIndex) {
+        this.peerIndex = peerIndex;
+    }
+
+    boolean schedule() {
+        return scheduled.compareAndSet(false, true);
+    }
+
+    // Called by the loop before it drains, a message sent meanwhile schedules the connection again
+    Bank.BranchMessage poll() {
+        Bank.BranchMessage branchMessage = inbound.poll();
+        if (branchMessage != null && queued.decrementAndGet() < queueCapacity && !capacityWaiters.isEmpty()) {
+            for (Thread waiter : capacityWaiters) {
+                LockSupport.unpark(waiter);
+            }
+        }
+        return branchMessage;
+    }
+
+    void unschedule() {
+        scheduled.set(false);
+    }
+}
@@ -0,0 +1,123 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+
+// Branches and a controller in one process, connected by InMemoryConnections instead of sockets.
+// Ports name the listening branches of the process and the ip is ignored. Like the NioTransport,
+// a fixed number of loops per branch reads all of its connections; a loop only looks at the
+// connections that have something queued and parks when there are none.
+class InMemoryTransport implements Transport {
+    private static final Map<Integer, InMemoryTransport> LISTENING = new ConcurrentHashMap<>();
+
+    private final MessageHandler handler;
+    private final Executor executor;
+    private final Loop[] loops;
+    private final int queueCapacity;
+    private int nextLoop;
+    private boolean controllerAccepted;
+
+    InMemoryTransport(MessageHandler handler, BranchConfig config, Executor executor) {
+        this.handler = handler;
+        this.executor = executor;
+        queueCapacity = config.queueCapacity;
+        loops = new Loop[config.selectors];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new Loop();
+            Thread thread = new Thread(loops[i], "memory-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void bind(int portNumber) throws IOException {
+        if (LISTENING.putIfAbsent(portNumber, this) != null) {
+            throw new IOException("Port " + portNumber + " is already in use");
+        }
+    }
+
+    @Override
+    public void serve() {
+        // The loops run from the start
+    }
+
+    @Override
+    public void startClient() {
+        // The loops run from the start
+    }
+
+    @Override
+    public Connection connect(String ip, int port, String selfName, int peerIndex) throws IOException {
+        InMemoryTransport target = LISTENING.get(port);
+        if (target == null) {
+            throw new ConnectException("Connection refused: nothing listens on port " + port);
+        }
+        InMemoryConnection connection = new InMemoryConnection(nextLoop(), queueCapacity);
+        connection.setPeerIndex(peerIndex);
+        InMemoryConnection accepted = new InMemoryConnection(target.nextLoop(), target.queueCapacity);
+        connection.connectTo(accepted);
+        accepted.connectTo(connection);
+        target.accepted(accepted, selfName);
+        return connection;
+    }
+
+    // First connection is from the controller, others are branches introducing themselves
+    private void accepted(InMemoryConnection connection, String branchName) {
+        synchronized (this) {
+            if (!controllerAccepted) {
+                controllerAccepted = true;
+                return;
+            }
+        }
+        handler.newSocketCreated(branchName, connection);
+    }
+
+    private synchronized Loop nextLoop() {
+        Loop loop = loops[nextLoop];
+        nextLoop = (nextLoop + 1) % loops.length;
+        return loop;
+    }
+
+    class Loop implements Runnable {
+        private final Queue<InMemoryConnection> ready;
+        private volatile Thread thread;
+
+        Loop() {
+            ready = new ConcurrentLinkedQueue<>();
+        }
+
+        void schedule(InMemoryConnection connection) {
+            if (connection.schedule()) {
+                ready.add(connection);
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            while (!Thread.interrupted()) {
+                InMemoryConnection connection = ready.poll();
+                if (connection == null) {
+                    // A schedule() after the poll leaves a permit, so this does not miss it
+                    LockSupport.park(this);
+                    continue;
+                }
+                connection.unschedule();
+                Bank.BranchMessage branchMessage;
+                while ((branchMessage = connection.poll()) != null) {
+                    Transport.dispatch(handler, executor, branchMessage, connection);
+                }
+            }
+        }
+    }
+}
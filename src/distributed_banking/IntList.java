@@ -0,0 +1,38 @@
+package distributed_banking;
+
+// Growable int array with a single writer. The size is published after the element, so a reader
+// on another thread sees a consistent prefix without locking.
+class IntList {
+    private int[] elements;
+    private volatile int size;
+
+    IntList(int initialCapacity) {
+        elements = new int[initialCapacity];
+    }
+
+    void add(int element) {
+        int index = size;
+        int[] current = elements;
+        if (index == current.length) {
+            int[] larger = new int[current.length * 2];
+            System.arraycopy(current, 0, larger, 0, index);
+            elements = larger;
+            current = larger;
+        }
+        current[index] = element;
+        size = index + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long footprintBytes() {
+        return 32 + 4L * elements.length;
+    }
+
+    // Only valid for index < size() read beforehand
+    int get(int index) {
+        return elements[index];
+    }
+}
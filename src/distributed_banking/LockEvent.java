@@ -0,0 +1,36 @@
+package distributed_banking;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+// One outermost acquisition of a profiled TimedLock, from calling lock() to unlock(). Only acquisitions
+// that took longer than the threshold are written, set it to 0 ms in the recording settings to see all.
+@Name("distributed_banking.Lock")
+@Label("Lock Acquisition")
+@Category({"Distributed Banking", "Locks"})
+@Description("Time a thread waited for and then held a branch lock")
+@Threshold("100 us")
+class LockEvent extends Event {
+    @Label("Lock")
+    String lock;
+
+    @Label("Call Site")
+    String site;
+
+    @Label("Wait")
+    @Timespan
+    long waitNanos;
+
+    @Label("Hold")
+    @Timespan
+    long holdNanos;
+
+    @Label("Active Snapshots")
+    @Description("Snapshots still recording an incoming channel when the lock was released")
+    int activeSnapshots;
+}
@@ -0,0 +1,113 @@
+package distributed_banking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Markers received by every branch in one traced snapshot, each as (sender index, hops, sent nanos, received
+// nanos), and the critical path through them: the last marker to arrive anywhere, back through the marker
+// that made its sender record its state, and so on up to the initiator.
+// Times are System.nanoTime of the sending and receiving branch, only comparable when they run on one host.
+class MarkerPropagation {
+    private final int initiator;
+    private final List<List<Long>> markerHops;
+
+    MarkerPropagation(int initiator, int numberOfBranches) {
+        this.initiator = initiator;
+        markerHops = new ArrayList<>();
+        for (int i = 0; i < numberOfBranches; i++) {
+            markerHops.add(null);
+        }
+    }
+
+    // Replies arrive on the transport's loop thread, direct aggregation on any of them
+    synchronized void add(int branchIndex, List<Long> hops) {
+        markerHops.set(branchIndex, hops);
+    }
+
+    synchronized String report(List<String> branchNames) {
+        int n = markerHops.size();
+        // Received time and sender of the first and the last marker of every branch
+        long[] firstReceived = new long[n];
+        int[] parent = new int[n];
+        long[] lastReceived = new long[n];
+        int[] lastSender = new int[n];
+        long[] lastSent = new long[n];
+        long started = Long.MAX_VALUE;
+        int depth = 0;
+        int slowestFrom = -1;
+        int slowestTo = -1;
+        long slowest = -1;
+        for (int to = 0; to < n; to++) {
+            List<Long> hops = markerHops.get(to);
+            if (hops == null) {
+                return "trace incomplete, no markers from " + branchNames.get(to);
+            }
+            firstReceived[to] = Long.MAX_VALUE;
+            lastReceived[to] = Long.MIN_VALUE;
+            parent[to] = -1;
+            for (int i = 0; i < hops.size(); i += 4) {
+                int from = hops.get(i).intValue();
+                long sent = hops.get(i + 2);
+                long received = hops.get(i + 3);
+                if (received < firstReceived[to]) {
+                    firstReceived[to] = received;
+                    parent[to] = from;
+                    depth = Math.max(depth, hops.get(i + 1).intValue());
+                }
+                if (received > lastReceived[to]) {
+                    lastReceived[to] = received;
+                    lastSender[to] = from;
+                    lastSent[to] = sent;
+                }
+                if (from == initiator) {
+                    started = Math.min(started, sent);
+                }
+                if (received - sent > slowest) {
+                    slowest = received - sent;
+                    slowestFrom = from;
+                    slowestTo = to;
+                }
+            }
+        }
+        if (started == Long.MAX_VALUE) {
+            return "trace incomplete, no markers from the initiator";
+        }
+
+        int last = 0;
+        for (int i = 1; i < n; i++) {
+            if (lastReceived[i] > lastReceived[last]) {
+                last = i;
+            }
+        }
+        // Walked backwards, every branch but the initiator got its first marker from a branch that recorded
+        // before it, so this ends at the initiator within n steps
+        List<String> path = new ArrayList<>();
+        path.add(hop(branchNames, lastSender[last], last, lastReceived[last] - lastSent[last]));
+        int to = lastSender[last];
+        for (int steps = 0; to != initiator && steps < n; steps++) {
+            List<Long> hops = markerHops.get(to);
+            for (int i = 0; i < hops.size(); i += 4) {
+                if (hops.get(i + 3) == firstReceived[to]) {
+                    path.add(hop(branchNames, parent[to], to, firstReceived[to] - hops.get(i + 2)));
+                    break;
+                }
+            }
+            to = parent[to];
+        }
+
+        StringBuilder report = new StringBuilder("trace initiator: ").append(branchNames.get(initiator))
+                .append(" depth: ").append(depth)
+                .append(" critical_path:");
+        for (int i = path.size() - 1; i >= 0; i--) {
+            report.append(' ').append(path.get(i));
+        }
+        report.append(" total_us: ").append((lastReceived[last] - started) / 1000)
+                .append(" slowest_channel: ")
+                .append(hop(branchNames, slowestFrom, slowestTo, slowest));
+        return report.toString();
+    }
+
+    private static String hop(List<String> branchNames, int from, int to, long nanos) {
+        return branchNames.get(from) + "->" + branchNames.get(to) + "=" + nanos / 1000 + "us";
+    }
+}
@@ -0,0 +1,14 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+// Receives what arrives on the connections of a NioTransport, a Branch or the Controller
+interface MessageHandler {
+    void receivedMessage(Bank.BranchMessage branchMessage, Connection receivedFrom);
+
+    // A branch connected and introduced itself by name
+    void newSocketCreated(String branchName, Connection connection);
+
+    default void connectionClosed(Connection connection) {
+    }
+}
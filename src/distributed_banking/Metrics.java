@@ -0,0 +1,142 @@
+package distributed_banking;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Counters, gauges and histograms of one branch or controller, rendered in the Prometheus text format.
+// Counters and histograms only add to LongAdders on the hot path; gauges are read when rendered.
+// Metrics of the same name with different labels, e.g. one per channel, render as one family.
+class Metrics {
+    private final Map<String, Family> families;
+
+    Metrics() {
+        families = new LinkedHashMap<>();
+    }
+
+    LongAdder counter(String name, String help) {
+        return counter(name, "", help);
+    }
+
+    LongAdder counter(String name, String labels, String help) {
+        LongAdder counter = new LongAdder();
+        add(name, "counter", help, labels, counter);
+        return counter;
+    }
+
+    // A counter kept elsewhere, read when rendered
+    void counter(String name, String help, LongSupplier value) {
+        counter(name, "", help, value);
+    }
+
+    void counter(String name, String labels, String help, LongSupplier value) {
+        add(name, "counter", help, labels, value);
+    }
+
+    void gauge(String name, String help, LongSupplier value) {
+        gauge(name, "", help, value);
+    }
+
+    void gauge(String name, String labels, String help, LongSupplier value) {
+        add(name, "gauge", help, labels, value);
+    }
+
+    Histogram histogram(String name, String help) {
+        return histogram(name, "", help);
+    }
+
+    Histogram histogram(String name, String labels, String help) {
+        Histogram histogram = new Histogram();
+        add(name, "histogram", help, labels, histogram);
+        return histogram;
+    }
+
+    private synchronized void add(String name, String type, String help, String labels, Object metric) {
+        families.computeIfAbsent(name, n -> new Family(type, help)).members.put(labels, metric);
+    }
+
+    synchronized String render() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> member : family.members.entrySet()) {
+                String labels = member.getKey();
+                Object metric = member.getValue();
+                if (metric instanceof LongAdder) {
+                    sample(out, name, labels, ((LongAdder) metric).sum());
+                } else if (metric instanceof LongSupplier) {
+                    sample(out, name, labels, ((LongSupplier) metric).getAsLong());
+                } else {
+                    ((Histogram) metric).render(out, name, labels);
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static class Family {
+        private final String type;
+        private final String help;
+        private final Map<String, Object> members;
+
+        Family(String type, String help) {
+            this.type = type;
+            this.help = help;
+            members = new LinkedHashMap<>();
+        }
+    }
+
+    // Durations in nanoseconds, in power of two buckets from 1 microsecond to about 68 seconds
+    static class Histogram {
+        private static final int FIRST_EXPONENT = 10;
+        private static final int LAST_EXPONENT = 36;
+
+        private final LongAdder[] buckets;
+        private final LongAdder sum;
+
+        Histogram() {
+            buckets = new LongAdder[LAST_EXPONENT - FIRST_EXPONENT + 2];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+            sum = new LongAdder();
+        }
+
+        void record(long nanos) {
+            int exponent = 64 - Long.numberOfLeadingZeros(Math.max(0, nanos - 1));
+            buckets[Math.min(Math.max(exponent - FIRST_EXPONENT, 0), buckets.length - 1)].increment();
+            sum.add(nanos);
+        }
+
+        private void render(StringBuilder out, String name, String labels) {
+            List<Long> counts = new ArrayList<>();
+            long cumulative = 0;
+            for (LongAdder bucket : buckets) {
+                cumulative += bucket.sum();
+                counts.add(cumulative);
+            }
+            String bucketLabels = labels.isEmpty() ? "" : labels + ",";
+            for (int i = 0; i < buckets.length - 1; i++) {
+                sample(out, name + "_bucket", bucketLabels + "le=\"" + (1L << (FIRST_EXPONENT + i)) + "\"",
+                        counts.get(i));
+            }
+            sample(out, name + "_bucket", bucketLabels + "le=\"+Inf\"", cumulative);
+            sample(out, name + "_sum", labels, sum.sum());
+            sample(out, name + "_count", labels, cumulative);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package distributed_banking;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Makes a Metrics registry readable from outside the process: served at http://<host>:<port>/metrics
+// on a single daemon thread, and/or written to a file every few seconds. The file is replaced in one
+// rename, so a reader never sees half of it.
+class MetricsExporter {
+
+    static void start(Metrics metrics, int port, String file, long millis) throws IOException {
+        if (port > 0) {
+            HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = metrics.render().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-http");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+        }
+        if (file != null) {
+            Path path = Paths.get(file).toAbsolutePath();
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> {
+                try {
+                    Files.write(temporary, metrics.render().getBytes(StandardCharsets.UTF_8));
+                    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, 0, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package distributed_banking;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Unbounded multi-producer single-consumer queue. A producer swaps its node in as the tail with one
+// atomic getAndSet, which orders concurrent producers, and then links the previous tail to it; only
+// the consumer moves the head. Neither side takes a lock or retries a CAS. Until a producer has linked
+// its node the consumer sees the queue end there, the producer schedules the connection again after
+// linking so nothing is left behind. Unbounded so that two branches sending to each other from their
+// own receiving threads can never wait on each other.
+class MpscQueue<T> {
+    private final AtomicReference<Node<T>> tail;
+    private Node<T> head;
+
+    MpscQueue() {
+        head = new Node<>(null);
+        tail = new AtomicReference<>(head);
+    }
+
+    // Any thread
+    void offer(T value) {
+        Node<T> node = new Node<>(value);
+        tail.getAndSet(node).next = node;
+    }
+
+    // Consumer only, null when empty
+    T poll() {
+        Node<T> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        T value = next.value;
+        next.value = null;
+        head = next;
+        return value;
+    }
+
+    private static final class Node<T> {
+        private T value;
+        private volatile Node<T> next;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Non-blocking connection driven by a NioTransport event loop. Incoming bytes are framed into
+// varint-delimited BranchMessages; outgoing bytes flushed by the ChannelWriter that the socket does
+// not accept right away are queued and written when the channel becomes writable again. Once
+// MAX_PENDING_BYTES are queued the drainer waits for the loop to write them, as it would on a full
+// blocking socket, and senders wait in awaitCapacity.
+class NioConnection implements Connection {
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_PENDING_BYTES = 256 * 1024;
+
+    private final SocketChannel channel;
+    private final NioTransport.EventLoop loop;
+    private final Queue<ByteBuffer> pendingWrites;
+    // Guards pendingWrites, signalled when the loop brings pendingBytes back under the bound
+    private final ReentrantLock pendingLock;
+    private final Condition drained;
+    private volatile long pendingBytes;
+    private final ChannelWriter writer;
+    private volatile int peerIndex = -1;
+    // Only updated by the event loop
+    private volatile long bytesIn;
+    private ByteBuffer readBuffer;
+    private boolean waitForName;
+    // Reading stops while the handler takes the introduction off the loop
+    private boolean introducing;
+    private SelectionKey key;
+
+    NioConnection(SocketChannel channel, NioTransport.EventLoop loop, BranchConfig config, Executor drainers,
+                  boolean waitForName) {
+        this.channel = channel;
+        this.loop = loop;
+        this.waitForName = waitForName;
+        pendingWrites = new ArrayDeque<>();
+        pendingLock = new ReentrantLock();
+        drained = pendingLock.newCondition();
+        writer = new ChannelWriter(new ChannelOutputStream(), drainers, config.queueCapacity, config.flushBytes, config.flushMillis);
+        readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    CompletableFuture<Void> register() {
+        return loop.register(this);
+    }
+
+    @Override
+    public void send(Bank.BranchMessage branchMessage) throws IOException {
+        writer.write(branchMessage);
+    }
+
+    @Override
+    public void awaitCapacity() throws InterruptedIOException {
+        if (pendingBytes >= MAX_PENDING_BYTES) {
+            pendingLock.lock();
+            try {
+                awaitDrained();
+            } finally {
+                pendingLock.unlock();
+            }
+        }
+        writer.awaitCapacity();
+    }
+
+    // Called holding pendingLock
+    private void awaitDrained() throws InterruptedIOException {
+        try {
+            while (pendingBytes >= MAX_PENDING_BYTES) {
+                drained.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the socket to drain");
+        }
+    }
+
+    @Override
+    public ChannelWriter getWriter() {
+        return writer;
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    @Override
+    public long getBytesOut() {
+        return writer.getBytesWritten();
+    }
+
+    @Override
+    public int getPeerIndex() {
+        return peerIndex;
+    }
+
+    @Override
+    public void setPeerIndex(int peerIndex) {
+        this.peerIndex = peerIndex;
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        pendingLock.lock();
+        try {
+            awaitDrained();
+            // Only write directly when nothing is queued, otherwise messages would be reordered
+            if (pendingWrites.isEmpty()) {
+                channel.write(buffer);
+                if (!buffer.hasRemaining()) {
+                    return;
+                }
+            }
+            // The writer reuses its buffer, keep a copy of what is left
+            ByteBuffer remaining = ByteBuffer.allocate(buffer.remaining());
+            remaining.put(buffer);
+            remaining.flip();
+            pendingWrites.add(remaining);
+            pendingBytes += remaining.capacity();
+        } finally {
+            pendingLock.unlock();
+        }
+        loop.interestInWrite(this);
+    }
+
+    void onWritable() throws IOException {
+        pendingLock.lock();
+        try {
+            long before = pendingBytes;
+            while (!pendingWrites.isEmpty()) {
+                ByteBuffer buffer = pendingWrites.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    break;
+                }
+                pendingWrites.remove();
+                pendingBytes -= buffer.capacity();
+            }
+            if (before >= MAX_PENDING_BYTES && pendingBytes < MAX_PENDING_BYTES) {
+                drained.signalAll();
+            }
+            if (pendingWrites.isEmpty()) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    void onReadable(MessageHandler handler) throws IOException {
+        if (!readBuffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+            readBuffer.flip();
+            larger.put(readBuffer);
+            readBuffer = larger;
+        }
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            close();
+            handler.connectionClosed(this);
+            return;
+        }
+        bytesIn += read;
+        readFrames(handler);
+    }
+
+    // Called on the loop once the handler has the introduction, frames that arrived with it are already buffered
+    void resumeReading(MessageHandler handler) throws IOException {
+        introducing = false;
+        if (key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            readFrames(handler);
+        }
+    }
+
+    private void readFrames(MessageHandler handler) throws IOException {
+        readBuffer.flip();
+        while (readBuffer.hasRemaining() && !introducing) {
+            if (waitForName) {
+                if (!readName()) {
+                    break;
+                }
+                continue;
+            }
+            int start = readBuffer.position();
+            int length = readLength();
+            if (length < 0 || readBuffer.remaining() < length) {
+                // Incomplete frame, wait for more bytes
+                readBuffer.position(start);
+                break;
+            }
+            int offset = readBuffer.arrayOffset() + readBuffer.position();
+            Bank.BranchMessage branchMessage = Bank.BranchMessage.parser()
+                    .parseFrom(readBuffer.array(), offset, length);
+            readBuffer.position(readBuffer.position() + length);
+            loop.dispatch(branchMessage, this);
+        }
+        readBuffer.compact();
+    }
+
+    void close() {
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // The introduction is framed like the messages after it. The handler waits for this branch to be
+    // initialized before it takes it, and that may need this loop to read the InitBranch
+    private boolean readName() throws IOException {
+        int start = readBuffer.position();
+        int length = readLength();
+        if (length < 0 || readBuffer.remaining() < length) {
+            readBuffer.position(start);
+            return false;
+        }
+        int offset = readBuffer.arrayOffset() + readBuffer.position();
+        Bank.InitBranch.Branch introduction = Bank.InitBranch.Branch.parser()
+                .parseFrom(readBuffer.array(), offset, length);
+        readBuffer.position(readBuffer.position() + length);
+        waitForName = false;
+        introducing = true;
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        loop.introduce(this, introduction.getName());
+        return true;
+    }
+
+    // Returns the varint length prefix of the next frame, or -1 if it has not fully arrived yet
+    private int readLength() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!readBuffer.hasRemaining()) {
+                return -1;
+            }
+            byte b = readBuffer.get();
+            result |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (result > readBuffer.capacity()) {
+                    growReadBuffer(result);
+                }
+                return result;
+            }
+        }
+        throw new IOException("Malformed message length");
+    }
+
+    private void growReadBuffer(int frameLength) {
+        int capacity = readBuffer.capacity();
+        while (capacity < frameLength + 5) {
+            capacity *= 2;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        int position = readBuffer.position();
+        int limit = readBuffer.limit();
+        readBuffer.position(0);
+        larger.put(readBuffer);
+        larger.limit(limit);
+        larger.position(position);
+        readBuffer = larger;
+    }
+
+    private class ChannelOutputStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            NioConnection.this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            NioConnection.this.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+// Selector based replacement for one ProcessRequest thread per socket. A fixed number of event
+// loops is shared by all connections of the branch; the first loop also accepts new connections.
+// The controller uses it without accepting, to read the replies of every branch on one thread.
+class NioTransport implements Transport {
+    private final MessageHandler handler;
+    private final EventLoop[] loops;
+    private final BranchConfig config;
+    private final Executor executor;
+    private final Executor drainers;
+    private int nextLoop;
+    private boolean controllerAccepted;
+
+    NioTransport(MessageHandler handler, BranchConfig config, Executor executor) throws IOException {
+        this.handler = handler;
+        this.config = config;
+        this.executor = executor;
+        drainers = config.drainerExecutor(executor);
+        loops = new EventLoop[config.selectors];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(Selector.open());
+        }
+    }
+
+    @Override
+    public void bind(int portNumber) throws IOException {
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        // Accepted channels take their receive buffer from here, it has to be set before the handshake
+        if (config.socketBuffer > 0) {
+            serverChannel.setOption(StandardSocketOptions.SO_RCVBUF, config.socketBuffer);
+        }
+        serverChannel.bind(new InetSocketAddress(portNumber));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    }
+
+    // Runs the first loop on the calling thread
+    @Override
+    public void serve() {
+        for (int i = 1; i < loops.length; i++) {
+            new Thread(loops[i], "nio-loop-" + i).start();
+        }
+        loops[0].run();
+    }
+
+    // Runs every loop on a daemon thread, for connections made with connect() only
+    @Override
+    public void startClient() {
+        for (int i = 0; i < loops.length; i++) {
+            Thread thread = new Thread(loops[i], "nio-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    // Connects to a branch and introduces this branch by name, the controller connects without a name
+    @Override
+    public Connection connect(String ip, int port, String selfName, int peerIndex) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        if (config.socketBuffer > 0) {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, config.socketBuffer);
+        }
+        channel.connect(new InetSocketAddress(ip, port));
+        if (selfName != null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Bank.InitBranch.Branch.newBuilder().setName(selfName).build().writeDelimitedTo(bytes);
+            ByteBuffer introduction = ByteBuffer.wrap(bytes.toByteArray());
+            while (introduction.hasRemaining()) {
+                channel.write(introduction);
+            }
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        if (config.socketBuffer > 0) {
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, config.socketBuffer);
+        }
+        NioConnection connection = new NioConnection(channel, nextLoop(), config, drainers, false);
+        connection.setPeerIndex(peerIndex);
+        connection.register().join();
+        return connection;
+    }
+
+    private synchronized EventLoop nextLoop() {
+        EventLoop loop = loops[nextLoop];
+        nextLoop = (nextLoop + 1) % loops.length;
+        return loop;
+    }
+
+    private void accept(ServerSocketChannel serverChannel) throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            if (config.socketBuffer > 0) {
+                channel.setOption(StandardSocketOptions.SO_SNDBUF, config.socketBuffer);
+            }
+            // First connection is from the controller, others are branches introducing themselves
+            NioConnection connection = new NioConnection(channel, nextLoop(), config, drainers, controllerAccepted);
+            controllerAccepted = true;
+            connection.register();
+        }
+    }
+
+    class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<Runnable> tasks;
+
+        EventLoop(Selector selector) {
+            this.selector = selector;
+            tasks = new ConcurrentLinkedQueue<>();
+        }
+
+        // Registration has to happen on the loop thread, select() holds the key set otherwise
+        CompletableFuture<Void> register(NioConnection connection) {
+            CompletableFuture<Void> registered = new CompletableFuture<>();
+            execute(() -> {
+                try {
+                    connection.setKey(connection.getChannel().register(selector, SelectionKey.OP_READ, connection));
+                    registered.complete(null);
+                } catch (ClosedChannelException e) {
+                    registered.completeExceptionally(e);
+                }
+            });
+            return registered;
+        }
+
+        void interestInWrite(NioConnection connection) {
+            execute(() -> {
+                SelectionKey key = connection.getChannel().keyFor(selector);
+                if (key != null && key.isValid()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                }
+            });
+        }
+
+        // Hands a branch introducing itself to the handler off the loop, the connection reads again after
+        void introduce(NioConnection connection, String branchName) {
+            executor.execute(() -> {
+                handler.newSocketCreated(branchName, connection);
+                execute(() -> {
+                    try {
+                        connection.resumeReading(handler);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                        connection.close();
+                        handler.connectionClosed(connection);
+                    }
+                });
+            });
+        }
+
+        void dispatch(Bank.BranchMessage branchMessage, NioConnection receivedFrom) {
+            Transport.dispatch(handler, executor, branchMessage, receivedFrom);
+        }
+
+        private void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.interrupted()) {
+                try {
+                    selector.select();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+                    Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                    while (iterator.hasNext()) {
+                        SelectionKey key = iterator.next();
+                        iterator.remove();
+                        handle(key);
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            if (key.isValid() && key.isAcceptable()) {
+                try {
+                    accept((ServerSocketChannel) key.channel());
+                } catch (IOException e) {
+                    System.err.println("Error: Server unable to accept client request");
+                }
+                return;
+            }
+            NioConnection connection = (NioConnection) key.attachment();
+            try {
+                if (key.isValid() && key.isWritable()) {
+                    connection.onWritable();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.onReadable(handler);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                connection.close();
+                handler.connectionClosed(connection);
+            }
+        }
+    }
+}
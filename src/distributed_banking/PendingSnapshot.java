@@ -0,0 +1,71 @@
+package distributed_banking;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Controller side of a snapshot in flight: completes once every branch has reported its local
+// snapshot complete, and again with the total of all partial sums once every branch is accounted for
+class PendingSnapshot {
+    private final int snapshotId;
+    private final String[] localSnapshots;
+    private final AtomicInteger branchesRecording;
+    private final AtomicInteger branchesToRetrieve;
+    private final AtomicLong total;
+    private final CompletableFuture<Void> completed;
+    private final CompletableFuture<Long> retrieved;
+    private final MarkerPropagation propagation;
+
+    // propagation is null unless the snapshot traces its markers
+    PendingSnapshot(int snapshotId, int numberOfBranches, MarkerPropagation propagation) {
+        this.snapshotId = snapshotId;
+        this.propagation = propagation;
+        localSnapshots = new String[numberOfBranches];
+        branchesRecording = new AtomicInteger(numberOfBranches);
+        branchesToRetrieve = new AtomicInteger(numberOfBranches);
+        total = new AtomicLong();
+        completed = new CompletableFuture<>();
+        retrieved = new CompletableFuture<>();
+    }
+
+    int getSnapshotId() {
+        return snapshotId;
+    }
+
+    CompletableFuture<Void> completed() {
+        return completed;
+    }
+
+    CompletableFuture<Long> retrieved() {
+        return retrieved;
+    }
+
+    MarkerPropagation getPropagation() {
+        return propagation;
+    }
+
+    // Local snapshots indexed by branch, in the order of the input file. Only filled in verbose mode
+    String[] getLocalSnapshots() {
+        return localSnapshots;
+    }
+
+    void branchCompleted() {
+        if (branchesRecording.decrementAndGet() == 0) {
+            completed.complete(null);
+        }
+    }
+
+    void describe(int index, String localSnapshot) {
+        localSnapshots[index] = localSnapshot;
+    }
+
+    // Sum of the partial sums of the given number of branches
+    void received(int branches, long partialSum) {
+        total.addAndGet(partialSum);
+        if (branchesToRetrieve.addAndGet(-branches) == 0) {
+            // With tree aggregation branches do not report completion, the initiator's reply is the first sign
+            completed.complete(null);
+            retrieved.complete(total.get());
+        }
+    }
+}
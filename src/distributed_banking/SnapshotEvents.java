@@ -0,0 +1,155 @@
+package distributed_banking;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JFR events for the life of a snapshot, on the branches and the controller. When the JVM runs no flight
+// recording they are never filled in and the JIT drops them, so they stay in place in production. Branch
+// and peer indexes are positions in the controller's branch list, the same on every branch.
+final class SnapshotEvents {
+
+    private SnapshotEvents() {
+    }
+
+    @Name("distributed_banking.SnapshotInitiated")
+    @Label("Snapshot Initiated")
+    @Category({"Distributed Banking", "Snapshots"})
+    @Description("A branch told by the controller to start a snapshot recorded its state and sent its markers")
+    static class Initiated extends Event {
+        @Label("Snapshot Id")
+        int snapshotId;
+
+        @Label("Branch Index")
+        int branchIndex;
+
+        @Label("Channels Recording")
+        int channelsRecording;
+    }
+
+    @Name("distributed_banking.MarkerReceived")
+    @Label("Marker Received")
+    @Category({"Distributed Banking", "Snapshots"})
+    @Description("A branch handled a marker; the first one of a snapshot records its state and sends its markers")
+    static class MarkerReceived extends Event {
+        @Label("Snapshot Id")
+        int snapshotId;
+
+        @Label("Branch Index")
+        int branchIndex;
+
+        @Label("Peer Index")
+        int peerIndex;
+
+        @Label("First")
+        boolean first;
+
+        @Label("Recorded Entries")
+        @Description("Transfers recorded on the channel the marker came on")
+        int recordedEntries;
+
+        @Label("Channels Recording")
+        @Description("Incoming channels still waiting for their marker")
+        int channelsRecording;
+    }
+
+    @Name("distributed_banking.ChannelRecordingStarted")
+    @Label("Channel Recording Started")
+    @Category({"Distributed Banking", "Snapshots"})
+    static class ChannelRecordingStarted extends Event {
+        @Label("Snapshot Id")
+        int snapshotId;
+
+        @Label("Branch Index")
+        int branchIndex;
+
+        @Label("Peer Index")
+        int peerIndex;
+    }
+
+    @Name("distributed_banking.ChannelRecordingStopped")
+    @Label("Channel Recording Stopped")
+    @Category({"Distributed Banking", "Snapshots"})
+    @Description("The marker of a recorded channel arrived, or the snapshot was evicted before it did")
+    static class ChannelRecordingStopped extends Event {
+        @Label("Snapshot Id")
+        int snapshotId;
+
+        @Label("Branch Index")
+        int branchIndex;
+
+        @Label("Peer Index")
+        int peerIndex;
+
+        @Label("Recorded Entries")
+        int recordedEntries;
+
+        @Label("Recording Time")
+        @Timespan
+        long recordingNanos;
+    }
+
+    @Name("distributed_banking.LocalSnapshotRetrieved")
+    @Label("Local Snapshot Retrieved")
+    @Category({"Distributed Banking", "Snapshots"})
+    @Description("A branch returned its local snapshot to the controller")
+    static class LocalSnapshotRetrieved extends Event {
+        @Label("Snapshot Id")
+        int snapshotId;
+
+        @Label("Branch Index")
+        int branchIndex;
+
+        @Label("Recorded Entries")
+        @Description("Transfers recorded on every incoming channel")
+        int recordedEntries;
+
+        @Label("Retained")
+        @Description("Whether the snapshot was still retained, otherwise nothing was returned")
+        boolean retained;
+    }
+
+    @Name("distributed_banking.SnapshotRequested")
+    @Label("Snapshot Requested")
+    @Category({"Distributed Banking", "Snapshots"})
+    @Description("The controller asked a branch to start a snapshot")
+    static class Requested extends Event {
+        @Label("Snapshot Id")
+        int snapshotId;
+
+        @Label("Initiator Index")
+        int initiatorIndex;
+    }
+
+    @Name("distributed_banking.SnapshotCompleted")
+    @Label("Snapshot Completed")
+    @Category({"Distributed Banking", "Snapshots"})
+    @Description("From the request until every branch reported its local snapshot complete, with tree aggregation "
+            + "until the initiator's reply")
+    static class Completed extends Event {
+        @Label("Snapshot Id")
+        int snapshotId;
+
+        @Label("Branches")
+        int branches;
+    }
+
+    @Name("distributed_banking.SnapshotRetrieved")
+    @Label("Snapshot Retrieved")
+    @Category({"Distributed Banking", "Snapshots"})
+    @Description("From the request until the controller had every local snapshot")
+    static class Retrieved extends Event {
+        @Label("Snapshot Id")
+        int snapshotId;
+
+        @Label("Total")
+        long total;
+
+        @Label("Violated")
+        @Description("The total is not the money in the system")
+        boolean violated;
+    }
+}
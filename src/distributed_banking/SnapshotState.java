@@ -0,0 +1,263 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Local part of one snapshot: the balance at the cut, which incoming channels are still being
+// recorded and the transfers recorded on them so far. Recorded amounts stay in one primitive
+// buffer per channel and only become a LocalSnapshot when the snapshot is retrieved.
+class SnapshotState {
+    private static final int INITIAL_CHANNEL_CAPACITY = 8;
+
+    private final int snapshotId;
+    private final long epoch;
+    private final long recordedAt;
+    private final boolean[] recording;
+    // Indexed by channel, created by the receiving thread of that channel on its first transfer
+    private final IntList[] channelState;
+    private volatile int balance;
+    private volatile int channelsRecording;
+    // For tree aggregation: the peer the first marker came from (-1 at the initiator), how many peers
+    // got their first marker from this branch, and what they reported for their subtrees: the number of
+    // branches, the sum of their partial sums and, in verbose mode, their local snapshots
+    private final int parentIndex;
+    private int children;
+    private int childrenReported;
+    private int subtreeBranches;
+    private long subtreeSum;
+    private List<Bank.ReturnSnapshot.LocalSnapshot> subtree;
+    // Only for traced snapshots: the branch that started it, how many hops the first marker took to get
+    // here, and every marker received as (peer index, hops, sent nanos, received nanos)
+    private int initiator;
+    private int hops;
+    private List<Long> markerHops;
+    // Rough heap size, kept up to date as the state grows. Channels are recorded without balanceLock in
+    // cas mode, so growth is added under the state's own monitor and passed on to the store holding it
+    private long footprint;
+    private SnapshotStore store;
+
+    SnapshotState(int snapshotId, long epoch, int numberOfBranches, int parentIndex) {
+        this.snapshotId = snapshotId;
+        this.epoch = epoch;
+        this.parentIndex = parentIndex;
+        recordedAt = System.nanoTime();
+        recording = new boolean[numberOfBranches];
+        channelState = new IntList[numberOfBranches];
+        footprint = 64 + recording.length + 4L * channelState.length;
+    }
+
+    int getSnapshotId() {
+        return snapshotId;
+    }
+
+    // Number of local snapshots taken up to and including this one
+    long getEpoch() {
+        return epoch;
+    }
+
+    long getRecordedAt() {
+        return recordedAt;
+    }
+
+    int getParentIndex() {
+        return parentIndex;
+    }
+
+    // Rough heap size, for the snapshot store limits
+    synchronized long footprintBytes() {
+        return footprint;
+    }
+
+    // Returns the footprint the store starts counting from, growth after this is passed on
+    synchronized long attach(SnapshotStore store) {
+        this.store = store;
+        return footprint;
+    }
+
+    // Returns the footprint the store has counted, 0 if it was already detached. Growth after this is
+    // not passed on
+    synchronized long detach() {
+        if (store == null) {
+            return 0;
+        }
+        store = null;
+        return footprint;
+    }
+
+    private synchronized void grew(long bytes) {
+        footprint += bytes;
+        if (store != null) {
+            store.grew(bytes);
+        }
+    }
+
+    void trace(int initiator, int hops) {
+        this.initiator = initiator;
+        this.hops = hops;
+        markerHops = new ArrayList<>();
+    }
+
+    boolean isTraced() {
+        return markerHops != null;
+    }
+
+    int getInitiator() {
+        return initiator;
+    }
+
+    int getHops() {
+        return hops;
+    }
+
+    // Caller holds balanceLock
+    void addMarkerHop(int index, int markerHops, long sentNanos, long receivedNanos) {
+        this.markerHops.add((long) index);
+        this.markerHops.add((long) markerHops);
+        this.markerHops.add(sentNanos);
+        this.markerHops.add(receivedNanos);
+        grew(4 * 24L);
+    }
+
+    void setBalance(int balance) {
+        this.balance = balance;
+    }
+
+    void startRecording(int index) {
+        if (!recording[index]) {
+            recording[index] = true;
+            channelsRecording++;
+        }
+    }
+
+    void stopRecording(int index) {
+        if (recording[index]) {
+            recording[index] = false;
+            channelsRecording--;
+        }
+    }
+
+    boolean isRecording(int index) {
+        return recording[index];
+    }
+
+    boolean isComplete() {
+        return channelsRecording == 0;
+    }
+
+    int getChannelsRecording() {
+        return channelsRecording;
+    }
+
+    void addChild() {
+        children++;
+    }
+
+    void addSubtree(Bank.ReturnSnapshot returnSnapshot, boolean verbose) {
+        subtreeBranches += 1 + returnSnapshot.getSubtreeBranches();
+        subtreeSum += returnSnapshot.getLocalSnapshot().getPartialSum() + returnSnapshot.getSubtreeSum();
+        if (verbose) {
+            if (subtree == null) {
+                subtree = new ArrayList<>();
+            }
+            subtree.add(returnSnapshot.getLocalSnapshot());
+            subtree.addAll(returnSnapshot.getSubtreeList());
+            long bytes = 16 + returnSnapshot.getLocalSnapshot().getSerializedSize();
+            for (Bank.ReturnSnapshot.LocalSnapshot localSnapshot : returnSnapshot.getSubtreeList()) {
+                bytes += 16 + localSnapshot.getSerializedSize();
+            }
+            grew(bytes);
+        }
+        childrenReported++;
+    }
+
+    // Every marker has arrived, so every child is known, and every child has reported
+    boolean isSubtreeComplete() {
+        return isComplete() && childrenReported == children;
+    }
+
+    int getSubtreeBranches() {
+        return subtreeBranches;
+    }
+
+    long getSubtreeSum() {
+        return subtreeSum;
+    }
+
+    List<Bank.ReturnSnapshot.LocalSnapshot> getSubtree() {
+        return subtree == null ? new ArrayList<>() : subtree;
+    }
+
+    // Only ever called by the receiving thread of the given channel
+    void record(int index, int moneyTransferred) {
+        IntList amounts = channelState[index];
+        if (amounts == null) {
+            amounts = new IntList(INITIAL_CHANNEL_CAPACITY);
+            channelState[index] = amounts;
+            grew(amounts.footprintBytes());
+        }
+        long before = amounts.footprintBytes();
+        amounts.add(moneyTransferred);
+        // Only changes when the buffer doubles, so the monitor is rarely taken here
+        long after = amounts.footprintBytes();
+        if (after != before) {
+            grew(after - before);
+        }
+    }
+
+    // Only exact when called by the receiving thread of the given channel
+    int recordedEntries(int index) {
+        IntList amounts = channelState[index];
+        return amounts == null ? 0 : amounts.size();
+    }
+
+    int recordedEntries() {
+        int entries = 0;
+        for (int index = 0; index < channelState.length; index++) {
+            entries += recordedEntries(index);
+        }
+        return entries;
+    }
+
+    // Balance plus the money recorded in transit on every incoming channel
+    long partialSum() {
+        long sum = balance;
+        for (IntList amounts : channelState) {
+            if (amounts == null) {
+                continue;
+            }
+            int size = amounts.size();
+            for (int i = 0; i < size; i++) {
+                sum += amounts.get(i);
+            }
+        }
+        return sum;
+    }
+
+    // Channel state is sent as (channel index, amount) pairs, and only when asked for
+    Bank.ReturnSnapshot.LocalSnapshot toLocalSnapshot(int branchIndex, boolean withChannelState) {
+        Bank.ReturnSnapshot.LocalSnapshot.Builder localSnapshot = Bank.ReturnSnapshot.LocalSnapshot.newBuilder()
+                .setSnapshotId(snapshotId)
+                .setBalance(balance)
+                .setBranchIndex(branchIndex)
+                .setPartialSum(partialSum());
+        if (markerHops != null) {
+            localSnapshot.addAllMarkerHops(markerHops);
+        }
+        if (!withChannelState) {
+            return localSnapshot.build();
+        }
+        for (int index = 0; index < channelState.length; index++) {
+            IntList amounts = channelState[index];
+            if (amounts == null) {
+                continue;
+            }
+            int size = amounts.size();
+            for (int i = 0; i < size; i++) {
+                localSnapshot.addChannelState(index).addChannelState(amounts.get(i));
+            }
+        }
+        return localSnapshot.build();
+    }
+}
@@ -0,0 +1,117 @@
+package distributed_banking;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Snapshots kept by a branch. A complete snapshot is dropped once it has been retrieved, and the oldest
+// snapshots are evicted whenever the retained count, age or estimated size goes over its limit, so a
+// long running branch does not grow without bound. A limit of 0 disables it. The ids of the last
+// MAX_TOMBSTONES evicted snapshots are remembered, so that a marker arriving after its snapshot was
+// evicted is not taken for a first marker. Guarded by balanceLock, except for the running size, which
+// snapshots recording channels in cas mode add to without it.
+class SnapshotStore {
+    private static final int MAX_TOMBSTONES = 4096;
+
+    private final IntMap<SnapshotState> snapshots;
+    private final IntMap<Boolean> tombstones;
+    private final Deque<Integer> tombstonesOldestFirst;
+    private final Deque<SnapshotState> oldestFirst;
+    private final int maxSnapshots;
+    private final long maxAgeNanos;
+    private final long maxBytes;
+    private final Consumer<SnapshotState> onEvict;
+    // Footprint of every retained snapshot, so the size limit does not walk them all on every change
+    private final AtomicLong footprintBytes;
+    private long evicted;
+
+    SnapshotStore(int maxSnapshots, long maxAgeMillis, long maxBytes, Consumer<SnapshotState> onEvict) {
+        this.maxSnapshots = maxSnapshots;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.maxBytes = maxBytes;
+        this.onEvict = onEvict;
+        snapshots = new IntMap<>();
+        oldestFirst = new ArrayDeque<>();
+        tombstones = new IntMap<>();
+        tombstonesOldestFirst = new ArrayDeque<>();
+        footprintBytes = new AtomicLong();
+    }
+
+    SnapshotState get(int snapshotId) {
+        return snapshots.get(snapshotId);
+    }
+
+    boolean isEvicted(int snapshotId) {
+        return tombstones.get(snapshotId) != null;
+    }
+
+    void put(SnapshotState snapshotState) {
+        snapshots.put(snapshotState.getSnapshotId(), snapshotState);
+        oldestFirst.add(snapshotState);
+        footprintBytes.addAndGet(snapshotState.attach(this));
+        evictOverLimits();
+    }
+
+    void retrieved(SnapshotState snapshotState) {
+        if (snapshotState.isComplete()) {
+            remove(snapshotState);
+        }
+        evictOverLimits();
+    }
+
+    int size() {
+        return snapshots.size();
+    }
+
+    long getEvicted() {
+        return evicted;
+    }
+
+    long footprintBytes() {
+        return footprintBytes.get();
+    }
+
+    // Called by a retained snapshot as it grows
+    void grew(long bytes) {
+        footprintBytes.addAndGet(bytes);
+    }
+
+    private void evictOverLimits() {
+        long now = System.nanoTime();
+        while (!oldestFirst.isEmpty()) {
+            SnapshotState oldest = oldestFirst.peekFirst();
+            boolean overCount = maxSnapshots > 0 && oldestFirst.size() > maxSnapshots;
+            boolean tooOld = maxAgeNanos > 0 && now - oldest.getRecordedAt() > maxAgeNanos;
+            if (!overCount && !tooOld) {
+                break;
+            }
+            evict(oldest);
+        }
+        while (maxBytes > 0 && footprintBytes.get() > maxBytes && !oldestFirst.isEmpty()) {
+            evict(oldestFirst.peekFirst());
+        }
+    }
+
+    private void evict(SnapshotState snapshotState) {
+        remove(snapshotState);
+        evicted(snapshotState);
+    }
+
+    private void evicted(SnapshotState snapshotState) {
+        evicted++;
+        tombstones.put(snapshotState.getSnapshotId(), Boolean.TRUE);
+        tombstonesOldestFirst.add(snapshotState.getSnapshotId());
+        if (tombstonesOldestFirst.size() > MAX_TOMBSTONES) {
+            tombstones.remove(tombstonesOldestFirst.removeFirst());
+        }
+        onEvict.accept(snapshotState);
+    }
+
+    private void remove(SnapshotState snapshotState) {
+        snapshots.remove(snapshotState.getSnapshotId());
+        oldestFirst.remove(snapshotState);
+        footprintBytes.addAndGet(-snapshotState.detach());
+    }
+}
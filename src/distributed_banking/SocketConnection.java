@@ -0,0 +1,69 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.Socket;
+import java.util.concurrent.Executor;
+
+class SocketConnection implements Connection {
+    private final Socket socket;
+    private final ChannelWriter writer;
+    private volatile int peerIndex = -1;
+    // Only updated by the thread reading the socket
+    private volatile long bytesIn;
+
+    SocketConnection(Socket socket, BranchConfig config, Executor drainers) throws IOException {
+        this.socket = socket;
+        // The writer already coalesces messages, Nagle would only hold markers back further
+        socket.setTcpNoDelay(true);
+        if (config.socketBuffer > 0) {
+            socket.setSendBufferSize(config.socketBuffer);
+        }
+        writer = new ChannelWriter(socket.getOutputStream(), drainers, config.queueCapacity, config.flushBytes, config.flushMillis);
+    }
+
+    Socket getSocket() {
+        return socket;
+    }
+
+    @Override
+    public void send(Bank.BranchMessage branchMessage) throws IOException {
+        writer.write(branchMessage);
+    }
+
+    @Override
+    public void awaitCapacity() throws InterruptedIOException {
+        writer.awaitCapacity();
+    }
+
+    @Override
+    public ChannelWriter getWriter() {
+        return writer;
+    }
+
+    void received(int bytes) {
+        bytesIn += bytes;
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    @Override
+    public long getBytesOut() {
+        return writer.getBytesWritten();
+    }
+
+    @Override
+    public int getPeerIndex() {
+        return peerIndex;
+    }
+
+    @Override
+    public void setPeerIndex(int peerIndex) {
+        this.peerIndex = peerIndex;
+    }
+}
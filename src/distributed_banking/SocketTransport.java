@@ -0,0 +1,78 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Executor;
+
+// Blocking sockets, with one ProcessRequest reading each connection on a thread from the executor
+class SocketTransport implements Transport {
+    private final MessageHandler handler;
+    private final BranchConfig config;
+    private final Executor executor;
+    private final Executor drainers;
+    private ServerSocket serverSocket;
+
+    SocketTransport(MessageHandler handler, BranchConfig config, Executor executor) {
+        this.handler = handler;
+        this.config = config;
+        this.executor = executor;
+        drainers = config.drainerExecutor(executor);
+    }
+
+    @Override
+    public void bind(int portNumber) throws IOException {
+        serverSocket = new ServerSocket();
+        // Accepted sockets take their receive buffer from here, it has to be set before the handshake
+        if (config.socketBuffer > 0) {
+            serverSocket.setReceiveBufferSize(config.socketBuffer);
+        }
+        serverSocket.bind(new InetSocketAddress(portNumber));
+    }
+
+    @Override
+    public void serve() {
+        Socket socket;
+        try {
+            // For controller request
+            socket = serverSocket.accept();
+            executor.execute(new ProcessRequest(new SocketConnection(socket, config, drainers), handler, false));
+            // Other branches
+            while (!Thread.interrupted()) {
+                try {
+                    socket = serverSocket.accept();
+                    executor.execute(new ProcessRequest(new SocketConnection(socket, config, drainers), handler, true));
+                } catch (IOException e) {
+                    System.err.println("Error: Server unable to accept client request");
+                }
+            }
+            serverSocket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void startClient() {
+        // Every connection gets its reader when it is made
+    }
+
+    @Override
+    public Connection connect(String ip, int port, String selfName, int peerIndex) throws IOException {
+        Socket socket = new Socket();
+        if (config.socketBuffer > 0) {
+            socket.setReceiveBufferSize(config.socketBuffer);
+        }
+        socket.connect(new InetSocketAddress(ip, port));
+        if (selfName != null) {
+            Bank.InitBranch.Branch.newBuilder().setName(selfName).build().writeDelimitedTo(socket.getOutputStream());
+        }
+        SocketConnection connection = new SocketConnection(socket, config, drainers);
+        connection.setPeerIndex(peerIndex);
+        executor.execute(new ProcessRequest(connection, handler, false));
+        return connection;
+    }
+}
@@ -0,0 +1,67 @@
+package distributed_banking;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+// Sends the transfers of a trace written by TraceWriter again: to the same peers, with the same
+// amounts and at the same offsets from the first event of the trace. Received transfers and markers
+// in the trace are skipped, they come from the other branches replaying their own traces. A transfer
+// the balance does not cover at that point is not sent and only counted.
+class TraceReplay implements Runnable {
+    private final Branch branch;
+    private final Path path;
+
+    TraceReplay(Branch branch, Path path) {
+        this.branch = branch;
+        this.path = path;
+    }
+
+    @Override
+    public void run() {
+        long replayed = 0;
+        long skipped = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != TraceWriter.MAGIC) {
+                System.err.println("Error: " + path + " is not a trace");
+                return;
+            }
+            long start = System.nanoTime();
+            long first = -1;
+            while (!Thread.interrupted()) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                int peerIndex = in.readUnsignedShort();
+                in.readInt();
+                int value = in.readInt();
+                long nanos = in.readLong();
+                if (first < 0) {
+                    first = nanos;
+                }
+                if (type != TraceWriter.SENT_TRANSFER) {
+                    continue;
+                }
+                long wait = start + nanos - first - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (branch.sendTransfer(peerIndex, value)) {
+                    replayed++;
+                } else {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        System.out.println(branch.getBranchName() + " replayed " + replayed + " transfers, skipped " + skipped);
+    }
+}
@@ -0,0 +1,127 @@
+package distributed_banking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Append-only binary trace of the transfers and markers a branch sends and receives. Callers only
+// enqueue; a background thread encodes events into a direct buffer and appends it to the file once
+// it fills up or the queue runs dry. After a 4 byte MAGIC every event takes RECORD_BYTES:
+//   type (1 byte), peer index (2), sequence number on that channel in that direction (4),
+//   amount or snapshot id (4), nanoseconds since the trace was opened (8)
+class TraceWriter {
+    static final int MAGIC = 0x434c5431;
+    static final int RECORD_BYTES = 19;
+    static final byte SENT_TRANSFER = 1;
+    static final byte RECEIVED_TRANSFER = 2;
+    static final byte SENT_MARKER = 3;
+    static final byte RECEIVED_MARKER = 4;
+    // A TransferBatch, recorded with the sum of its transfers
+    static final byte RECEIVED_BATCH = 5;
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Queued by close() after every event recorded so far
+    private static final Event END = new Event((byte) 0, 0, 0, 0, 0);
+
+    private final BlockingQueue<Event> queue;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long start;
+    private final Thread writer;
+
+    TraceWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE - BUFFER_SIZE % RECORD_BYTES);
+        buffer.putInt(MAGIC);
+        start = System.nanoTime();
+        writer = new Thread(this::run, "trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // Branches are stopped with a signal, whatever is still queued then is written out
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    // Blocks only when the writer is a whole queue behind, so no event is ever dropped
+    void record(byte type, int peerIndex, int sequence, int value) {
+        Event event = new Event(type, peerIndex, sequence, value, System.nanoTime() - start);
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Event> events = new ArrayList<>();
+        try {
+            while (true) {
+                events.add(queue.take());
+                queue.drainTo(events, buffer.remaining() / RECORD_BYTES - 1);
+                for (Event event : events) {
+                    if (event == END) {
+                        write();
+                        return;
+                    }
+                    event.writeTo(buffer);
+                }
+                events.clear();
+                if (queue.isEmpty() || buffer.remaining() < RECORD_BYTES) {
+                    write();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // The writer is not interrupted, that would close the file channel under it
+    void close() {
+        try {
+            queue.put(END);
+            writer.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class Event {
+        private final byte type;
+        private final int peerIndex;
+        private final int sequence;
+        private final int value;
+        private final long nanos;
+
+        Event(byte type, int peerIndex, int sequence, int value, long nanos) {
+            this.type = type;
+            this.peerIndex = peerIndex;
+            this.sequence = sequence;
+            this.value = value;
+            this.nanos = nanos;
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(type).putShort((short) peerIndex).putInt(sequence).putInt(value).putLong(nanos);
+        }
+    }
+}
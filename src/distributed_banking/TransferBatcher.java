@@ -0,0 +1,78 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Outgoing transfers of one branch, netted per destination. The first debit towards a peer opens a
+// batch that is sent as a single TransferBatch once batchMillis have passed. The money has already
+// left the balance, so a branch recording its state sends every open batch ahead of its markers.
+// The batch of a peer is guarded by the send lock of that peer.
+class TransferBatcher {
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "batch-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantLock[] sendLocks;
+    private final long batchMillis;
+    // Indexed by peer index
+    private final Connection[] destinations;
+    private final int[] counts;
+    private final int[] sums;
+
+    TransferBatcher(ReentrantLock[] sendLocks, long batchMillis) {
+        this.sendLocks = sendLocks;
+        this.batchMillis = batchMillis;
+        destinations = new Connection[sendLocks.length];
+        counts = new int[sendLocks.length];
+        sums = new int[sendLocks.length];
+    }
+
+    // Caller holds the send lock of the connection
+    void add(Connection connection, int amount) {
+        int index = connection.getPeerIndex();
+        sums[index] += amount;
+        if (counts[index]++ == 0) {
+            destinations[index] = connection;
+            FLUSHER.schedule(() -> scheduledFlush(index), batchMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Caller holds the send lock of the connection
+    void flush(Connection connection) {
+        int index = connection.getPeerIndex();
+        if (counts[index] == 0) {
+            return;
+        }
+        Bank.TransferBatch transferBatch = Bank.TransferBatch.newBuilder()
+                .setCount(counts[index])
+                .setSum(sums[index])
+                .build();
+        counts[index] = 0;
+        sums[index] = 0;
+        try {
+            connection.send(Bank.BranchMessage.newBuilder().setTransferBatch(transferBatch).build());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // The batch may already have gone out ahead of a marker, then this sends the next one a bit early
+    private void scheduledFlush(int index) {
+        ReentrantLock sendLock = sendLocks[index];
+        sendLock.lock();
+        try {
+            if (counts[index] > 0) {
+                flush(destinations[index]);
+            }
+        } finally {
+            sendLock.unlock();
+        }
+    }
+}
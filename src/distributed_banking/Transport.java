@@ -0,0 +1,40 @@
+package distributed_banking;
+
+import protobuf.Bank;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+// How a branch is reached by the controller and the other branches, and how it reaches them. The
+// first connection a branch accepts is the controller's, every later one is a branch introducing
+// itself by name. Received messages and new connections go to the transport's MessageHandler.
+interface Transport {
+    // Returns once connections to the port are accepted
+    void bind(int portNumber) throws IOException;
+
+    // Serves accepted connections, either on the calling thread or on threads of its own
+    void serve();
+
+    // For a transport that only connects, like the controller's
+    void startClient();
+
+    // Connects to a branch and introduces this branch by name, the controller connects without a name.
+    // The peer index is set before the first message from the branch can be read
+    Connection connect(String ip, int port, String selfName, int peerIndex) throws IOException;
+
+    // For transports whose loop threads read many connections each
+    static void dispatch(MessageHandler handler, Executor executor, Bank.BranchMessage branchMessage,
+                         Connection receivedFrom) {
+        if (branchMessage.getBranchMessageCase() == Bank.BranchMessage.BranchMessageCase.INIT_BRANCH) {
+            // Initialization waits for and connects to other branches, keep it off the loop
+            executor.execute(() -> handler.receivedMessage(branchMessage, receivedFrom));
+        } else {
+            try {
+                handler.receivedMessage(branchMessage, receivedFrom);
+            } catch (RuntimeException e) {
+                // A failing handler must not take down every other connection on this loop
+                e.printStackTrace();
+            }
+        }
+    }
+}
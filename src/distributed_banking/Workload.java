@@ -0,0 +1,138 @@
+package distributed_banking;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives the outgoing transfers of a branch once it is connected to every other branch. Each sender
+// owns a generator split from one SplittableRandom, so a run is repeated by giving the same --seed.
+//   interval  one transfer after a random pause of 0 to 4 seconds
+//   rate      open loop, transfers started on a fixed schedule whether or not earlier ones kept up
+//   closed    closed loop, --outstanding senders each sending its next transfer once the last is queued
+//   burst     open loop, --burst transfers at once, with bursts spaced to average out to --rate
+//   none      nothing is sent, the branch only receives (Branch does not start a Workload)
+// Destinations are uniform, or Zipf distributed over the peers in branch order with --zipf.
+class Workload {
+    // A closed-loop sender with nothing to send waits this long at first, twice as long after every
+    // further failed send, up to MAX_BACKOFF_NANOS
+    private static final long MIN_BACKOFF_NANOS = 10 * 1000;
+    private static final long MAX_BACKOFF_NANOS = 1000 * 1000;
+
+    private final Branch branch;
+    private final BranchConfig config;
+    // Peer indexes in rank order, with the probability of picking each one or an earlier one
+    private final int[] destinations;
+    private final double[] cumulative;
+    private final long seed;
+
+    Workload(Branch branch, BranchConfig config, int[] destinations, long seed) {
+        this.branch = branch;
+        this.config = config;
+        this.destinations = destinations;
+        this.seed = seed;
+        cumulative = config.zipf > 0 ? zipf(destinations.length, config.zipf) : null;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    void start(Executor executor) {
+        SplittableRandom root = new SplittableRandom(seed);
+        switch (config.workload) {
+            case INTERVAL:
+                SplittableRandom intervalRandom = root.split();
+                executor.execute(() -> interval(intervalRandom));
+                break;
+            case RATE:
+                SplittableRandom rateRandom = root.split();
+                executor.execute(() -> openLoop(rateRandom, 1));
+                break;
+            case BURST:
+                SplittableRandom burstRandom = root.split();
+                executor.execute(() -> openLoop(burstRandom, config.burst));
+                break;
+            case CLOSED:
+                for (int i = 0; i < config.outstanding; i++) {
+                    SplittableRandom closedRandom = root.split();
+                    executor.execute(() -> closedLoop(closedRandom));
+                }
+                break;
+            case NONE:
+                break;
+        }
+    }
+
+    private void interval(SplittableRandom random) {
+        while (!Thread.interrupted()) {
+            int interval = random.nextInt(5) * 1000;
+            try {
+                Thread.sleep(interval);
+                send(random);
+            } catch (InterruptedException e) {
+                System.out.println("Error: Interruption in thread delay");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Falling behind schedule sends the missed transfers right away instead of dropping them
+    private void openLoop(SplittableRandom random, int perTick) {
+        long period = (long) (perTick * 1e9 / config.rate);
+        long next = System.nanoTime();
+        while (!Thread.interrupted()) {
+            for (int i = 0; i < perTick; i++) {
+                send(random);
+            }
+            next += period;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    // The outbound queue of the destination bounds how far a sender runs ahead of the socket. A branch
+    // whose balance is 0 backs off instead of spinning on balanceLock until a credit arrives
+    private void closedLoop(SplittableRandom random) {
+        long backoff = 0;
+        while (!Thread.interrupted()) {
+            if (send(random)) {
+                backoff = 0;
+            } else {
+                backoff = Math.min(Math.max(backoff * 2, MIN_BACKOFF_NANOS), MAX_BACKOFF_NANOS);
+                LockSupport.parkNanos(backoff);
+            }
+        }
+    }
+
+    private boolean send(SplittableRandom random) {
+        return branch.sendTransferMessage(nextDestination(random), random.nextInt(5) + 1);
+    }
+
+    int nextDestination(SplittableRandom random) {
+        if (cumulative == null) {
+            return destinations[random.nextInt(destinations.length)];
+        }
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return destinations[Math.min(rank, destinations.length - 1)];
+    }
+
+    // Rank k is picked with probability proportional to 1 / k^exponent
+    private static double[] zipf(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1 / Math.pow(k, exponent);
+            cumulative[k - 1] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+        return cumulative;
+    }
+}
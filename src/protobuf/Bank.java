@@ -43,34 +43,62 @@ public final class Bank {
     private static final
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
             internal_static_ReturnSnapshot_LocalSnapshot_fieldAccessorTable;
+    private static final com.google.protobuf.Descriptors.Descriptor
+            internal_static_SnapshotComplete_descriptor;
+    private static final
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+            internal_static_SnapshotComplete_fieldAccessorTable;
+    private static final com.google.protobuf.Descriptors.Descriptor
+            internal_static_TransferBatch_descriptor;
+    private static final
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+            internal_static_TransferBatch_fieldAccessorTable;
     private static final com.google.protobuf.Descriptors.Descriptor
             internal_static_BranchMessage_descriptor;
     private static final
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
             internal_static_BranchMessage_fieldAccessorTable;
+    private static final com.google.protobuf.Descriptors.Descriptor
+            internal_static_MeshReady_descriptor;
+    private static final
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+            internal_static_MeshReady_fieldAccessorTable;
     private static com.google.protobuf.Descriptors.FileDescriptor
             descriptor;
 
     static {
         String[] descriptorData = {
-                "\n\nbank.proto\"y\n\nInitBranch\022\017\n\007balance\030\001 " +
-                        "\001(\r\022(\n\014all_branches\030\002 \003(\0132\022.InitBranch.B" +
-                        "ranch\0320\n\006Branch\022\014\n\004name\030\001 \001(\t\022\n\n\002ip\030\002 \001(" +
-                        "\t\022\014\n\004port\030\003 \001(\r\"\031\n\010Transfer\022\r\n\005money\030\001 \001" +
-                        "(\r\"#\n\014InitSnapshot\022\023\n\013snapshot_id\030\001 \001(\r\"" +
-                        "\035\n\006Marker\022\023\n\013snapshot_id\030\001 \001(\r\"\'\n\020Retrie" +
-                        "veSnapshot\022\023\n\013snapshot_id\030\001 \001(\r\"\225\001\n\016Retu" +
-                        "rnSnapshot\0225\n\016local_snapshot\030\001 \001(\0132\035.Ret" +
-                        "urnSnapshot.LocalSnapshot\032L\n\rLocalSnapsh" +
-                        "ot\022\023\n\013snapshot_id\030\001 \001(\r\022\017\n\007balance\030\002 \001(\r",
-                "\022\025\n\rchannel_state\030\003 \003(\r\"\203\002\n\rBranchMessag" +
-                        "e\022\"\n\013init_branch\030\001 \001(\0132\013.InitBranchH\000\022\035\n" +
-                        "\010transfer\030\002 \001(\0132\t.TransferH\000\022&\n\rinit_sna" +
-                        "pshot\030\003 \001(\0132\r.InitSnapshotH\000\022\031\n\006marker\030\004" +
-                        " \001(\0132\007.MarkerH\000\022.\n\021retrieve_snapshot\030\005 \001" +
-                        "(\0132\021.RetrieveSnapshotH\000\022*\n\017return_snapsh" +
-                        "ot\030\006 \001(\0132\017.ReturnSnapshotH\000B\020\n\016branch_me" +
-                        "ssageb\006proto3"
+                "\n\nbank.proto\"\244\001\n\nInitBranch\022\017\n\007balance\030\001" +
+                        " \001(\r\022(\n\014all_branches\030\002 \003(\0132\022.InitBranch." +
+                        "Branch\022\030\n\020tree_aggregation\030\003 \001(\010\022\017\n\007verb" +
+                        "ose\030\004 \001(\010\0320\n\006Branch\022\014\n\004name\030\001 \001(\t\022\n\n\002ip\030" +
+                        "\002 \001(\t\022\014\n\004port\030\003 \001(\r\"\031\n\010Transfer\022\r\n\005money" +
+                        "\030\001 \001(\r\":\n\014InitSnapshot\022\023\n\013snapshot_id\030\001 " +
+                        "\001(\r\022\025\n\rtrace_markers\030\002 \001(\010\"e\n\006Marker\022\023\n\013" +
+                        "snapshot_id\030\001 \001(\r\022\021\n\tto_parent\030\002 \001(\010\022\021\n\t" +
+                        "initiator\030\003 \001(\r\022\014\n\004hops\030\004 \001(\r\022\022\n\nsent_na" +
+                        "nos\030\005 \001(\004\"\'\n\020RetrieveSnapshot\022\023\n\013snapsho",
+                "t_id\030\001 \001(\r\"\265\002\n\016ReturnSnapshot\0225\n\016local_s" +
+                        "napshot\030\001 \001(\0132\035.ReturnSnapshot.LocalSnap" +
+                        "shot\022.\n\007subtree\030\002 \003(\0132\035.ReturnSnapshot.L" +
+                        "ocalSnapshot\022\023\n\013subtree_sum\030\003 \001(\004\022\030\n\020sub" +
+                        "tree_branches\030\004 \001(\r\032\214\001\n\rLocalSnapshot\022\023\n" +
+                        "\013snapshot_id\030\001 \001(\r\022\017\n\007balance\030\002 \001(\r\022\025\n\rc" +
+                        "hannel_state\030\003 \003(\r\022\024\n\014branch_index\030\004 \001(\r" +
+                        "\022\023\n\013partial_sum\030\005 \001(\004\022\023\n\013marker_hops\030\006 \003" +
+                        "(\004\"\'\n\020SnapshotComplete\022\023\n\013snapshot_id\030\001 " +
+                        "\001(\r\"+\n\rTransferBatch\022\r\n\005count\030\001 \001(\r\022\013\n\003s",
+                "um\030\002 \001(\r\"\377\002\n\rBranchMessage\022\"\n\013init_branc" +
+                        "h\030\001 \001(\0132\013.InitBranchH\000\022\035\n\010transfer\030\002 \001(\013" +
+                        "2\t.TransferH\000\022&\n\rinit_snapshot\030\003 \001(\0132\r.I" +
+                        "nitSnapshotH\000\022\031\n\006marker\030\004 \001(\0132\007.MarkerH\000" +
+                        "\022.\n\021retrieve_snapshot\030\005 \001(\0132\021.RetrieveSn" +
+                        "apshotH\000\022*\n\017return_snapshot\030\006 \001(\0132\017.Retu" +
+                        "rnSnapshotH\000\022.\n\021snapshot_complete\030\007 \001(\0132" +
+                        "\021.SnapshotCompleteH\000\022(\n\016transfer_batch\030\010" +
+                        " \001(\0132\016.TransferBatchH\000\022 \n\nmesh_ready\030\t \001" +
+                        "(\0132\n.MeshReadyH\000B\020\n\016branch_message\"!\n\tMe",
+                "shReady\022\024\n\014branch_index\030\001 \001(\rb\006proto3"
         };
         com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
                 new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
@@ -89,7 +117,7 @@ public final class Bank {
         internal_static_InitBranch_fieldAccessorTable = new
                 com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
                 internal_static_InitBranch_descriptor,
-                new String[]{"Balance", "AllBranches",});
+                new String[]{"Balance", "AllBranches", "TreeAggregation", "Verbose",});
         internal_static_InitBranch_Branch_descriptor =
                 internal_static_InitBranch_descriptor.getNestedTypes().get(0);
         internal_static_InitBranch_Branch_fieldAccessorTable = new
@@ -107,13 +135,13 @@ public final class Bank {
         internal_static_InitSnapshot_fieldAccessorTable = new
                 com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
                 internal_static_InitSnapshot_descriptor,
-                new String[]{"SnapshotId",});
+                new String[]{"SnapshotId", "TraceMarkers",});
         internal_static_Marker_descriptor =
                 getDescriptor().getMessageTypes().get(3);
         internal_static_Marker_fieldAccessorTable = new
                 com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
                 internal_static_Marker_descriptor,
-                new String[]{"SnapshotId",});
+                new String[]{"SnapshotId", "ToParent", "Initiator", "Hops", "SentNanos",});
         internal_static_RetrieveSnapshot_descriptor =
                 getDescriptor().getMessageTypes().get(4);
         internal_static_RetrieveSnapshot_fieldAccessorTable = new
@@ -125,19 +153,37 @@ public final class Bank {
         internal_static_ReturnSnapshot_fieldAccessorTable = new
                 com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
                 internal_static_ReturnSnapshot_descriptor,
-                new String[]{"LocalSnapshot",});
+                new String[]{"LocalSnapshot", "Subtree", "SubtreeSum", "SubtreeBranches",});
         internal_static_ReturnSnapshot_LocalSnapshot_descriptor =
                 internal_static_ReturnSnapshot_descriptor.getNestedTypes().get(0);
         internal_static_ReturnSnapshot_LocalSnapshot_fieldAccessorTable = new
                 com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
                 internal_static_ReturnSnapshot_LocalSnapshot_descriptor,
-                new String[]{"SnapshotId", "Balance", "ChannelState",});
-        internal_static_BranchMessage_descriptor =
+                new String[]{"SnapshotId", "Balance", "ChannelState", "BranchIndex", "PartialSum", "MarkerHops",});
+        internal_static_SnapshotComplete_descriptor =
                 getDescriptor().getMessageTypes().get(6);
+        internal_static_SnapshotComplete_fieldAccessorTable = new
+                com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+                internal_static_SnapshotComplete_descriptor,
+                new String[]{"SnapshotId",});
+        internal_static_TransferBatch_descriptor =
+                getDescriptor().getMessageTypes().get(7);
+        internal_static_TransferBatch_fieldAccessorTable = new
+                com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+                internal_static_TransferBatch_descriptor,
+                new String[]{"Count", "Sum",});
+        internal_static_BranchMessage_descriptor =
+                getDescriptor().getMessageTypes().get(8);
         internal_static_BranchMessage_fieldAccessorTable = new
                 com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
                 internal_static_BranchMessage_descriptor,
-                new String[]{"InitBranch", "Transfer", "InitSnapshot", "Marker", "RetrieveSnapshot", "ReturnSnapshot", "BranchMessage",});
+                new String[]{"InitBranch", "Transfer", "InitSnapshot", "Marker", "RetrieveSnapshot", "ReturnSnapshot", "SnapshotComplete", "TransferBatch", "MeshReady", "BranchMessage",});
+        internal_static_MeshReady_descriptor =
+                getDescriptor().getMessageTypes().get(9);
+        internal_static_MeshReady_fieldAccessorTable = new
+                com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+                internal_static_MeshReady_descriptor,
+                new String[]{"BranchIndex",});
     }
 
     private Bank() {
@@ -194,6 +240,16 @@ public final class Bank {
          */
         InitBranch.BranchOrBuilder getAllBranchesOrBuilder(
                 int index);
+
+        /**
+         * <code>bool tree_aggregation = 3;</code>
+         */
+        boolean getTreeAggregation();
+
+        /**
+         * <code>bool verbose = 4;</code>
+         */
+        boolean getVerbose();
     }
 
     public interface TransferOrBuilder extends
@@ -214,6 +270,11 @@ public final class Bank {
          * <code>uint32 snapshot_id = 1;</code>
          */
         int getSnapshotId();
+
+        /**
+         * <code>bool trace_markers = 2;</code>
+         */
+        boolean getTraceMarkers();
     }
 
     public interface MarkerOrBuilder extends
@@ -224,6 +285,26 @@ public final class Bank {
          * <code>uint32 snapshot_id = 1;</code>
          */
         int getSnapshotId();
+
+        /**
+         * <code>bool to_parent = 2;</code>
+         */
+        boolean getToParent();
+
+        /**
+         * <code>uint32 initiator = 3;</code>
+         */
+        int getInitiator();
+
+        /**
+         * <code>uint32 hops = 4;</code>
+         */
+        int getHops();
+
+        /**
+         * <code>uint64 sent_nanos = 5;</code>
+         */
+        long getSentNanos();
     }
 
     public interface RetrieveSnapshotOrBuilder extends
@@ -254,6 +335,69 @@ public final class Bank {
          * <code>.ReturnSnapshot.LocalSnapshot local_snapshot = 1;</code>
          */
         ReturnSnapshot.LocalSnapshotOrBuilder getLocalSnapshotOrBuilder();
+
+        /**
+         * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+         */
+        java.util.List<ReturnSnapshot.LocalSnapshot>
+        getSubtreeList();
+
+        /**
+         * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+         */
+        ReturnSnapshot.LocalSnapshot getSubtree(int index);
+
+        /**
+         * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+         */
+        int getSubtreeCount();
+
+        /**
+         * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+         */
+        java.util.List<? extends ReturnSnapshot.LocalSnapshotOrBuilder>
+        getSubtreeOrBuilderList();
+
+        /**
+         * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+         */
+        ReturnSnapshot.LocalSnapshotOrBuilder getSubtreeOrBuilder(
+                int index);
+
+        /**
+         * <code>uint64 subtree_sum = 3;</code>
+         */
+        long getSubtreeSum();
+
+        /**
+         * <code>uint32 subtree_branches = 4;</code>
+         */
+        int getSubtreeBranches();
+    }
+
+    public interface SnapshotCompleteOrBuilder extends
+            // @@protoc_insertion_point(interface_extends:SnapshotComplete)
+            com.google.protobuf.MessageOrBuilder {
+
+        /**
+         * <code>uint32 snapshot_id = 1;</code>
+         */
+        int getSnapshotId();
+    }
+
+    public interface TransferBatchOrBuilder extends
+            // @@protoc_insertion_point(interface_extends:TransferBatch)
+            com.google.protobuf.MessageOrBuilder {
+
+        /**
+         * <code>uint32 count = 1;</code>
+         */
+        int getCount();
+
+        /**
+         * <code>uint32 sum = 2;</code>
+         */
+        int getSum();
     }
 
     public interface BranchMessageOrBuilder extends
@@ -350,9 +494,64 @@ public final class Bank {
          */
         ReturnSnapshotOrBuilder getReturnSnapshotOrBuilder();
 
+        /**
+         * <code>.SnapshotComplete snapshot_complete = 7;</code>
+         */
+        boolean hasSnapshotComplete();
+
+        /**
+         * <code>.SnapshotComplete snapshot_complete = 7;</code>
+         */
+        SnapshotComplete getSnapshotComplete();
+
+        /**
+         * <code>.SnapshotComplete snapshot_complete = 7;</code>
+         */
+        SnapshotCompleteOrBuilder getSnapshotCompleteOrBuilder();
+
+        /**
+         * <code>.TransferBatch transfer_batch = 8;</code>
+         */
+        boolean hasTransferBatch();
+
+        /**
+         * <code>.TransferBatch transfer_batch = 8;</code>
+         */
+        TransferBatch getTransferBatch();
+
+        /**
+         * <code>.TransferBatch transfer_batch = 8;</code>
+         */
+        TransferBatchOrBuilder getTransferBatchOrBuilder();
+
+        /**
+         * <code>.MeshReady mesh_ready = 9;</code>
+         */
+        boolean hasMeshReady();
+
+        /**
+         * <code>.MeshReady mesh_ready = 9;</code>
+         */
+        MeshReady getMeshReady();
+
+        /**
+         * <code>.MeshReady mesh_ready = 9;</code>
+         */
+        MeshReadyOrBuilder getMeshReadyOrBuilder();
+
         public BranchMessage.BranchMessageCase getBranchMessageCase();
     }
 
+    public interface MeshReadyOrBuilder extends
+            // @@protoc_insertion_point(interface_extends:MeshReady)
+            com.google.protobuf.MessageOrBuilder {
+
+        /**
+         * <code>uint32 branch_index = 1;</code>
+         */
+        int getBranchIndex();
+    }
+
     /**
      * Protobuf type {@code InitBranch}
      */
@@ -362,6 +561,8 @@ public final class Bank {
             InitBranchOrBuilder {
         public static final int BALANCE_FIELD_NUMBER = 1;
         public static final int ALL_BRANCHES_FIELD_NUMBER = 2;
+        public static final int TREE_AGGREGATION_FIELD_NUMBER = 3;
+        public static final int VERBOSE_FIELD_NUMBER = 4;
         private static final long serialVersionUID = 0L;
         // @@protoc_insertion_point(class_scope:InitBranch)
         private static final InitBranch DEFAULT_INSTANCE;
@@ -382,6 +583,8 @@ public final class Bank {
         private int bitField0_;
         private int balance_;
         private java.util.List<Branch> allBranches_;
+        private boolean treeAggregation_;
+        private boolean verbose_;
         private byte memoizedIsInitialized = -1;
 
         // Use InitBranch.newBuilder() to construct.
@@ -392,6 +595,8 @@ public final class Bank {
         private InitBranch() {
             balance_ = 0;
             allBranches_ = java.util.Collections.emptyList();
+            treeAggregation_ = false;
+            verbose_ = false;
         }
 
         private InitBranch(
@@ -431,6 +636,16 @@ public final class Bank {
                                     input.readMessage(Branch.parser(), extensionRegistry));
                             break;
                         }
+                        case 24: {
+
+                            treeAggregation_ = input.readBool();
+                            break;
+                        }
+                        case 32: {
+
+                            verbose_ = input.readBool();
+                            break;
+                        }
                     }
                 }
             } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -606,6 +821,20 @@ public final class Bank {
             return allBranches_.get(index);
         }
 
+        /**
+         * <code>bool tree_aggregation = 3;</code>
+         */
+        public boolean getTreeAggregation() {
+            return treeAggregation_;
+        }
+
+        /**
+         * <code>bool verbose = 4;</code>
+         */
+        public boolean getVerbose() {
+            return verbose_;
+        }
+
         public final boolean isInitialized() {
             byte isInitialized = memoizedIsInitialized;
             if (isInitialized == 1) return true;
@@ -623,6 +852,12 @@ public final class Bank {
             for (int i = 0; i < allBranches_.size(); i++) {
                 output.writeMessage(2, allBranches_.get(i));
             }
+            if (treeAggregation_ != false) {
+                output.writeBool(3, treeAggregation_);
+            }
+            if (verbose_ != false) {
+                output.writeBool(4, verbose_);
+            }
             unknownFields.writeTo(output);
         }
 
@@ -639,6 +874,14 @@ public final class Bank {
                 size += com.google.protobuf.CodedOutputStream
                         .computeMessageSize(2, allBranches_.get(i));
             }
+            if (treeAggregation_ != false) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeBoolSize(3, treeAggregation_);
+            }
+            if (verbose_ != false) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeBoolSize(4, verbose_);
+            }
             size += unknownFields.getSerializedSize();
             memoizedSize = size;
             return size;
@@ -659,6 +902,10 @@ public final class Bank {
                     == other.getBalance());
             result = result && getAllBranchesList()
                     .equals(other.getAllBranchesList());
+            result = result && (getTreeAggregation()
+                    == other.getTreeAggregation());
+            result = result && (getVerbose()
+                    == other.getVerbose());
             result = result && unknownFields.equals(other.unknownFields);
             return result;
         }
@@ -676,6 +923,12 @@ public final class Bank {
                 hash = (37 * hash) + ALL_BRANCHES_FIELD_NUMBER;
                 hash = (53 * hash) + getAllBranchesList().hashCode();
             }
+            hash = (37 * hash) + TREE_AGGREGATION_FIELD_NUMBER;
+            hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+                    getTreeAggregation());
+            hash = (37 * hash) + VERBOSE_FIELD_NUMBER;
+            hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+                    getVerbose());
             hash = (29 * hash) + unknownFields.hashCode();
             memoizedHashCode = hash;
             return hash;
@@ -1487,6 +1740,8 @@ public final class Bank {
                     java.util.Collections.emptyList();
             private com.google.protobuf.RepeatedFieldBuilderV3<
                     Branch, Branch.Builder, BranchOrBuilder> allBranchesBuilder_;
+            private boolean treeAggregation_;
+            private boolean verbose_;
 
             // Construct using Bank.InitBranch.newBuilder()
             private Builder() {
@@ -1528,6 +1783,10 @@ public final class Bank {
                 } else {
                     allBranchesBuilder_.clear();
                 }
+                treeAggregation_ = false;
+
+                verbose_ = false;
+
                 return this;
             }
 
@@ -1563,6 +1822,8 @@ public final class Bank {
                     result.allBranches_ = allBranchesBuilder_.build();
                 }
                 result.bitField0_ = to_bitField0_;
+                result.treeAggregation_ = treeAggregation_;
+                result.verbose_ = verbose_;
                 onBuilt();
                 return result;
             }
@@ -1639,6 +1900,12 @@ public final class Bank {
                         }
                     }
                 }
+                if (other.getTreeAggregation() != false) {
+                    setTreeAggregation(other.getTreeAggregation());
+                }
+                if (other.getVerbose() != false) {
+                    setVerbose(other.getVerbose());
+                }
                 this.mergeUnknownFields(other.unknownFields);
                 onChanged();
                 return this;
@@ -1947,6 +2214,60 @@ public final class Bank {
                 return allBranchesBuilder_;
             }
 
+            /**
+             * <code>bool tree_aggregation = 3;</code>
+             */
+            public boolean getTreeAggregation() {
+                return treeAggregation_;
+            }
+
+            /**
+             * <code>bool tree_aggregation = 3;</code>
+             */
+            public Builder setTreeAggregation(boolean value) {
+
+                treeAggregation_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>bool tree_aggregation = 3;</code>
+             */
+            public Builder clearTreeAggregation() {
+
+                treeAggregation_ = false;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>bool verbose = 4;</code>
+             */
+            public boolean getVerbose() {
+                return verbose_;
+            }
+
+            /**
+             * <code>bool verbose = 4;</code>
+             */
+            public Builder setVerbose(boolean value) {
+
+                verbose_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>bool verbose = 4;</code>
+             */
+            public Builder clearVerbose() {
+
+                verbose_ = false;
+                onChanged();
+                return this;
+            }
+
             public final Builder setUnknownFields(
                     final com.google.protobuf.UnknownFieldSet unknownFields) {
                 return super.setUnknownFieldsProto3(unknownFields);
@@ -2443,6 +2764,7 @@ public final class Bank {
             // @@protoc_insertion_point(message_implements:InitSnapshot)
             InitSnapshotOrBuilder {
         public static final int SNAPSHOT_ID_FIELD_NUMBER = 1;
+        public static final int TRACE_MARKERS_FIELD_NUMBER = 2;
         private static final long serialVersionUID = 0L;
         // @@protoc_insertion_point(class_scope:InitSnapshot)
         private static final InitSnapshot DEFAULT_INSTANCE;
@@ -2461,6 +2783,7 @@ public final class Bank {
         }
 
         private int snapshotId_;
+        private boolean traceMarkers_;
         private byte memoizedIsInitialized = -1;
 
         // Use InitSnapshot.newBuilder() to construct.
@@ -2470,6 +2793,7 @@ public final class Bank {
 
         private InitSnapshot() {
             snapshotId_ = 0;
+            traceMarkers_ = false;
         }
 
         private InitSnapshot(
@@ -2500,6 +2824,11 @@ public final class Bank {
                             snapshotId_ = input.readUInt32();
                             break;
                         }
+                        case 16: {
+
+                            traceMarkers_ = input.readBool();
+                            break;
+                        }
                     }
                 }
             } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -2635,6 +2964,13 @@ public final class Bank {
             return snapshotId_;
         }
 
+        /**
+         * <code>bool trace_markers = 2;</code>
+         */
+        public boolean getTraceMarkers() {
+            return traceMarkers_;
+        }
+
         public final boolean isInitialized() {
             byte isInitialized = memoizedIsInitialized;
             if (isInitialized == 1) return true;
@@ -2649,6 +2985,9 @@ public final class Bank {
             if (snapshotId_ != 0) {
                 output.writeUInt32(1, snapshotId_);
             }
+            if (traceMarkers_ != false) {
+                output.writeBool(2, traceMarkers_);
+            }
             unknownFields.writeTo(output);
         }
 
@@ -2661,6 +3000,10 @@ public final class Bank {
                 size += com.google.protobuf.CodedOutputStream
                         .computeUInt32Size(1, snapshotId_);
             }
+            if (traceMarkers_ != false) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeBoolSize(2, traceMarkers_);
+            }
             size += unknownFields.getSerializedSize();
             memoizedSize = size;
             return size;
@@ -2679,6 +3022,8 @@ public final class Bank {
             boolean result = true;
             result = result && (getSnapshotId()
                     == other.getSnapshotId());
+            result = result && (getTraceMarkers()
+                    == other.getTraceMarkers());
             result = result && unknownFields.equals(other.unknownFields);
             return result;
         }
@@ -2692,6 +3037,9 @@ public final class Bank {
             hash = (19 * hash) + getDescriptor().hashCode();
             hash = (37 * hash) + SNAPSHOT_ID_FIELD_NUMBER;
             hash = (53 * hash) + getSnapshotId();
+            hash = (37 * hash) + TRACE_MARKERS_FIELD_NUMBER;
+            hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+                    getTraceMarkers());
             hash = (29 * hash) + unknownFields.hashCode();
             memoizedHashCode = hash;
             return hash;
@@ -2730,6 +3078,7 @@ public final class Bank {
                 // @@protoc_insertion_point(builder_implements:InitSnapshot)
                 InitSnapshotOrBuilder {
             private int snapshotId_;
+            private boolean traceMarkers_;
 
             // Construct using Bank.InitSnapshot.newBuilder()
             private Builder() {
@@ -2764,6 +3113,8 @@ public final class Bank {
                 super.clear();
                 snapshotId_ = 0;
 
+                traceMarkers_ = false;
+
                 return this;
             }
 
@@ -2787,6 +3138,7 @@ public final class Bank {
             public InitSnapshot buildPartial() {
                 InitSnapshot result = new InitSnapshot(this);
                 result.snapshotId_ = snapshotId_;
+                result.traceMarkers_ = traceMarkers_;
                 onBuilt();
                 return result;
             }
@@ -2837,6 +3189,9 @@ public final class Bank {
                 if (other.getSnapshotId() != 0) {
                     setSnapshotId(other.getSnapshotId());
                 }
+                if (other.getTraceMarkers() != false) {
+                    setTraceMarkers(other.getTraceMarkers());
+                }
                 this.mergeUnknownFields(other.unknownFields);
                 onChanged();
                 return this;
@@ -2891,6 +3246,33 @@ public final class Bank {
                 return this;
             }
 
+            /**
+             * <code>bool trace_markers = 2;</code>
+             */
+            public boolean getTraceMarkers() {
+                return traceMarkers_;
+            }
+
+            /**
+             * <code>bool trace_markers = 2;</code>
+             */
+            public Builder setTraceMarkers(boolean value) {
+
+                traceMarkers_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>bool trace_markers = 2;</code>
+             */
+            public Builder clearTraceMarkers() {
+
+                traceMarkers_ = false;
+                onChanged();
+                return this;
+            }
+
             public final Builder setUnknownFields(
                     final com.google.protobuf.UnknownFieldSet unknownFields) {
                 return super.setUnknownFieldsProto3(unknownFields);
@@ -2915,6 +3297,10 @@ public final class Bank {
             // @@protoc_insertion_point(message_implements:Marker)
             MarkerOrBuilder {
         public static final int SNAPSHOT_ID_FIELD_NUMBER = 1;
+        public static final int TO_PARENT_FIELD_NUMBER = 2;
+        public static final int INITIATOR_FIELD_NUMBER = 3;
+        public static final int HOPS_FIELD_NUMBER = 4;
+        public static final int SENT_NANOS_FIELD_NUMBER = 5;
         private static final long serialVersionUID = 0L;
         // @@protoc_insertion_point(class_scope:Marker)
         private static final Marker DEFAULT_INSTANCE;
@@ -2933,6 +3319,10 @@ public final class Bank {
         }
 
         private int snapshotId_;
+        private boolean toParent_;
+        private int initiator_;
+        private int hops_;
+        private long sentNanos_;
         private byte memoizedIsInitialized = -1;
 
         // Use Marker.newBuilder() to construct.
@@ -2942,6 +3332,10 @@ public final class Bank {
 
         private Marker() {
             snapshotId_ = 0;
+            toParent_ = false;
+            initiator_ = 0;
+            hops_ = 0;
+            sentNanos_ = 0L;
         }
 
         private Marker(
@@ -2972,6 +3366,26 @@ public final class Bank {
                             snapshotId_ = input.readUInt32();
                             break;
                         }
+                        case 16: {
+
+                            toParent_ = input.readBool();
+                            break;
+                        }
+                        case 24: {
+
+                            initiator_ = input.readUInt32();
+                            break;
+                        }
+                        case 32: {
+
+                            hops_ = input.readUInt32();
+                            break;
+                        }
+                        case 40: {
+
+                            sentNanos_ = input.readUInt64();
+                            break;
+                        }
                     }
                 }
             } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -3107,6 +3521,34 @@ public final class Bank {
             return snapshotId_;
         }
 
+        /**
+         * <code>bool to_parent = 2;</code>
+         */
+        public boolean getToParent() {
+            return toParent_;
+        }
+
+        /**
+         * <code>uint32 initiator = 3;</code>
+         */
+        public int getInitiator() {
+            return initiator_;
+        }
+
+        /**
+         * <code>uint32 hops = 4;</code>
+         */
+        public int getHops() {
+            return hops_;
+        }
+
+        /**
+         * <code>uint64 sent_nanos = 5;</code>
+         */
+        public long getSentNanos() {
+            return sentNanos_;
+        }
+
         public final boolean isInitialized() {
             byte isInitialized = memoizedIsInitialized;
             if (isInitialized == 1) return true;
@@ -3121,6 +3563,18 @@ public final class Bank {
             if (snapshotId_ != 0) {
                 output.writeUInt32(1, snapshotId_);
             }
+            if (toParent_ != false) {
+                output.writeBool(2, toParent_);
+            }
+            if (initiator_ != 0) {
+                output.writeUInt32(3, initiator_);
+            }
+            if (hops_ != 0) {
+                output.writeUInt32(4, hops_);
+            }
+            if (sentNanos_ != 0L) {
+                output.writeUInt64(5, sentNanos_);
+            }
             unknownFields.writeTo(output);
         }
 
@@ -3133,6 +3587,22 @@ public final class Bank {
                 size += com.google.protobuf.CodedOutputStream
                         .computeUInt32Size(1, snapshotId_);
             }
+            if (toParent_ != false) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeBoolSize(2, toParent_);
+            }
+            if (initiator_ != 0) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeUInt32Size(3, initiator_);
+            }
+            if (hops_ != 0) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeUInt32Size(4, hops_);
+            }
+            if (sentNanos_ != 0L) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeUInt64Size(5, sentNanos_);
+            }
             size += unknownFields.getSerializedSize();
             memoizedSize = size;
             return size;
@@ -3151,6 +3621,14 @@ public final class Bank {
             boolean result = true;
             result = result && (getSnapshotId()
                     == other.getSnapshotId());
+            result = result && (getToParent()
+                    == other.getToParent());
+            result = result && (getInitiator()
+                    == other.getInitiator());
+            result = result && (getHops()
+                    == other.getHops());
+            result = result && (getSentNanos()
+                    == other.getSentNanos());
             result = result && unknownFields.equals(other.unknownFields);
             return result;
         }
@@ -3164,6 +3642,16 @@ public final class Bank {
             hash = (19 * hash) + getDescriptor().hashCode();
             hash = (37 * hash) + SNAPSHOT_ID_FIELD_NUMBER;
             hash = (53 * hash) + getSnapshotId();
+            hash = (37 * hash) + TO_PARENT_FIELD_NUMBER;
+            hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+                    getToParent());
+            hash = (37 * hash) + INITIATOR_FIELD_NUMBER;
+            hash = (53 * hash) + getInitiator();
+            hash = (37 * hash) + HOPS_FIELD_NUMBER;
+            hash = (53 * hash) + getHops();
+            hash = (37 * hash) + SENT_NANOS_FIELD_NUMBER;
+            hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+                    getSentNanos());
             hash = (29 * hash) + unknownFields.hashCode();
             memoizedHashCode = hash;
             return hash;
@@ -3202,6 +3690,10 @@ public final class Bank {
                 // @@protoc_insertion_point(builder_implements:Marker)
                 MarkerOrBuilder {
             private int snapshotId_;
+            private boolean toParent_;
+            private int initiator_;
+            private int hops_;
+            private long sentNanos_;
 
             // Construct using Bank.Marker.newBuilder()
             private Builder() {
@@ -3236,6 +3728,14 @@ public final class Bank {
                 super.clear();
                 snapshotId_ = 0;
 
+                toParent_ = false;
+
+                initiator_ = 0;
+
+                hops_ = 0;
+
+                sentNanos_ = 0L;
+
                 return this;
             }
 
@@ -3259,6 +3759,10 @@ public final class Bank {
             public Marker buildPartial() {
                 Marker result = new Marker(this);
                 result.snapshotId_ = snapshotId_;
+                result.toParent_ = toParent_;
+                result.initiator_ = initiator_;
+                result.hops_ = hops_;
+                result.sentNanos_ = sentNanos_;
                 onBuilt();
                 return result;
             }
@@ -3309,6 +3813,18 @@ public final class Bank {
                 if (other.getSnapshotId() != 0) {
                     setSnapshotId(other.getSnapshotId());
                 }
+                if (other.getToParent() != false) {
+                    setToParent(other.getToParent());
+                }
+                if (other.getInitiator() != 0) {
+                    setInitiator(other.getInitiator());
+                }
+                if (other.getHops() != 0) {
+                    setHops(other.getHops());
+                }
+                if (other.getSentNanos() != 0L) {
+                    setSentNanos(other.getSentNanos());
+                }
                 this.mergeUnknownFields(other.unknownFields);
                 onChanged();
                 return this;
@@ -3363,14 +3879,122 @@ public final class Bank {
                 return this;
             }
 
-            public final Builder setUnknownFields(
-                    final com.google.protobuf.UnknownFieldSet unknownFields) {
-                return super.setUnknownFieldsProto3(unknownFields);
+            /**
+             * <code>bool to_parent = 2;</code>
+             */
+            public boolean getToParent() {
+                return toParent_;
             }
 
-            public final Builder mergeUnknownFields(
-                    final com.google.protobuf.UnknownFieldSet unknownFields) {
-                return super.mergeUnknownFields(unknownFields);
+            /**
+             * <code>bool to_parent = 2;</code>
+             */
+            public Builder setToParent(boolean value) {
+
+                toParent_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>bool to_parent = 2;</code>
+             */
+            public Builder clearToParent() {
+
+                toParent_ = false;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint32 initiator = 3;</code>
+             */
+            public int getInitiator() {
+                return initiator_;
+            }
+
+            /**
+             * <code>uint32 initiator = 3;</code>
+             */
+            public Builder setInitiator(int value) {
+
+                initiator_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint32 initiator = 3;</code>
+             */
+            public Builder clearInitiator() {
+
+                initiator_ = 0;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint32 hops = 4;</code>
+             */
+            public int getHops() {
+                return hops_;
+            }
+
+            /**
+             * <code>uint32 hops = 4;</code>
+             */
+            public Builder setHops(int value) {
+
+                hops_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint32 hops = 4;</code>
+             */
+            public Builder clearHops() {
+
+                hops_ = 0;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint64 sent_nanos = 5;</code>
+             */
+            public long getSentNanos() {
+                return sentNanos_;
+            }
+
+            /**
+             * <code>uint64 sent_nanos = 5;</code>
+             */
+            public Builder setSentNanos(long value) {
+
+                sentNanos_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint64 sent_nanos = 5;</code>
+             */
+            public Builder clearSentNanos() {
+
+                sentNanos_ = 0L;
+                onChanged();
+                return this;
+            }
+
+            public final Builder setUnknownFields(
+                    final com.google.protobuf.UnknownFieldSet unknownFields) {
+                return super.setUnknownFieldsProto3(unknownFields);
+            }
+
+            public final Builder mergeUnknownFields(
+                    final com.google.protobuf.UnknownFieldSet unknownFields) {
+                return super.mergeUnknownFields(unknownFields);
             }
 
 
@@ -3859,6 +4483,9 @@ public final class Bank {
             // @@protoc_insertion_point(message_implements:ReturnSnapshot)
             ReturnSnapshotOrBuilder {
         public static final int LOCAL_SNAPSHOT_FIELD_NUMBER = 1;
+        public static final int SUBTREE_FIELD_NUMBER = 2;
+        public static final int SUBTREE_SUM_FIELD_NUMBER = 3;
+        public static final int SUBTREE_BRANCHES_FIELD_NUMBER = 4;
         private static final long serialVersionUID = 0L;
         // @@protoc_insertion_point(class_scope:ReturnSnapshot)
         private static final ReturnSnapshot DEFAULT_INSTANCE;
@@ -3876,7 +4503,11 @@ public final class Bank {
             DEFAULT_INSTANCE = new ReturnSnapshot();
         }
 
+        private int bitField0_;
         private LocalSnapshot localSnapshot_;
+        private java.util.List<LocalSnapshot> subtree_;
+        private long subtreeSum_;
+        private int subtreeBranches_;
         private byte memoizedIsInitialized = -1;
 
         // Use ReturnSnapshot.newBuilder() to construct.
@@ -3885,6 +4516,9 @@ public final class Bank {
         }
 
         private ReturnSnapshot() {
+            subtree_ = java.util.Collections.emptyList();
+            subtreeSum_ = 0L;
+            subtreeBranches_ = 0;
         }
 
         private ReturnSnapshot(
@@ -3923,6 +4557,25 @@ public final class Bank {
 
                             break;
                         }
+                        case 18: {
+                            if (!((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+                                subtree_ = new java.util.ArrayList<LocalSnapshot>();
+                                mutable_bitField0_ |= 0x00000002;
+                            }
+                            subtree_.add(
+                                    input.readMessage(LocalSnapshot.parser(), extensionRegistry));
+                            break;
+                        }
+                        case 24: {
+
+                            subtreeSum_ = input.readUInt64();
+                            break;
+                        }
+                        case 32: {
+
+                            subtreeBranches_ = input.readUInt32();
+                            break;
+                        }
                     }
                 }
             } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -3931,6 +4584,9 @@ public final class Bank {
                 throw new com.google.protobuf.InvalidProtocolBufferException(
                         e).setUnfinishedMessage(this);
             } finally {
+                if (((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+                    subtree_ = java.util.Collections.unmodifiableList(subtree_);
+                }
                 this.unknownFields = unknownFields.build();
                 makeExtensionsImmutable();
             }
@@ -4072,6 +4728,57 @@ public final class Bank {
             return getLocalSnapshot();
         }
 
+        /**
+         * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+         */
+        public java.util.List<LocalSnapshot> getSubtreeList() {
+            return subtree_;
+        }
+
+        /**
+         * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+         */
+        public java.util.List<? extends LocalSnapshotOrBuilder>
+        getSubtreeOrBuilderList() {
+            return subtree_;
+        }
+
+        /**
+         * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+         */
+        public int getSubtreeCount() {
+            return subtree_.size();
+        }
+
+        /**
+         * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+         */
+        public LocalSnapshot getSubtree(int index) {
+            return subtree_.get(index);
+        }
+
+        /**
+         * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+         */
+        public LocalSnapshotOrBuilder getSubtreeOrBuilder(
+                int index) {
+            return subtree_.get(index);
+        }
+
+        /**
+         * <code>uint64 subtree_sum = 3;</code>
+         */
+        public long getSubtreeSum() {
+            return subtreeSum_;
+        }
+
+        /**
+         * <code>uint32 subtree_branches = 4;</code>
+         */
+        public int getSubtreeBranches() {
+            return subtreeBranches_;
+        }
+
         public final boolean isInitialized() {
             byte isInitialized = memoizedIsInitialized;
             if (isInitialized == 1) return true;
@@ -4086,6 +4793,15 @@ public final class Bank {
             if (localSnapshot_ != null) {
                 output.writeMessage(1, getLocalSnapshot());
             }
+            for (int i = 0; i < subtree_.size(); i++) {
+                output.writeMessage(2, subtree_.get(i));
+            }
+            if (subtreeSum_ != 0L) {
+                output.writeUInt64(3, subtreeSum_);
+            }
+            if (subtreeBranches_ != 0) {
+                output.writeUInt32(4, subtreeBranches_);
+            }
             unknownFields.writeTo(output);
         }
 
@@ -4098,6 +4814,18 @@ public final class Bank {
                 size += com.google.protobuf.CodedOutputStream
                         .computeMessageSize(1, getLocalSnapshot());
             }
+            for (int i = 0; i < subtree_.size(); i++) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeMessageSize(2, subtree_.get(i));
+            }
+            if (subtreeSum_ != 0L) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeUInt64Size(3, subtreeSum_);
+            }
+            if (subtreeBranches_ != 0) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeUInt32Size(4, subtreeBranches_);
+            }
             size += unknownFields.getSerializedSize();
             memoizedSize = size;
             return size;
@@ -4119,6 +4847,12 @@ public final class Bank {
                 result = result && getLocalSnapshot()
                         .equals(other.getLocalSnapshot());
             }
+            result = result && getSubtreeList()
+                    .equals(other.getSubtreeList());
+            result = result && (getSubtreeSum()
+                    == other.getSubtreeSum());
+            result = result && (getSubtreeBranches()
+                    == other.getSubtreeBranches());
             result = result && unknownFields.equals(other.unknownFields);
             return result;
         }
@@ -4134,6 +4868,15 @@ public final class Bank {
                 hash = (37 * hash) + LOCAL_SNAPSHOT_FIELD_NUMBER;
                 hash = (53 * hash) + getLocalSnapshot().hashCode();
             }
+            if (getSubtreeCount() > 0) {
+                hash = (37 * hash) + SUBTREE_FIELD_NUMBER;
+                hash = (53 * hash) + getSubtreeList().hashCode();
+            }
+            hash = (37 * hash) + SUBTREE_SUM_FIELD_NUMBER;
+            hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+                    getSubtreeSum());
+            hash = (37 * hash) + SUBTREE_BRANCHES_FIELD_NUMBER;
+            hash = (53 * hash) + getSubtreeBranches();
             hash = (29 * hash) + unknownFields.hashCode();
             memoizedHashCode = hash;
             return hash;
@@ -4192,6 +4935,31 @@ public final class Bank {
              * <code>repeated uint32 channel_state = 3;</code>
              */
             int getChannelState(int index);
+
+            /**
+             * <code>uint32 branch_index = 4;</code>
+             */
+            int getBranchIndex();
+
+            /**
+             * <code>uint64 partial_sum = 5;</code>
+             */
+            long getPartialSum();
+
+            /**
+             * <code>repeated uint64 marker_hops = 6;</code>
+             */
+            java.util.List<Long> getMarkerHopsList();
+
+            /**
+             * <code>repeated uint64 marker_hops = 6;</code>
+             */
+            int getMarkerHopsCount();
+
+            /**
+             * <code>repeated uint64 marker_hops = 6;</code>
+             */
+            long getMarkerHops(int index);
         }
 
         /**
@@ -4204,6 +4972,9 @@ public final class Bank {
             public static final int SNAPSHOT_ID_FIELD_NUMBER = 1;
             public static final int BALANCE_FIELD_NUMBER = 2;
             public static final int CHANNEL_STATE_FIELD_NUMBER = 3;
+            public static final int BRANCH_INDEX_FIELD_NUMBER = 4;
+            public static final int PARTIAL_SUM_FIELD_NUMBER = 5;
+            public static final int MARKER_HOPS_FIELD_NUMBER = 6;
             private static final long serialVersionUID = 0L;
             // @@protoc_insertion_point(class_scope:ReturnSnapshot.LocalSnapshot)
             private static final LocalSnapshot DEFAULT_INSTANCE;
@@ -4226,6 +4997,10 @@ public final class Bank {
             private int balance_;
             private java.util.List<Integer> channelState_;
             private int channelStateMemoizedSerializedSize = -1;
+            private int branchIndex_;
+            private long partialSum_;
+            private java.util.List<Long> markerHops_;
+            private int markerHopsMemoizedSerializedSize = -1;
             private byte memoizedIsInitialized = -1;
 
             // Use LocalSnapshot.newBuilder() to construct.
@@ -4237,6 +5012,9 @@ public final class Bank {
                 snapshotId_ = 0;
                 balance_ = 0;
                 channelState_ = java.util.Collections.emptyList();
+                branchIndex_ = 0;
+                partialSum_ = 0L;
+                markerHops_ = java.util.Collections.emptyList();
             }
 
             private LocalSnapshot(
@@ -4293,6 +5071,37 @@ public final class Bank {
                                 input.popLimit(limit);
                                 break;
                             }
+                            case 32: {
+
+                                branchIndex_ = input.readUInt32();
+                                break;
+                            }
+                            case 40: {
+
+                                partialSum_ = input.readUInt64();
+                                break;
+                            }
+                            case 48: {
+                                if (!((mutable_bitField0_ & 0x00000020) == 0x00000020)) {
+                                    markerHops_ = new java.util.ArrayList<Long>();
+                                    mutable_bitField0_ |= 0x00000020;
+                                }
+                                markerHops_.add(input.readUInt64());
+                                break;
+                            }
+                            case 50: {
+                                int length = input.readRawVarint32();
+                                int limit = input.pushLimit(length);
+                                if (!((mutable_bitField0_ & 0x00000020) == 0x00000020) && input.getBytesUntilLimit() > 0) {
+                                    markerHops_ = new java.util.ArrayList<Long>();
+                                    mutable_bitField0_ |= 0x00000020;
+                                }
+                                while (input.getBytesUntilLimit() > 0) {
+                                    markerHops_.add(input.readUInt64());
+                                }
+                                input.popLimit(limit);
+                                break;
+                            }
                         }
                     }
                 } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -4304,6 +5113,9 @@ public final class Bank {
                     if (((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
                         channelState_ = java.util.Collections.unmodifiableList(channelState_);
                     }
+                    if (((mutable_bitField0_ & 0x00000020) == 0x00000020)) {
+                        markerHops_ = java.util.Collections.unmodifiableList(markerHops_);
+                    }
                     this.unknownFields = unknownFields.build();
                     makeExtensionsImmutable();
                 }
@@ -4460,6 +5272,42 @@ public final class Bank {
                 return channelState_.get(index);
             }
 
+            /**
+             * <code>uint32 branch_index = 4;</code>
+             */
+            public int getBranchIndex() {
+                return branchIndex_;
+            }
+
+            /**
+             * <code>uint64 partial_sum = 5;</code>
+             */
+            public long getPartialSum() {
+                return partialSum_;
+            }
+
+            /**
+             * <code>repeated uint64 marker_hops = 6;</code>
+             */
+            public java.util.List<Long>
+            getMarkerHopsList() {
+                return markerHops_;
+            }
+
+            /**
+             * <code>repeated uint64 marker_hops = 6;</code>
+             */
+            public int getMarkerHopsCount() {
+                return markerHops_.size();
+            }
+
+            /**
+             * <code>repeated uint64 marker_hops = 6;</code>
+             */
+            public long getMarkerHops(int index) {
+                return markerHops_.get(index);
+            }
+
             public final boolean isInitialized() {
                 byte isInitialized = memoizedIsInitialized;
                 if (isInitialized == 1) return true;
@@ -4485,6 +5333,19 @@ public final class Bank {
                 for (int i = 0; i < channelState_.size(); i++) {
                     output.writeUInt32NoTag(channelState_.get(i));
                 }
+                if (branchIndex_ != 0) {
+                    output.writeUInt32(4, branchIndex_);
+                }
+                if (partialSum_ != 0L) {
+                    output.writeUInt64(5, partialSum_);
+                }
+                if (getMarkerHopsList().size() > 0) {
+                    output.writeUInt32NoTag(50);
+                    output.writeUInt32NoTag(markerHopsMemoizedSerializedSize);
+                }
+                for (int i = 0; i < markerHops_.size(); i++) {
+                    output.writeUInt64NoTag(markerHops_.get(i));
+                }
                 unknownFields.writeTo(output);
             }
 
@@ -4515,6 +5376,28 @@ public final class Bank {
                     }
                     channelStateMemoizedSerializedSize = dataSize;
                 }
+                if (branchIndex_ != 0) {
+                    size += com.google.protobuf.CodedOutputStream
+                            .computeUInt32Size(4, branchIndex_);
+                }
+                if (partialSum_ != 0L) {
+                    size += com.google.protobuf.CodedOutputStream
+                            .computeUInt64Size(5, partialSum_);
+                }
+                {
+                    int dataSize = 0;
+                    for (int i = 0; i < markerHops_.size(); i++) {
+                        dataSize += com.google.protobuf.CodedOutputStream
+                                .computeUInt64SizeNoTag(markerHops_.get(i));
+                    }
+                    size += dataSize;
+                    if (!getMarkerHopsList().isEmpty()) {
+                        size += 1;
+                        size += com.google.protobuf.CodedOutputStream
+                                .computeInt32SizeNoTag(dataSize);
+                    }
+                    markerHopsMemoizedSerializedSize = dataSize;
+                }
                 size += unknownFields.getSerializedSize();
                 memoizedSize = size;
                 return size;
@@ -4537,6 +5420,12 @@ public final class Bank {
                         == other.getBalance());
                 result = result && getChannelStateList()
                         .equals(other.getChannelStateList());
+                result = result && (getBranchIndex()
+                        == other.getBranchIndex());
+                result = result && (getPartialSum()
+                        == other.getPartialSum());
+                result = result && getMarkerHopsList()
+                        .equals(other.getMarkerHopsList());
                 result = result && unknownFields.equals(other.unknownFields);
                 return result;
             }
@@ -4556,6 +5445,15 @@ public final class Bank {
                     hash = (37 * hash) + CHANNEL_STATE_FIELD_NUMBER;
                     hash = (53 * hash) + getChannelStateList().hashCode();
                 }
+                hash = (37 * hash) + BRANCH_INDEX_FIELD_NUMBER;
+                hash = (53 * hash) + getBranchIndex();
+                hash = (37 * hash) + PARTIAL_SUM_FIELD_NUMBER;
+                hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+                        getPartialSum());
+                if (getMarkerHopsCount() > 0) {
+                    hash = (37 * hash) + MARKER_HOPS_FIELD_NUMBER;
+                    hash = (53 * hash) + getMarkerHopsList().hashCode();
+                }
                 hash = (29 * hash) + unknownFields.hashCode();
                 memoizedHashCode = hash;
                 return hash;
@@ -4597,6 +5495,9 @@ public final class Bank {
                 private int snapshotId_;
                 private int balance_;
                 private java.util.List<Integer> channelState_ = java.util.Collections.emptyList();
+                private int branchIndex_;
+                private long partialSum_;
+                private java.util.List<Long> markerHops_ = java.util.Collections.emptyList();
 
                 // Construct using Bank.ReturnSnapshot.LocalSnapshot.newBuilder()
                 private Builder() {
@@ -4635,6 +5536,12 @@ public final class Bank {
 
                     channelState_ = java.util.Collections.emptyList();
                     bitField0_ = (bitField0_ & ~0x00000004);
+                    branchIndex_ = 0;
+
+                    partialSum_ = 0L;
+
+                    markerHops_ = java.util.Collections.emptyList();
+                    bitField0_ = (bitField0_ & ~0x00000020);
                     return this;
                 }
 
@@ -4667,6 +5574,13 @@ public final class Bank {
                     }
                     result.channelState_ = channelState_;
                     result.bitField0_ = to_bitField0_;
+                    result.branchIndex_ = branchIndex_;
+                    result.partialSum_ = partialSum_;
+                    if (((bitField0_ & 0x00000020) == 0x00000020)) {
+                        markerHops_ = java.util.Collections.unmodifiableList(markerHops_);
+                        bitField0_ = (bitField0_ & ~0x00000020);
+                    }
+                    result.markerHops_ = markerHops_;
                     onBuilt();
                     return result;
                 }
@@ -4730,6 +5644,22 @@ public final class Bank {
                         }
                         onChanged();
                     }
+                    if (other.getBranchIndex() != 0) {
+                        setBranchIndex(other.getBranchIndex());
+                    }
+                    if (other.getPartialSum() != 0L) {
+                        setPartialSum(other.getPartialSum());
+                    }
+                    if (!other.markerHops_.isEmpty()) {
+                        if (markerHops_.isEmpty()) {
+                            markerHops_ = other.markerHops_;
+                            bitField0_ = (bitField0_ & ~0x00000020);
+                        } else {
+                            ensureMarkerHopsIsMutable();
+                            markerHops_.addAll(other.markerHops_);
+                        }
+                        onChanged();
+                    }
                     this.mergeUnknownFields(other.unknownFields);
                     onChanged();
                     return this;
@@ -4883,40 +5813,173 @@ public final class Bank {
                     return this;
                 }
 
-                public final Builder setUnknownFields(
-                        final com.google.protobuf.UnknownFieldSet unknownFields) {
-                    return super.setUnknownFieldsProto3(unknownFields);
+                /**
+                 * <code>uint32 branch_index = 4;</code>
+                 */
+                public int getBranchIndex() {
+                    return branchIndex_;
                 }
 
-                public final Builder mergeUnknownFields(
-                        final com.google.protobuf.UnknownFieldSet unknownFields) {
-                    return super.mergeUnknownFields(unknownFields);
+                /**
+                 * <code>uint32 branch_index = 4;</code>
+                 */
+                public Builder setBranchIndex(int value) {
+
+                    branchIndex_ = value;
+                    onChanged();
+                    return this;
                 }
 
+                /**
+                 * <code>uint32 branch_index = 4;</code>
+                 */
+                public Builder clearBranchIndex() {
 
-                // @@protoc_insertion_point(builder_scope:ReturnSnapshot.LocalSnapshot)
-            }
+                    branchIndex_ = 0;
+                    onChanged();
+                    return this;
+                }
 
-        }
+                /**
+                 * <code>uint64 partial_sum = 5;</code>
+                 */
+                public long getPartialSum() {
+                    return partialSum_;
+                }
 
-        /**
-         * Protobuf type {@code ReturnSnapshot}
-         */
-        public static final class Builder extends
-                com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
-                // @@protoc_insertion_point(builder_implements:ReturnSnapshot)
-                ReturnSnapshotOrBuilder {
-            private LocalSnapshot localSnapshot_ = null;
-            private com.google.protobuf.SingleFieldBuilderV3<
-                    LocalSnapshot, LocalSnapshot.Builder, LocalSnapshotOrBuilder> localSnapshotBuilder_;
+                /**
+                 * <code>uint64 partial_sum = 5;</code>
+                 */
+                public Builder setPartialSum(long value) {
 
-            // Construct using Bank.ReturnSnapshot.newBuilder()
-            private Builder() {
-                maybeForceBuilderInitialization();
-            }
+                    partialSum_ = value;
+                    onChanged();
+                    return this;
+                }
 
-            private Builder(
-                    com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+                /**
+                 * <code>uint64 partial_sum = 5;</code>
+                 */
+                public Builder clearPartialSum() {
+
+                    partialSum_ = 0L;
+                    onChanged();
+                    return this;
+                }
+
+                private void ensureMarkerHopsIsMutable() {
+                    if (!((bitField0_ & 0x00000020) == 0x00000020)) {
+                        markerHops_ = new java.util.ArrayList<Long>(markerHops_);
+                        bitField0_ |= 0x00000020;
+                    }
+                }
+
+                /**
+                 * <code>repeated uint64 marker_hops = 6;</code>
+                 */
+                public java.util.List<Long>
+                getMarkerHopsList() {
+                    return java.util.Collections.unmodifiableList(markerHops_);
+                }
+
+                /**
+                 * <code>repeated uint64 marker_hops = 6;</code>
+                 */
+                public int getMarkerHopsCount() {
+                    return markerHops_.size();
+                }
+
+                /**
+                 * <code>repeated uint64 marker_hops = 6;</code>
+                 */
+                public long getMarkerHops(int index) {
+                    return markerHops_.get(index);
+                }
+
+                /**
+                 * <code>repeated uint64 marker_hops = 6;</code>
+                 */
+                public Builder setMarkerHops(
+                        int index, long value) {
+                    ensureMarkerHopsIsMutable();
+                    markerHops_.set(index, value);
+                    onChanged();
+                    return this;
+                }
+
+                /**
+                 * <code>repeated uint64 marker_hops = 6;</code>
+                 */
+                public Builder addMarkerHops(long value) {
+                    ensureMarkerHopsIsMutable();
+                    markerHops_.add(value);
+                    onChanged();
+                    return this;
+                }
+
+                /**
+                 * <code>repeated uint64 marker_hops = 6;</code>
+                 */
+                public Builder addAllMarkerHops(
+                        Iterable<? extends Long> values) {
+                    ensureMarkerHopsIsMutable();
+                    com.google.protobuf.AbstractMessageLite.Builder.addAll(
+                            values, markerHops_);
+                    onChanged();
+                    return this;
+                }
+
+                /**
+                 * <code>repeated uint64 marker_hops = 6;</code>
+                 */
+                public Builder clearMarkerHops() {
+                    markerHops_ = java.util.Collections.emptyList();
+                    bitField0_ = (bitField0_ & ~0x00000020);
+                    onChanged();
+                    return this;
+                }
+
+                public final Builder setUnknownFields(
+                        final com.google.protobuf.UnknownFieldSet unknownFields) {
+                    return super.setUnknownFieldsProto3(unknownFields);
+                }
+
+                public final Builder mergeUnknownFields(
+                        final com.google.protobuf.UnknownFieldSet unknownFields) {
+                    return super.mergeUnknownFields(unknownFields);
+                }
+
+
+                // @@protoc_insertion_point(builder_scope:ReturnSnapshot.LocalSnapshot)
+            }
+
+        }
+
+        /**
+         * Protobuf type {@code ReturnSnapshot}
+         */
+        public static final class Builder extends
+                com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+                // @@protoc_insertion_point(builder_implements:ReturnSnapshot)
+                ReturnSnapshotOrBuilder {
+            private int bitField0_;
+            private LocalSnapshot localSnapshot_ = null;
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    LocalSnapshot, LocalSnapshot.Builder, LocalSnapshotOrBuilder> localSnapshotBuilder_;
+            private java.util.List<LocalSnapshot> subtree_ =
+                    java.util.Collections.emptyList();
+            private com.google.protobuf.RepeatedFieldBuilderV3<
+                    LocalSnapshot, LocalSnapshot.Builder, LocalSnapshotOrBuilder> subtreeBuilder_;
+            private long subtreeSum_;
+            private int subtreeBranches_;
+
+            // Construct using Bank.ReturnSnapshot.newBuilder()
+            private Builder() {
+                maybeForceBuilderInitialization();
+            }
+
+            private Builder(
+                    com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
                 super(parent);
                 maybeForceBuilderInitialization();
             }
@@ -4936,6 +5999,7 @@ public final class Bank {
             private void maybeForceBuilderInitialization() {
                 if (com.google.protobuf.GeneratedMessageV3
                         .alwaysUseFieldBuilders) {
+                    getSubtreeFieldBuilder();
                 }
             }
 
@@ -4947,6 +6011,16 @@ public final class Bank {
                     localSnapshot_ = null;
                     localSnapshotBuilder_ = null;
                 }
+                if (subtreeBuilder_ == null) {
+                    subtree_ = java.util.Collections.emptyList();
+                    bitField0_ = (bitField0_ & ~0x00000002);
+                } else {
+                    subtreeBuilder_.clear();
+                }
+                subtreeSum_ = 0L;
+
+                subtreeBranches_ = 0;
+
                 return this;
             }
 
@@ -4969,11 +6043,25 @@ public final class Bank {
 
             public ReturnSnapshot buildPartial() {
                 ReturnSnapshot result = new ReturnSnapshot(this);
+                int from_bitField0_ = bitField0_;
+                int to_bitField0_ = 0;
                 if (localSnapshotBuilder_ == null) {
                     result.localSnapshot_ = localSnapshot_;
                 } else {
                     result.localSnapshot_ = localSnapshotBuilder_.build();
                 }
+                if (subtreeBuilder_ == null) {
+                    if (((bitField0_ & 0x00000002) == 0x00000002)) {
+                        subtree_ = java.util.Collections.unmodifiableList(subtree_);
+                        bitField0_ = (bitField0_ & ~0x00000002);
+                    }
+                    result.subtree_ = subtree_;
+                } else {
+                    result.subtree_ = subtreeBuilder_.build();
+                }
+                result.bitField0_ = to_bitField0_;
+                result.subtreeSum_ = subtreeSum_;
+                result.subtreeBranches_ = subtreeBranches_;
                 onBuilt();
                 return result;
             }
@@ -5024,6 +6112,38 @@ public final class Bank {
                 if (other.hasLocalSnapshot()) {
                     mergeLocalSnapshot(other.getLocalSnapshot());
                 }
+                if (subtreeBuilder_ == null) {
+                    if (!other.subtree_.isEmpty()) {
+                        if (subtree_.isEmpty()) {
+                            subtree_ = other.subtree_;
+                            bitField0_ = (bitField0_ & ~0x00000002);
+                        } else {
+                            ensureSubtreeIsMutable();
+                            subtree_.addAll(other.subtree_);
+                        }
+                        onChanged();
+                    }
+                } else {
+                    if (!other.subtree_.isEmpty()) {
+                        if (subtreeBuilder_.isEmpty()) {
+                            subtreeBuilder_.dispose();
+                            subtreeBuilder_ = null;
+                            subtree_ = other.subtree_;
+                            bitField0_ = (bitField0_ & ~0x00000002);
+                            subtreeBuilder_ =
+                                    com.google.protobuf.GeneratedMessageV3.alwaysUseFieldBuilders ?
+                                            getSubtreeFieldBuilder() : null;
+                        } else {
+                            subtreeBuilder_.addAllMessages(other.subtree_);
+                        }
+                    }
+                }
+                if (other.getSubtreeSum() != 0L) {
+                    setSubtreeSum(other.getSubtreeSum());
+                }
+                if (other.getSubtreeBranches() != 0) {
+                    setSubtreeBranches(other.getSubtreeBranches());
+                }
                 this.mergeUnknownFields(other.unknownFields);
                 onChanged();
                 return this;
@@ -5173,171 +6293,393 @@ public final class Bank {
                 return localSnapshotBuilder_;
             }
 
-            public final Builder setUnknownFields(
-                    final com.google.protobuf.UnknownFieldSet unknownFields) {
-                return super.setUnknownFieldsProto3(unknownFields);
+            private void ensureSubtreeIsMutable() {
+                if (!((bitField0_ & 0x00000002) == 0x00000002)) {
+                    subtree_ = new java.util.ArrayList<LocalSnapshot>(subtree_);
+                    bitField0_ |= 0x00000002;
+                }
             }
 
-            public final Builder mergeUnknownFields(
-                    final com.google.protobuf.UnknownFieldSet unknownFields) {
-                return super.mergeUnknownFields(unknownFields);
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public java.util.List<LocalSnapshot> getSubtreeList() {
+                if (subtreeBuilder_ == null) {
+                    return java.util.Collections.unmodifiableList(subtree_);
+                } else {
+                    return subtreeBuilder_.getMessageList();
+                }
             }
 
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public int getSubtreeCount() {
+                if (subtreeBuilder_ == null) {
+                    return subtree_.size();
+                } else {
+                    return subtreeBuilder_.getCount();
+                }
+            }
 
-            // @@protoc_insertion_point(builder_scope:ReturnSnapshot)
-        }
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public LocalSnapshot getSubtree(int index) {
+                if (subtreeBuilder_ == null) {
+                    return subtree_.get(index);
+                } else {
+                    return subtreeBuilder_.getMessage(index);
+                }
+            }
 
-    }
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public Builder setSubtree(
+                    int index, LocalSnapshot value) {
+                if (subtreeBuilder_ == null) {
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    ensureSubtreeIsMutable();
+                    subtree_.set(index, value);
+                    onChanged();
+                } else {
+                    subtreeBuilder_.setMessage(index, value);
+                }
+                return this;
+            }
 
-    /**
-     * Protobuf type {@code BranchMessage}
-     */
-    public static final class BranchMessage extends
-            com.google.protobuf.GeneratedMessageV3 implements
-            // @@protoc_insertion_point(message_implements:BranchMessage)
-            BranchMessageOrBuilder {
-        public static final int INIT_BRANCH_FIELD_NUMBER = 1;
-        public static final int TRANSFER_FIELD_NUMBER = 2;
-        public static final int INIT_SNAPSHOT_FIELD_NUMBER = 3;
-        public static final int MARKER_FIELD_NUMBER = 4;
-        public static final int RETRIEVE_SNAPSHOT_FIELD_NUMBER = 5;
-        public static final int RETURN_SNAPSHOT_FIELD_NUMBER = 6;
-        private static final long serialVersionUID = 0L;
-        // @@protoc_insertion_point(class_scope:BranchMessage)
-        private static final BranchMessage DEFAULT_INSTANCE;
-        private static final com.google.protobuf.Parser<BranchMessage>
-                PARSER = new com.google.protobuf.AbstractParser<BranchMessage>() {
-            public BranchMessage parsePartialFrom(
-                    com.google.protobuf.CodedInputStream input,
-                    com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-                    throws com.google.protobuf.InvalidProtocolBufferException {
-                return new BranchMessage(input, extensionRegistry);
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public Builder setSubtree(
+                    int index, LocalSnapshot.Builder builderForValue) {
+                if (subtreeBuilder_ == null) {
+                    ensureSubtreeIsMutable();
+                    subtree_.set(index, builderForValue.build());
+                    onChanged();
+                } else {
+                    subtreeBuilder_.setMessage(index, builderForValue.build());
+                }
+                return this;
             }
-        };
 
-        static {
-            DEFAULT_INSTANCE = new BranchMessage();
-        }
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public Builder addSubtree(LocalSnapshot value) {
+                if (subtreeBuilder_ == null) {
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    ensureSubtreeIsMutable();
+                    subtree_.add(value);
+                    onChanged();
+                } else {
+                    subtreeBuilder_.addMessage(value);
+                }
+                return this;
+            }
 
-        ;
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public Builder addSubtree(
+                    int index, LocalSnapshot value) {
+                if (subtreeBuilder_ == null) {
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    ensureSubtreeIsMutable();
+                    subtree_.add(index, value);
+                    onChanged();
+                } else {
+                    subtreeBuilder_.addMessage(index, value);
+                }
+                return this;
+            }
 
-        private int branchMessageCase_ = 0;
-        private Object branchMessage_;
-        private byte memoizedIsInitialized = -1;
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public Builder addSubtree(
+                    LocalSnapshot.Builder builderForValue) {
+                if (subtreeBuilder_ == null) {
+                    ensureSubtreeIsMutable();
+                    subtree_.add(builderForValue.build());
+                    onChanged();
+                } else {
+                    subtreeBuilder_.addMessage(builderForValue.build());
+                }
+                return this;
+            }
 
-        // Use BranchMessage.newBuilder() to construct.
-        private BranchMessage(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
-            super(builder);
-        }
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public Builder addSubtree(
+                    int index, LocalSnapshot.Builder builderForValue) {
+                if (subtreeBuilder_ == null) {
+                    ensureSubtreeIsMutable();
+                    subtree_.add(index, builderForValue.build());
+                    onChanged();
+                } else {
+                    subtreeBuilder_.addMessage(index, builderForValue.build());
+                }
+                return this;
+            }
 
-        private BranchMessage() {
-        }
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public Builder addAllSubtree(
+                    Iterable<? extends LocalSnapshot> values) {
+                if (subtreeBuilder_ == null) {
+                    ensureSubtreeIsMutable();
+                    com.google.protobuf.AbstractMessageLite.Builder.addAll(
+                            values, subtree_);
+                    onChanged();
+                } else {
+                    subtreeBuilder_.addAllMessages(values);
+                }
+                return this;
+            }
 
-        private BranchMessage(
-                com.google.protobuf.CodedInputStream input,
-                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-                throws com.google.protobuf.InvalidProtocolBufferException {
-            this();
-            int mutable_bitField0_ = 0;
-            com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-                    com.google.protobuf.UnknownFieldSet.newBuilder();
-            try {
-                boolean done = false;
-                while (!done) {
-                    int tag = input.readTag();
-                    switch (tag) {
-                        case 0:
-                            done = true;
-                            break;
-                        default: {
-                            if (!parseUnknownFieldProto3(
-                                    input, unknownFields, extensionRegistry, tag)) {
-                                done = true;
-                            }
-                            break;
-                        }
-                        case 10: {
-                            InitBranch.Builder subBuilder = null;
-                            if (branchMessageCase_ == 1) {
-                                subBuilder = ((InitBranch) branchMessage_).toBuilder();
-                            }
-                            branchMessage_ =
-                                    input.readMessage(InitBranch.parser(), extensionRegistry);
-                            if (subBuilder != null) {
-                                subBuilder.mergeFrom((InitBranch) branchMessage_);
-                                branchMessage_ = subBuilder.buildPartial();
-                            }
-                            branchMessageCase_ = 1;
-                            break;
-                        }
-                        case 18: {
-                            Transfer.Builder subBuilder = null;
-                            if (branchMessageCase_ == 2) {
-                                subBuilder = ((Transfer) branchMessage_).toBuilder();
-                            }
-                            branchMessage_ =
-                                    input.readMessage(Transfer.parser(), extensionRegistry);
-                            if (subBuilder != null) {
-                                subBuilder.mergeFrom((Transfer) branchMessage_);
-                                branchMessage_ = subBuilder.buildPartial();
-                            }
-                            branchMessageCase_ = 2;
-                            break;
-                        }
-                        case 26: {
-                            InitSnapshot.Builder subBuilder = null;
-                            if (branchMessageCase_ == 3) {
-                                subBuilder = ((InitSnapshot) branchMessage_).toBuilder();
-                            }
-                            branchMessage_ =
-                                    input.readMessage(InitSnapshot.parser(), extensionRegistry);
-                            if (subBuilder != null) {
-                                subBuilder.mergeFrom((InitSnapshot) branchMessage_);
-                                branchMessage_ = subBuilder.buildPartial();
-                            }
-                            branchMessageCase_ = 3;
-                            break;
-                        }
-                        case 34: {
-                            Marker.Builder subBuilder = null;
-                            if (branchMessageCase_ == 4) {
-                                subBuilder = ((Marker) branchMessage_).toBuilder();
-                            }
-                            branchMessage_ =
-                                    input.readMessage(Marker.parser(), extensionRegistry);
-                            if (subBuilder != null) {
-                                subBuilder.mergeFrom((Marker) branchMessage_);
-                                branchMessage_ = subBuilder.buildPartial();
-                            }
-                            branchMessageCase_ = 4;
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public Builder clearSubtree() {
+                if (subtreeBuilder_ == null) {
+                    subtree_ = java.util.Collections.emptyList();
+                    bitField0_ = (bitField0_ & ~0x00000002);
+                    onChanged();
+                } else {
+                    subtreeBuilder_.clear();
+                }
+                return this;
+            }
+
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public Builder removeSubtree(int index) {
+                if (subtreeBuilder_ == null) {
+                    ensureSubtreeIsMutable();
+                    subtree_.remove(index);
+                    onChanged();
+                } else {
+                    subtreeBuilder_.remove(index);
+                }
+                return this;
+            }
+
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public LocalSnapshot.Builder getSubtreeBuilder(
+                    int index) {
+                return getSubtreeFieldBuilder().getBuilder(index);
+            }
+
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public LocalSnapshotOrBuilder getSubtreeOrBuilder(
+                    int index) {
+                if (subtreeBuilder_ == null) {
+                    return subtree_.get(index);
+                } else {
+                    return subtreeBuilder_.getMessageOrBuilder(index);
+                }
+            }
+
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public java.util.List<? extends LocalSnapshotOrBuilder>
+            getSubtreeOrBuilderList() {
+                if (subtreeBuilder_ != null) {
+                    return subtreeBuilder_.getMessageOrBuilderList();
+                } else {
+                    return java.util.Collections.unmodifiableList(subtree_);
+                }
+            }
+
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public LocalSnapshot.Builder addSubtreeBuilder() {
+                return getSubtreeFieldBuilder().addBuilder(
+                        LocalSnapshot.getDefaultInstance());
+            }
+
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public LocalSnapshot.Builder addSubtreeBuilder(
+                    int index) {
+                return getSubtreeFieldBuilder().addBuilder(
+                        index, LocalSnapshot.getDefaultInstance());
+            }
+
+            /**
+             * <code>repeated .ReturnSnapshot.LocalSnapshot subtree = 2;</code>
+             */
+            public java.util.List<LocalSnapshot.Builder>
+            getSubtreeBuilderList() {
+                return getSubtreeFieldBuilder().getBuilderList();
+            }
+
+            private com.google.protobuf.RepeatedFieldBuilderV3<
+                    LocalSnapshot, LocalSnapshot.Builder, LocalSnapshotOrBuilder>
+            getSubtreeFieldBuilder() {
+                if (subtreeBuilder_ == null) {
+                    subtreeBuilder_ = new com.google.protobuf.RepeatedFieldBuilderV3<
+                            LocalSnapshot, LocalSnapshot.Builder, LocalSnapshotOrBuilder>(
+                            subtree_,
+                            ((bitField0_ & 0x00000002) == 0x00000002),
+                            getParentForChildren(),
+                            isClean());
+                    subtree_ = null;
+                }
+                return subtreeBuilder_;
+            }
+
+            /**
+             * <code>uint64 subtree_sum = 3;</code>
+             */
+            public long getSubtreeSum() {
+                return subtreeSum_;
+            }
+
+            /**
+             * <code>uint64 subtree_sum = 3;</code>
+             */
+            public Builder setSubtreeSum(long value) {
+
+                subtreeSum_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint64 subtree_sum = 3;</code>
+             */
+            public Builder clearSubtreeSum() {
+
+                subtreeSum_ = 0L;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint32 subtree_branches = 4;</code>
+             */
+            public int getSubtreeBranches() {
+                return subtreeBranches_;
+            }
+
+            /**
+             * <code>uint32 subtree_branches = 4;</code>
+             */
+            public Builder setSubtreeBranches(int value) {
+
+                subtreeBranches_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint32 subtree_branches = 4;</code>
+             */
+            public Builder clearSubtreeBranches() {
+
+                subtreeBranches_ = 0;
+                onChanged();
+                return this;
+            }
+
+            public final Builder setUnknownFields(
+                    final com.google.protobuf.UnknownFieldSet unknownFields) {
+                return super.setUnknownFieldsProto3(unknownFields);
+            }
+
+            public final Builder mergeUnknownFields(
+                    final com.google.protobuf.UnknownFieldSet unknownFields) {
+                return super.mergeUnknownFields(unknownFields);
+            }
+
+
+            // @@protoc_insertion_point(builder_scope:ReturnSnapshot)
+        }
+
+    }
+
+    /**
+     * Protobuf type {@code SnapshotComplete}
+     */
+    public static final class SnapshotComplete extends
+            com.google.protobuf.GeneratedMessageV3 implements
+            // @@protoc_insertion_point(message_implements:SnapshotComplete)
+            SnapshotCompleteOrBuilder {
+        public static final int SNAPSHOT_ID_FIELD_NUMBER = 1;
+        private static final long serialVersionUID = 0L;
+        // @@protoc_insertion_point(class_scope:SnapshotComplete)
+        private static final SnapshotComplete DEFAULT_INSTANCE;
+        private static final com.google.protobuf.Parser<SnapshotComplete>
+                PARSER = new com.google.protobuf.AbstractParser<SnapshotComplete>() {
+            public SnapshotComplete parsePartialFrom(
+                    com.google.protobuf.CodedInputStream input,
+                    com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                    throws com.google.protobuf.InvalidProtocolBufferException {
+                return new SnapshotComplete(input, extensionRegistry);
+            }
+        };
+
+        static {
+            DEFAULT_INSTANCE = new SnapshotComplete();
+        }
+
+        private int snapshotId_;
+        private byte memoizedIsInitialized = -1;
+
+        // Use SnapshotComplete.newBuilder() to construct.
+        private SnapshotComplete(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+            super(builder);
+        }
+
+        private SnapshotComplete() {
+            snapshotId_ = 0;
+        }
+
+        private SnapshotComplete(
+                com.google.protobuf.CodedInputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            this();
+            int mutable_bitField0_ = 0;
+            com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+                    com.google.protobuf.UnknownFieldSet.newBuilder();
+            try {
+                boolean done = false;
+                while (!done) {
+                    int tag = input.readTag();
+                    switch (tag) {
+                        case 0:
+                            done = true;
                             break;
-                        }
-                        case 42: {
-                            RetrieveSnapshot.Builder subBuilder = null;
-                            if (branchMessageCase_ == 5) {
-                                subBuilder = ((RetrieveSnapshot) branchMessage_).toBuilder();
-                            }
-                            branchMessage_ =
-                                    input.readMessage(RetrieveSnapshot.parser(), extensionRegistry);
-                            if (subBuilder != null) {
-                                subBuilder.mergeFrom((RetrieveSnapshot) branchMessage_);
-                                branchMessage_ = subBuilder.buildPartial();
+                        default: {
+                            if (!parseUnknownFieldProto3(
+                                    input, unknownFields, extensionRegistry, tag)) {
+                                done = true;
                             }
-                            branchMessageCase_ = 5;
                             break;
                         }
-                        case 50: {
-                            ReturnSnapshot.Builder subBuilder = null;
-                            if (branchMessageCase_ == 6) {
-                                subBuilder = ((ReturnSnapshot) branchMessage_).toBuilder();
-                            }
-                            branchMessage_ =
-                                    input.readMessage(ReturnSnapshot.parser(), extensionRegistry);
-                            if (subBuilder != null) {
-                                subBuilder.mergeFrom((ReturnSnapshot) branchMessage_);
-                                branchMessage_ = subBuilder.buildPartial();
-                            }
-                            branchMessageCase_ = 6;
+                        case 8: {
+
+                            snapshotId_ = input.readUInt32();
                             break;
                         }
                     }
@@ -5355,54 +6697,54 @@ public final class Bank {
 
         public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
-            return Bank.internal_static_BranchMessage_descriptor;
+            return Bank.internal_static_SnapshotComplete_descriptor;
         }
 
-        public static BranchMessage parseFrom(
+        public static SnapshotComplete parseFrom(
                 java.nio.ByteBuffer data)
                 throws com.google.protobuf.InvalidProtocolBufferException {
             return PARSER.parseFrom(data);
         }
 
-        public static BranchMessage parseFrom(
+        public static SnapshotComplete parseFrom(
                 java.nio.ByteBuffer data,
                 com.google.protobuf.ExtensionRegistryLite extensionRegistry)
                 throws com.google.protobuf.InvalidProtocolBufferException {
             return PARSER.parseFrom(data, extensionRegistry);
         }
 
-        public static BranchMessage parseFrom(
+        public static SnapshotComplete parseFrom(
                 com.google.protobuf.ByteString data)
                 throws com.google.protobuf.InvalidProtocolBufferException {
             return PARSER.parseFrom(data);
         }
 
-        public static BranchMessage parseFrom(
+        public static SnapshotComplete parseFrom(
                 com.google.protobuf.ByteString data,
                 com.google.protobuf.ExtensionRegistryLite extensionRegistry)
                 throws com.google.protobuf.InvalidProtocolBufferException {
             return PARSER.parseFrom(data, extensionRegistry);
         }
 
-        public static BranchMessage parseFrom(byte[] data)
+        public static SnapshotComplete parseFrom(byte[] data)
                 throws com.google.protobuf.InvalidProtocolBufferException {
             return PARSER.parseFrom(data);
         }
 
-        public static BranchMessage parseFrom(
+        public static SnapshotComplete parseFrom(
                 byte[] data,
                 com.google.protobuf.ExtensionRegistryLite extensionRegistry)
                 throws com.google.protobuf.InvalidProtocolBufferException {
             return PARSER.parseFrom(data, extensionRegistry);
         }
 
-        public static BranchMessage parseFrom(java.io.InputStream input)
+        public static SnapshotComplete parseFrom(java.io.InputStream input)
                 throws java.io.IOException {
             return com.google.protobuf.GeneratedMessageV3
                     .parseWithIOException(PARSER, input);
         }
 
-        public static BranchMessage parseFrom(
+        public static SnapshotComplete parseFrom(
                 java.io.InputStream input,
                 com.google.protobuf.ExtensionRegistryLite extensionRegistry)
                 throws java.io.IOException {
@@ -5410,13 +6752,13 @@ public final class Bank {
                     .parseWithIOException(PARSER, input, extensionRegistry);
         }
 
-        public static BranchMessage parseDelimitedFrom(java.io.InputStream input)
+        public static SnapshotComplete parseDelimitedFrom(java.io.InputStream input)
                 throws java.io.IOException {
             return com.google.protobuf.GeneratedMessageV3
                     .parseDelimitedWithIOException(PARSER, input);
         }
 
-        public static BranchMessage parseDelimitedFrom(
+        public static SnapshotComplete parseDelimitedFrom(
                 java.io.InputStream input,
                 com.google.protobuf.ExtensionRegistryLite extensionRegistry)
                 throws java.io.IOException {
@@ -5424,14 +6766,14 @@ public final class Bank {
                     .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
         }
 
-        public static BranchMessage parseFrom(
+        public static SnapshotComplete parseFrom(
                 com.google.protobuf.CodedInputStream input)
                 throws java.io.IOException {
             return com.google.protobuf.GeneratedMessageV3
                     .parseWithIOException(PARSER, input);
         }
 
-        public static BranchMessage parseFrom(
+        public static SnapshotComplete parseFrom(
                 com.google.protobuf.CodedInputStream input,
                 com.google.protobuf.ExtensionRegistryLite extensionRegistry)
                 throws java.io.IOException {
@@ -5443,15 +6785,15 @@ public final class Bank {
             return DEFAULT_INSTANCE.toBuilder();
         }
 
-        public static Builder newBuilder(BranchMessage prototype) {
+        public static Builder newBuilder(SnapshotComplete prototype) {
             return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
         }
 
-        public static BranchMessage getDefaultInstance() {
+        public static SnapshotComplete getDefaultInstance() {
             return DEFAULT_INSTANCE;
         }
 
-        public static com.google.protobuf.Parser<BranchMessage> parser() {
+        public static com.google.protobuf.Parser<SnapshotComplete> parser() {
             return PARSER;
         }
 
@@ -5463,177 +6805,16 @@ public final class Bank {
 
         protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
         internalGetFieldAccessorTable() {
-            return Bank.internal_static_BranchMessage_fieldAccessorTable
+            return Bank.internal_static_SnapshotComplete_fieldAccessorTable
                     .ensureFieldAccessorsInitialized(
-                            BranchMessage.class, Builder.class);
-        }
-
-        public BranchMessageCase
-        getBranchMessageCase() {
-            return BranchMessageCase.forNumber(
-                    branchMessageCase_);
+                            SnapshotComplete.class, Builder.class);
         }
 
         /**
-         * <code>.InitBranch init_branch = 1;</code>
-         */
-        public boolean hasInitBranch() {
-            return branchMessageCase_ == 1;
-        }
-
-        /**
-         * <code>.InitBranch init_branch = 1;</code>
-         */
-        public InitBranch getInitBranch() {
-            if (branchMessageCase_ == 1) {
-                return (InitBranch) branchMessage_;
-            }
-            return InitBranch.getDefaultInstance();
-        }
-
-        /**
-         * <code>.InitBranch init_branch = 1;</code>
-         */
-        public InitBranchOrBuilder getInitBranchOrBuilder() {
-            if (branchMessageCase_ == 1) {
-                return (InitBranch) branchMessage_;
-            }
-            return InitBranch.getDefaultInstance();
-        }
-
-        /**
-         * <code>.Transfer transfer = 2;</code>
-         */
-        public boolean hasTransfer() {
-            return branchMessageCase_ == 2;
-        }
-
-        /**
-         * <code>.Transfer transfer = 2;</code>
-         */
-        public Transfer getTransfer() {
-            if (branchMessageCase_ == 2) {
-                return (Transfer) branchMessage_;
-            }
-            return Transfer.getDefaultInstance();
-        }
-
-        /**
-         * <code>.Transfer transfer = 2;</code>
-         */
-        public TransferOrBuilder getTransferOrBuilder() {
-            if (branchMessageCase_ == 2) {
-                return (Transfer) branchMessage_;
-            }
-            return Transfer.getDefaultInstance();
-        }
-
-        /**
-         * <code>.InitSnapshot init_snapshot = 3;</code>
-         */
-        public boolean hasInitSnapshot() {
-            return branchMessageCase_ == 3;
-        }
-
-        /**
-         * <code>.InitSnapshot init_snapshot = 3;</code>
-         */
-        public InitSnapshot getInitSnapshot() {
-            if (branchMessageCase_ == 3) {
-                return (InitSnapshot) branchMessage_;
-            }
-            return InitSnapshot.getDefaultInstance();
-        }
-
-        /**
-         * <code>.InitSnapshot init_snapshot = 3;</code>
-         */
-        public InitSnapshotOrBuilder getInitSnapshotOrBuilder() {
-            if (branchMessageCase_ == 3) {
-                return (InitSnapshot) branchMessage_;
-            }
-            return InitSnapshot.getDefaultInstance();
-        }
-
-        /**
-         * <code>.Marker marker = 4;</code>
-         */
-        public boolean hasMarker() {
-            return branchMessageCase_ == 4;
-        }
-
-        /**
-         * <code>.Marker marker = 4;</code>
-         */
-        public Marker getMarker() {
-            if (branchMessageCase_ == 4) {
-                return (Marker) branchMessage_;
-            }
-            return Marker.getDefaultInstance();
-        }
-
-        /**
-         * <code>.Marker marker = 4;</code>
-         */
-        public MarkerOrBuilder getMarkerOrBuilder() {
-            if (branchMessageCase_ == 4) {
-                return (Marker) branchMessage_;
-            }
-            return Marker.getDefaultInstance();
-        }
-
-        /**
-         * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-         */
-        public boolean hasRetrieveSnapshot() {
-            return branchMessageCase_ == 5;
-        }
-
-        /**
-         * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-         */
-        public RetrieveSnapshot getRetrieveSnapshot() {
-            if (branchMessageCase_ == 5) {
-                return (RetrieveSnapshot) branchMessage_;
-            }
-            return RetrieveSnapshot.getDefaultInstance();
-        }
-
-        /**
-         * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-         */
-        public RetrieveSnapshotOrBuilder getRetrieveSnapshotOrBuilder() {
-            if (branchMessageCase_ == 5) {
-                return (RetrieveSnapshot) branchMessage_;
-            }
-            return RetrieveSnapshot.getDefaultInstance();
-        }
-
-        /**
-         * <code>.ReturnSnapshot return_snapshot = 6;</code>
-         */
-        public boolean hasReturnSnapshot() {
-            return branchMessageCase_ == 6;
-        }
-
-        /**
-         * <code>.ReturnSnapshot return_snapshot = 6;</code>
-         */
-        public ReturnSnapshot getReturnSnapshot() {
-            if (branchMessageCase_ == 6) {
-                return (ReturnSnapshot) branchMessage_;
-            }
-            return ReturnSnapshot.getDefaultInstance();
-        }
-
-        /**
-         * <code>.ReturnSnapshot return_snapshot = 6;</code>
+         * <code>uint32 snapshot_id = 1;</code>
          */
-        public ReturnSnapshotOrBuilder getReturnSnapshotOrBuilder() {
-            if (branchMessageCase_ == 6) {
-                return (ReturnSnapshot) branchMessage_;
-            }
-            return ReturnSnapshot.getDefaultInstance();
+        public int getSnapshotId() {
+            return snapshotId_;
         }
 
         public final boolean isInitialized() {
@@ -5647,23 +6828,8 @@ public final class Bank {
 
         public void writeTo(com.google.protobuf.CodedOutputStream output)
                 throws java.io.IOException {
-            if (branchMessageCase_ == 1) {
-                output.writeMessage(1, (InitBranch) branchMessage_);
-            }
-            if (branchMessageCase_ == 2) {
-                output.writeMessage(2, (Transfer) branchMessage_);
-            }
-            if (branchMessageCase_ == 3) {
-                output.writeMessage(3, (InitSnapshot) branchMessage_);
-            }
-            if (branchMessageCase_ == 4) {
-                output.writeMessage(4, (Marker) branchMessage_);
-            }
-            if (branchMessageCase_ == 5) {
-                output.writeMessage(5, (RetrieveSnapshot) branchMessage_);
-            }
-            if (branchMessageCase_ == 6) {
-                output.writeMessage(6, (ReturnSnapshot) branchMessage_);
+            if (snapshotId_ != 0) {
+                output.writeUInt32(1, snapshotId_);
             }
             unknownFields.writeTo(output);
         }
@@ -5673,29 +6839,9 @@ public final class Bank {
             if (size != -1) return size;
 
             size = 0;
-            if (branchMessageCase_ == 1) {
-                size += com.google.protobuf.CodedOutputStream
-                        .computeMessageSize(1, (InitBranch) branchMessage_);
-            }
-            if (branchMessageCase_ == 2) {
-                size += com.google.protobuf.CodedOutputStream
-                        .computeMessageSize(2, (Transfer) branchMessage_);
-            }
-            if (branchMessageCase_ == 3) {
-                size += com.google.protobuf.CodedOutputStream
-                        .computeMessageSize(3, (InitSnapshot) branchMessage_);
-            }
-            if (branchMessageCase_ == 4) {
-                size += com.google.protobuf.CodedOutputStream
-                        .computeMessageSize(4, (Marker) branchMessage_);
-            }
-            if (branchMessageCase_ == 5) {
-                size += com.google.protobuf.CodedOutputStream
-                        .computeMessageSize(5, (RetrieveSnapshot) branchMessage_);
-            }
-            if (branchMessageCase_ == 6) {
+            if (snapshotId_ != 0) {
                 size += com.google.protobuf.CodedOutputStream
-                        .computeMessageSize(6, (ReturnSnapshot) branchMessage_);
+                        .computeUInt32Size(1, snapshotId_);
             }
             size += unknownFields.getSerializedSize();
             memoizedSize = size;
@@ -5707,43 +6853,14 @@ public final class Bank {
             if (obj == this) {
                 return true;
             }
-            if (!(obj instanceof BranchMessage)) {
+            if (!(obj instanceof SnapshotComplete)) {
                 return super.equals(obj);
             }
-            BranchMessage other = (BranchMessage) obj;
+            SnapshotComplete other = (SnapshotComplete) obj;
 
             boolean result = true;
-            result = result && getBranchMessageCase().equals(
-                    other.getBranchMessageCase());
-            if (!result) return false;
-            switch (branchMessageCase_) {
-                case 1:
-                    result = result && getInitBranch()
-                            .equals(other.getInitBranch());
-                    break;
-                case 2:
-                    result = result && getTransfer()
-                            .equals(other.getTransfer());
-                    break;
-                case 3:
-                    result = result && getInitSnapshot()
-                            .equals(other.getInitSnapshot());
-                    break;
-                case 4:
-                    result = result && getMarker()
-                            .equals(other.getMarker());
-                    break;
-                case 5:
-                    result = result && getRetrieveSnapshot()
-                            .equals(other.getRetrieveSnapshot());
-                    break;
-                case 6:
-                    result = result && getReturnSnapshot()
-                            .equals(other.getReturnSnapshot());
-                    break;
-                case 0:
-                default:
-            }
+            result = result && (getSnapshotId()
+                    == other.getSnapshotId());
             result = result && unknownFields.equals(other.unknownFields);
             return result;
         }
@@ -5755,34 +6872,8 @@ public final class Bank {
             }
             int hash = 41;
             hash = (19 * hash) + getDescriptor().hashCode();
-            switch (branchMessageCase_) {
-                case 1:
-                    hash = (37 * hash) + INIT_BRANCH_FIELD_NUMBER;
-                    hash = (53 * hash) + getInitBranch().hashCode();
-                    break;
-                case 2:
-                    hash = (37 * hash) + TRANSFER_FIELD_NUMBER;
-                    hash = (53 * hash) + getTransfer().hashCode();
-                    break;
-                case 3:
-                    hash = (37 * hash) + INIT_SNAPSHOT_FIELD_NUMBER;
-                    hash = (53 * hash) + getInitSnapshot().hashCode();
-                    break;
-                case 4:
-                    hash = (37 * hash) + MARKER_FIELD_NUMBER;
-                    hash = (53 * hash) + getMarker().hashCode();
-                    break;
-                case 5:
-                    hash = (37 * hash) + RETRIEVE_SNAPSHOT_FIELD_NUMBER;
-                    hash = (53 * hash) + getRetrieveSnapshot().hashCode();
-                    break;
-                case 6:
-                    hash = (37 * hash) + RETURN_SNAPSHOT_FIELD_NUMBER;
-                    hash = (53 * hash) + getReturnSnapshot().hashCode();
-                    break;
-                case 0:
-                default:
-            }
+            hash = (37 * hash) + SNAPSHOT_ID_FIELD_NUMBER;
+            hash = (53 * hash) + getSnapshotId();
             hash = (29 * hash) + unknownFields.hashCode();
             memoizedHashCode = hash;
             return hash;
@@ -5805,86 +6896,24 @@ public final class Bank {
         }
 
         @Override
-        public com.google.protobuf.Parser<BranchMessage> getParserForType() {
+        public com.google.protobuf.Parser<SnapshotComplete> getParserForType() {
             return PARSER;
         }
 
-        public BranchMessage getDefaultInstanceForType() {
+        public SnapshotComplete getDefaultInstanceForType() {
             return DEFAULT_INSTANCE;
         }
 
-        public enum BranchMessageCase
-                implements com.google.protobuf.Internal.EnumLite {
-            INIT_BRANCH(1),
-            TRANSFER(2),
-            INIT_SNAPSHOT(3),
-            MARKER(4),
-            RETRIEVE_SNAPSHOT(5),
-            RETURN_SNAPSHOT(6),
-            BRANCHMESSAGE_NOT_SET(0);
-            private final int value;
-
-            private BranchMessageCase(int value) {
-                this.value = value;
-            }
-
-            /**
-             * @deprecated Use {@link #forNumber(int)} instead.
-             */
-            @Deprecated
-            public static BranchMessageCase valueOf(int value) {
-                return forNumber(value);
-            }
-
-            public static BranchMessageCase forNumber(int value) {
-                switch (value) {
-                    case 1:
-                        return INIT_BRANCH;
-                    case 2:
-                        return TRANSFER;
-                    case 3:
-                        return INIT_SNAPSHOT;
-                    case 4:
-                        return MARKER;
-                    case 5:
-                        return RETRIEVE_SNAPSHOT;
-                    case 6:
-                        return RETURN_SNAPSHOT;
-                    case 0:
-                        return BRANCHMESSAGE_NOT_SET;
-                    default:
-                        return null;
-                }
-            }
-
-            public int getNumber() {
-                return this.value;
-            }
-        }
-
         /**
-         * Protobuf type {@code BranchMessage}
+         * Protobuf type {@code SnapshotComplete}
          */
         public static final class Builder extends
                 com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
-                // @@protoc_insertion_point(builder_implements:BranchMessage)
-                BranchMessageOrBuilder {
-            private int branchMessageCase_ = 0;
-            private Object branchMessage_;
-            private com.google.protobuf.SingleFieldBuilderV3<
-                    InitBranch, InitBranch.Builder, InitBranchOrBuilder> initBranchBuilder_;
-            private com.google.protobuf.SingleFieldBuilderV3<
-                    Transfer, Transfer.Builder, TransferOrBuilder> transferBuilder_;
-            private com.google.protobuf.SingleFieldBuilderV3<
-                    InitSnapshot, InitSnapshot.Builder, InitSnapshotOrBuilder> initSnapshotBuilder_;
-            private com.google.protobuf.SingleFieldBuilderV3<
-                    Marker, Marker.Builder, MarkerOrBuilder> markerBuilder_;
-            private com.google.protobuf.SingleFieldBuilderV3<
-                    RetrieveSnapshot, RetrieveSnapshot.Builder, RetrieveSnapshotOrBuilder> retrieveSnapshotBuilder_;
-            private com.google.protobuf.SingleFieldBuilderV3<
-                    ReturnSnapshot, ReturnSnapshot.Builder, ReturnSnapshotOrBuilder> returnSnapshotBuilder_;
+                // @@protoc_insertion_point(builder_implements:SnapshotComplete)
+                SnapshotCompleteOrBuilder {
+            private int snapshotId_;
 
-            // Construct using Bank.BranchMessage.newBuilder()
+            // Construct using Bank.SnapshotComplete.newBuilder()
             private Builder() {
                 maybeForceBuilderInitialization();
             }
@@ -5897,14 +6926,14 @@ public final class Bank {
 
             public static final com.google.protobuf.Descriptors.Descriptor
             getDescriptor() {
-                return Bank.internal_static_BranchMessage_descriptor;
+                return Bank.internal_static_SnapshotComplete_descriptor;
             }
 
             protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
             internalGetFieldAccessorTable() {
-                return Bank.internal_static_BranchMessage_fieldAccessorTable
+                return Bank.internal_static_SnapshotComplete_fieldAccessorTable
                         .ensureFieldAccessorsInitialized(
-                                BranchMessage.class, Builder.class);
+                                SnapshotComplete.class, Builder.class);
             }
 
             private void maybeForceBuilderInitialization() {
@@ -5915,73 +6944,31 @@ public final class Bank {
 
             public Builder clear() {
                 super.clear();
-                branchMessageCase_ = 0;
-                branchMessage_ = null;
+                snapshotId_ = 0;
+
                 return this;
             }
 
             public com.google.protobuf.Descriptors.Descriptor
             getDescriptorForType() {
-                return Bank.internal_static_BranchMessage_descriptor;
+                return Bank.internal_static_SnapshotComplete_descriptor;
             }
 
-            public BranchMessage getDefaultInstanceForType() {
-                return BranchMessage.getDefaultInstance();
+            public SnapshotComplete getDefaultInstanceForType() {
+                return SnapshotComplete.getDefaultInstance();
             }
 
-            public BranchMessage build() {
-                BranchMessage result = buildPartial();
+            public SnapshotComplete build() {
+                SnapshotComplete result = buildPartial();
                 if (!result.isInitialized()) {
                     throw newUninitializedMessageException(result);
                 }
                 return result;
             }
 
-            public BranchMessage buildPartial() {
-                BranchMessage result = new BranchMessage(this);
-                if (branchMessageCase_ == 1) {
-                    if (initBranchBuilder_ == null) {
-                        result.branchMessage_ = branchMessage_;
-                    } else {
-                        result.branchMessage_ = initBranchBuilder_.build();
-                    }
-                }
-                if (branchMessageCase_ == 2) {
-                    if (transferBuilder_ == null) {
-                        result.branchMessage_ = branchMessage_;
-                    } else {
-                        result.branchMessage_ = transferBuilder_.build();
-                    }
-                }
-                if (branchMessageCase_ == 3) {
-                    if (initSnapshotBuilder_ == null) {
-                        result.branchMessage_ = branchMessage_;
-                    } else {
-                        result.branchMessage_ = initSnapshotBuilder_.build();
-                    }
-                }
-                if (branchMessageCase_ == 4) {
-                    if (markerBuilder_ == null) {
-                        result.branchMessage_ = branchMessage_;
-                    } else {
-                        result.branchMessage_ = markerBuilder_.build();
-                    }
-                }
-                if (branchMessageCase_ == 5) {
-                    if (retrieveSnapshotBuilder_ == null) {
-                        result.branchMessage_ = branchMessage_;
-                    } else {
-                        result.branchMessage_ = retrieveSnapshotBuilder_.build();
-                    }
-                }
-                if (branchMessageCase_ == 6) {
-                    if (returnSnapshotBuilder_ == null) {
-                        result.branchMessage_ = branchMessage_;
-                    } else {
-                        result.branchMessage_ = returnSnapshotBuilder_.build();
-                    }
-                }
-                result.branchMessageCase_ = branchMessageCase_;
+            public SnapshotComplete buildPartial() {
+                SnapshotComplete result = new SnapshotComplete(this);
+                result.snapshotId_ = snapshotId_;
                 onBuilt();
                 return result;
             }
@@ -6019,44 +7006,18 @@ public final class Bank {
             }
 
             public Builder mergeFrom(com.google.protobuf.Message other) {
-                if (other instanceof BranchMessage) {
-                    return mergeFrom((BranchMessage) other);
+                if (other instanceof SnapshotComplete) {
+                    return mergeFrom((SnapshotComplete) other);
                 } else {
                     super.mergeFrom(other);
                     return this;
                 }
             }
 
-            public Builder mergeFrom(BranchMessage other) {
-                if (other == BranchMessage.getDefaultInstance()) return this;
-                switch (other.getBranchMessageCase()) {
-                    case INIT_BRANCH: {
-                        mergeInitBranch(other.getInitBranch());
-                        break;
-                    }
-                    case TRANSFER: {
-                        mergeTransfer(other.getTransfer());
-                        break;
-                    }
-                    case INIT_SNAPSHOT: {
-                        mergeInitSnapshot(other.getInitSnapshot());
-                        break;
-                    }
-                    case MARKER: {
-                        mergeMarker(other.getMarker());
-                        break;
-                    }
-                    case RETRIEVE_SNAPSHOT: {
-                        mergeRetrieveSnapshot(other.getRetrieveSnapshot());
-                        break;
-                    }
-                    case RETURN_SNAPSHOT: {
-                        mergeReturnSnapshot(other.getReturnSnapshot());
-                        break;
-                    }
-                    case BRANCHMESSAGE_NOT_SET: {
-                        break;
-                    }
+            public Builder mergeFrom(SnapshotComplete other) {
+                if (other == SnapshotComplete.getDefaultInstance()) return this;
+                if (other.getSnapshotId() != 0) {
+                    setSnapshotId(other.getSnapshotId());
                 }
                 this.mergeUnknownFields(other.unknownFields);
                 onChanged();
@@ -6071,11 +7032,11 @@ public final class Bank {
                     com.google.protobuf.CodedInputStream input,
                     com.google.protobuf.ExtensionRegistryLite extensionRegistry)
                     throws java.io.IOException {
-                BranchMessage parsedMessage = null;
+                SnapshotComplete parsedMessage = null;
                 try {
                     parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
                 } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-                    parsedMessage = (BranchMessage) e.getUnfinishedMessage();
+                    parsedMessage = (SnapshotComplete) e.getUnfinishedMessage();
                     throw e.unwrapIOException();
                 } finally {
                     if (parsedMessage != null) {
@@ -6085,875 +7046,3466 @@ public final class Bank {
                 return this;
             }
 
-            public BranchMessageCase
-            getBranchMessageCase() {
-                return BranchMessageCase.forNumber(
-                        branchMessageCase_);
-            }
-
-            public Builder clearBranchMessage() {
-                branchMessageCase_ = 0;
-                branchMessage_ = null;
-                onChanged();
-                return this;
-            }
-
             /**
-             * <code>.InitBranch init_branch = 1;</code>
+             * <code>uint32 snapshot_id = 1;</code>
              */
-            public boolean hasInitBranch() {
-                return branchMessageCase_ == 1;
+            public int getSnapshotId() {
+                return snapshotId_;
             }
 
             /**
-             * <code>.InitBranch init_branch = 1;</code>
+             * <code>uint32 snapshot_id = 1;</code>
              */
-            public InitBranch getInitBranch() {
-                if (initBranchBuilder_ == null) {
-                    if (branchMessageCase_ == 1) {
-                        return (InitBranch) branchMessage_;
-                    }
-                    return InitBranch.getDefaultInstance();
-                } else {
-                    if (branchMessageCase_ == 1) {
-                        return initBranchBuilder_.getMessage();
-                    }
-                    return InitBranch.getDefaultInstance();
-                }
-            }
+            public Builder setSnapshotId(int value) {
 
-            /**
-             * <code>.InitBranch init_branch = 1;</code>
-             */
-            public Builder setInitBranch(
-                    InitBranch.Builder builderForValue) {
-                if (initBranchBuilder_ == null) {
-                    branchMessage_ = builderForValue.build();
-                    onChanged();
-                } else {
-                    initBranchBuilder_.setMessage(builderForValue.build());
-                }
-                branchMessageCase_ = 1;
+                snapshotId_ = value;
+                onChanged();
                 return this;
             }
 
             /**
-             * <code>.InitBranch init_branch = 1;</code>
+             * <code>uint32 snapshot_id = 1;</code>
              */
-            public Builder setInitBranch(InitBranch value) {
-                if (initBranchBuilder_ == null) {
-                    if (value == null) {
-                        throw new NullPointerException();
-                    }
-                    branchMessage_ = value;
-                    onChanged();
-                } else {
-                    initBranchBuilder_.setMessage(value);
-                }
-                branchMessageCase_ = 1;
+            public Builder clearSnapshotId() {
+
+                snapshotId_ = 0;
+                onChanged();
                 return this;
             }
 
-            /**
-             * <code>.InitBranch init_branch = 1;</code>
-             */
-            public Builder mergeInitBranch(InitBranch value) {
-                if (initBranchBuilder_ == null) {
-                    if (branchMessageCase_ == 1 &&
-                            branchMessage_ != InitBranch.getDefaultInstance()) {
-                        branchMessage_ = InitBranch.newBuilder((InitBranch) branchMessage_)
-                                .mergeFrom(value).buildPartial();
-                    } else {
-                        branchMessage_ = value;
-                    }
-                    onChanged();
-                } else {
+            public final Builder setUnknownFields(
+                    final com.google.protobuf.UnknownFieldSet unknownFields) {
+                return super.setUnknownFieldsProto3(unknownFields);
+            }
+
+            public final Builder mergeUnknownFields(
+                    final com.google.protobuf.UnknownFieldSet unknownFields) {
+                return super.mergeUnknownFields(unknownFields);
+            }
+
+
+            // @@protoc_insertion_point(builder_scope:SnapshotComplete)
+        }
+
+    }
+
+    /**
+     * Protobuf type {@code TransferBatch}
+     */
+    public static final class TransferBatch extends
+            com.google.protobuf.GeneratedMessageV3 implements
+            // @@protoc_insertion_point(message_implements:TransferBatch)
+            TransferBatchOrBuilder {
+        public static final int COUNT_FIELD_NUMBER = 1;
+        public static final int SUM_FIELD_NUMBER = 2;
+        private static final long serialVersionUID = 0L;
+        // @@protoc_insertion_point(class_scope:TransferBatch)
+        private static final TransferBatch DEFAULT_INSTANCE;
+        private static final com.google.protobuf.Parser<TransferBatch>
+                PARSER = new com.google.protobuf.AbstractParser<TransferBatch>() {
+            public TransferBatch parsePartialFrom(
+                    com.google.protobuf.CodedInputStream input,
+                    com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                    throws com.google.protobuf.InvalidProtocolBufferException {
+                return new TransferBatch(input, extensionRegistry);
+            }
+        };
+
+        static {
+            DEFAULT_INSTANCE = new TransferBatch();
+        }
+
+        private int count_;
+        private int sum_;
+        private byte memoizedIsInitialized = -1;
+
+        // Use TransferBatch.newBuilder() to construct.
+        private TransferBatch(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+            super(builder);
+        }
+
+        private TransferBatch() {
+            count_ = 0;
+            sum_ = 0;
+        }
+
+        private TransferBatch(
+                com.google.protobuf.CodedInputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            this();
+            int mutable_bitField0_ = 0;
+            com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+                    com.google.protobuf.UnknownFieldSet.newBuilder();
+            try {
+                boolean done = false;
+                while (!done) {
+                    int tag = input.readTag();
+                    switch (tag) {
+                        case 0:
+                            done = true;
+                            break;
+                        default: {
+                            if (!parseUnknownFieldProto3(
+                                    input, unknownFields, extensionRegistry, tag)) {
+                                done = true;
+                            }
+                            break;
+                        }
+                        case 8: {
+
+                            count_ = input.readUInt32();
+                            break;
+                        }
+                        case 16: {
+
+                            sum_ = input.readUInt32();
+                            break;
+                        }
+                    }
+                }
+            } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+                throw e.setUnfinishedMessage(this);
+            } catch (java.io.IOException e) {
+                throw new com.google.protobuf.InvalidProtocolBufferException(
+                        e).setUnfinishedMessage(this);
+            } finally {
+                this.unknownFields = unknownFields.build();
+                makeExtensionsImmutable();
+            }
+        }
+
+        public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+            return Bank.internal_static_TransferBatch_descriptor;
+        }
+
+        public static TransferBatch parseFrom(
+                java.nio.ByteBuffer data)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data);
+        }
+
+        public static TransferBatch parseFrom(
+                java.nio.ByteBuffer data,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data, extensionRegistry);
+        }
+
+        public static TransferBatch parseFrom(
+                com.google.protobuf.ByteString data)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data);
+        }
+
+        public static TransferBatch parseFrom(
+                com.google.protobuf.ByteString data,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data, extensionRegistry);
+        }
+
+        public static TransferBatch parseFrom(byte[] data)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data);
+        }
+
+        public static TransferBatch parseFrom(
+                byte[] data,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data, extensionRegistry);
+        }
+
+        public static TransferBatch parseFrom(java.io.InputStream input)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input);
+        }
+
+        public static TransferBatch parseFrom(
+                java.io.InputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input, extensionRegistry);
+        }
+
+        public static TransferBatch parseDelimitedFrom(java.io.InputStream input)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseDelimitedWithIOException(PARSER, input);
+        }
+
+        public static TransferBatch parseDelimitedFrom(
+                java.io.InputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+        }
+
+        public static TransferBatch parseFrom(
+                com.google.protobuf.CodedInputStream input)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input);
+        }
+
+        public static TransferBatch parseFrom(
+                com.google.protobuf.CodedInputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input, extensionRegistry);
+        }
+
+        public static Builder newBuilder() {
+            return DEFAULT_INSTANCE.toBuilder();
+        }
+
+        public static Builder newBuilder(TransferBatch prototype) {
+            return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+        }
+
+        public static TransferBatch getDefaultInstance() {
+            return DEFAULT_INSTANCE;
+        }
+
+        public static com.google.protobuf.Parser<TransferBatch> parser() {
+            return PARSER;
+        }
+
+        @Override
+        public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+            return this.unknownFields;
+        }
+
+        protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+            return Bank.internal_static_TransferBatch_fieldAccessorTable
+                    .ensureFieldAccessorsInitialized(
+                            TransferBatch.class, Builder.class);
+        }
+
+        /**
+         * <code>uint32 count = 1;</code>
+         */
+        public int getCount() {
+            return count_;
+        }
+
+        /**
+         * <code>uint32 sum = 2;</code>
+         */
+        public int getSum() {
+            return sum_;
+        }
+
+        public final boolean isInitialized() {
+            byte isInitialized = memoizedIsInitialized;
+            if (isInitialized == 1) return true;
+            if (isInitialized == 0) return false;
+
+            memoizedIsInitialized = 1;
+            return true;
+        }
+
+        public void writeTo(com.google.protobuf.CodedOutputStream output)
+                throws java.io.IOException {
+            if (count_ != 0) {
+                output.writeUInt32(1, count_);
+            }
+            if (sum_ != 0) {
+                output.writeUInt32(2, sum_);
+            }
+            unknownFields.writeTo(output);
+        }
+
+        public int getSerializedSize() {
+            int size = memoizedSize;
+            if (size != -1) return size;
+
+            size = 0;
+            if (count_ != 0) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeUInt32Size(1, count_);
+            }
+            if (sum_ != 0) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeUInt32Size(2, sum_);
+            }
+            size += unknownFields.getSerializedSize();
+            memoizedSize = size;
+            return size;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof TransferBatch)) {
+                return super.equals(obj);
+            }
+            TransferBatch other = (TransferBatch) obj;
+
+            boolean result = true;
+            result = result && (getCount()
+                    == other.getCount());
+            result = result && (getSum()
+                    == other.getSum());
+            result = result && unknownFields.equals(other.unknownFields);
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            if (memoizedHashCode != 0) {
+                return memoizedHashCode;
+            }
+            int hash = 41;
+            hash = (19 * hash) + getDescriptor().hashCode();
+            hash = (37 * hash) + COUNT_FIELD_NUMBER;
+            hash = (53 * hash) + getCount();
+            hash = (37 * hash) + SUM_FIELD_NUMBER;
+            hash = (53 * hash) + getSum();
+            hash = (29 * hash) + unknownFields.hashCode();
+            memoizedHashCode = hash;
+            return hash;
+        }
+
+        public Builder newBuilderForType() {
+            return newBuilder();
+        }
+
+        public Builder toBuilder() {
+            return this == DEFAULT_INSTANCE
+                    ? new Builder() : new Builder().mergeFrom(this);
+        }
+
+        @Override
+        protected Builder newBuilderForType(
+                com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+            Builder builder = new Builder(parent);
+            return builder;
+        }
+
+        @Override
+        public com.google.protobuf.Parser<TransferBatch> getParserForType() {
+            return PARSER;
+        }
+
+        public TransferBatch getDefaultInstanceForType() {
+            return DEFAULT_INSTANCE;
+        }
+
+        /**
+         * Protobuf type {@code TransferBatch}
+         */
+        public static final class Builder extends
+                com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+                // @@protoc_insertion_point(builder_implements:TransferBatch)
+                TransferBatchOrBuilder {
+            private int count_;
+            private int sum_;
+
+            // Construct using Bank.TransferBatch.newBuilder()
+            private Builder() {
+                maybeForceBuilderInitialization();
+            }
+
+            private Builder(
+                    com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+                super(parent);
+                maybeForceBuilderInitialization();
+            }
+
+            public static final com.google.protobuf.Descriptors.Descriptor
+            getDescriptor() {
+                return Bank.internal_static_TransferBatch_descriptor;
+            }
+
+            protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+            internalGetFieldAccessorTable() {
+                return Bank.internal_static_TransferBatch_fieldAccessorTable
+                        .ensureFieldAccessorsInitialized(
+                                TransferBatch.class, Builder.class);
+            }
+
+            private void maybeForceBuilderInitialization() {
+                if (com.google.protobuf.GeneratedMessageV3
+                        .alwaysUseFieldBuilders) {
+                }
+            }
+
+            public Builder clear() {
+                super.clear();
+                count_ = 0;
+
+                sum_ = 0;
+
+                return this;
+            }
+
+            public com.google.protobuf.Descriptors.Descriptor
+            getDescriptorForType() {
+                return Bank.internal_static_TransferBatch_descriptor;
+            }
+
+            public TransferBatch getDefaultInstanceForType() {
+                return TransferBatch.getDefaultInstance();
+            }
+
+            public TransferBatch build() {
+                TransferBatch result = buildPartial();
+                if (!result.isInitialized()) {
+                    throw newUninitializedMessageException(result);
+                }
+                return result;
+            }
+
+            public TransferBatch buildPartial() {
+                TransferBatch result = new TransferBatch(this);
+                result.count_ = count_;
+                result.sum_ = sum_;
+                onBuilt();
+                return result;
+            }
+
+            public Builder clone() {
+                return (Builder) super.clone();
+            }
+
+            public Builder setField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field,
+                    Object value) {
+                return (Builder) super.setField(field, value);
+            }
+
+            public Builder clearField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field) {
+                return (Builder) super.clearField(field);
+            }
+
+            public Builder clearOneof(
+                    com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+                return (Builder) super.clearOneof(oneof);
+            }
+
+            public Builder setRepeatedField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field,
+                    int index, Object value) {
+                return (Builder) super.setRepeatedField(field, index, value);
+            }
+
+            public Builder addRepeatedField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field,
+                    Object value) {
+                return (Builder) super.addRepeatedField(field, value);
+            }
+
+            public Builder mergeFrom(com.google.protobuf.Message other) {
+                if (other instanceof TransferBatch) {
+                    return mergeFrom((TransferBatch) other);
+                } else {
+                    super.mergeFrom(other);
+                    return this;
+                }
+            }
+
+            public Builder mergeFrom(TransferBatch other) {
+                if (other == TransferBatch.getDefaultInstance()) return this;
+                if (other.getCount() != 0) {
+                    setCount(other.getCount());
+                }
+                if (other.getSum() != 0) {
+                    setSum(other.getSum());
+                }
+                this.mergeUnknownFields(other.unknownFields);
+                onChanged();
+                return this;
+            }
+
+            public final boolean isInitialized() {
+                return true;
+            }
+
+            public Builder mergeFrom(
+                    com.google.protobuf.CodedInputStream input,
+                    com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                    throws java.io.IOException {
+                TransferBatch parsedMessage = null;
+                try {
+                    parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+                } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+                    parsedMessage = (TransferBatch) e.getUnfinishedMessage();
+                    throw e.unwrapIOException();
+                } finally {
+                    if (parsedMessage != null) {
+                        mergeFrom(parsedMessage);
+                    }
+                }
+                return this;
+            }
+
+            /**
+             * <code>uint32 count = 1;</code>
+             */
+            public int getCount() {
+                return count_;
+            }
+
+            /**
+             * <code>uint32 count = 1;</code>
+             */
+            public Builder setCount(int value) {
+
+                count_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint32 count = 1;</code>
+             */
+            public Builder clearCount() {
+
+                count_ = 0;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint32 sum = 2;</code>
+             */
+            public int getSum() {
+                return sum_;
+            }
+
+            /**
+             * <code>uint32 sum = 2;</code>
+             */
+            public Builder setSum(int value) {
+
+                sum_ = value;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>uint32 sum = 2;</code>
+             */
+            public Builder clearSum() {
+
+                sum_ = 0;
+                onChanged();
+                return this;
+            }
+
+            public final Builder setUnknownFields(
+                    final com.google.protobuf.UnknownFieldSet unknownFields) {
+                return super.setUnknownFieldsProto3(unknownFields);
+            }
+
+            public final Builder mergeUnknownFields(
+                    final com.google.protobuf.UnknownFieldSet unknownFields) {
+                return super.mergeUnknownFields(unknownFields);
+            }
+
+
+            // @@protoc_insertion_point(builder_scope:TransferBatch)
+        }
+
+    }
+
+    /**
+     * Protobuf type {@code BranchMessage}
+     */
+    public static final class BranchMessage extends
+            com.google.protobuf.GeneratedMessageV3 implements
+            // @@protoc_insertion_point(message_implements:BranchMessage)
+            BranchMessageOrBuilder {
+        public static final int INIT_BRANCH_FIELD_NUMBER = 1;
+        public static final int TRANSFER_FIELD_NUMBER = 2;
+        public static final int INIT_SNAPSHOT_FIELD_NUMBER = 3;
+        public static final int MARKER_FIELD_NUMBER = 4;
+        public static final int RETRIEVE_SNAPSHOT_FIELD_NUMBER = 5;
+        public static final int RETURN_SNAPSHOT_FIELD_NUMBER = 6;
+        public static final int SNAPSHOT_COMPLETE_FIELD_NUMBER = 7;
+        public static final int TRANSFER_BATCH_FIELD_NUMBER = 8;
+        public static final int MESH_READY_FIELD_NUMBER = 9;
+        private static final long serialVersionUID = 0L;
+        // @@protoc_insertion_point(class_scope:BranchMessage)
+        private static final BranchMessage DEFAULT_INSTANCE;
+        private static final com.google.protobuf.Parser<BranchMessage>
+                PARSER = new com.google.protobuf.AbstractParser<BranchMessage>() {
+            public BranchMessage parsePartialFrom(
+                    com.google.protobuf.CodedInputStream input,
+                    com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                    throws com.google.protobuf.InvalidProtocolBufferException {
+                return new BranchMessage(input, extensionRegistry);
+            }
+        };
+
+        static {
+            DEFAULT_INSTANCE = new BranchMessage();
+        }
+
+        ;
+
+        private int branchMessageCase_ = 0;
+        private Object branchMessage_;
+        private byte memoizedIsInitialized = -1;
+
+        // Use BranchMessage.newBuilder() to construct.
+        private BranchMessage(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+            super(builder);
+        }
+
+        private BranchMessage() {
+        }
+
+        private BranchMessage(
+                com.google.protobuf.CodedInputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            this();
+            int mutable_bitField0_ = 0;
+            com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+                    com.google.protobuf.UnknownFieldSet.newBuilder();
+            try {
+                boolean done = false;
+                while (!done) {
+                    int tag = input.readTag();
+                    switch (tag) {
+                        case 0:
+                            done = true;
+                            break;
+                        default: {
+                            if (!parseUnknownFieldProto3(
+                                    input, unknownFields, extensionRegistry, tag)) {
+                                done = true;
+                            }
+                            break;
+                        }
+                        case 10: {
+                            InitBranch.Builder subBuilder = null;
+                            if (branchMessageCase_ == 1) {
+                                subBuilder = ((InitBranch) branchMessage_).toBuilder();
+                            }
+                            branchMessage_ =
+                                    input.readMessage(InitBranch.parser(), extensionRegistry);
+                            if (subBuilder != null) {
+                                subBuilder.mergeFrom((InitBranch) branchMessage_);
+                                branchMessage_ = subBuilder.buildPartial();
+                            }
+                            branchMessageCase_ = 1;
+                            break;
+                        }
+                        case 18: {
+                            Transfer.Builder subBuilder = null;
+                            if (branchMessageCase_ == 2) {
+                                subBuilder = ((Transfer) branchMessage_).toBuilder();
+                            }
+                            branchMessage_ =
+                                    input.readMessage(Transfer.parser(), extensionRegistry);
+                            if (subBuilder != null) {
+                                subBuilder.mergeFrom((Transfer) branchMessage_);
+                                branchMessage_ = subBuilder.buildPartial();
+                            }
+                            branchMessageCase_ = 2;
+                            break;
+                        }
+                        case 26: {
+                            InitSnapshot.Builder subBuilder = null;
+                            if (branchMessageCase_ == 3) {
+                                subBuilder = ((InitSnapshot) branchMessage_).toBuilder();
+                            }
+                            branchMessage_ =
+                                    input.readMessage(InitSnapshot.parser(), extensionRegistry);
+                            if (subBuilder != null) {
+                                subBuilder.mergeFrom((InitSnapshot) branchMessage_);
+                                branchMessage_ = subBuilder.buildPartial();
+                            }
+                            branchMessageCase_ = 3;
+                            break;
+                        }
+                        case 34: {
+                            Marker.Builder subBuilder = null;
+                            if (branchMessageCase_ == 4) {
+                                subBuilder = ((Marker) branchMessage_).toBuilder();
+                            }
+                            branchMessage_ =
+                                    input.readMessage(Marker.parser(), extensionRegistry);
+                            if (subBuilder != null) {
+                                subBuilder.mergeFrom((Marker) branchMessage_);
+                                branchMessage_ = subBuilder.buildPartial();
+                            }
+                            branchMessageCase_ = 4;
+                            break;
+                        }
+                        case 42: {
+                            RetrieveSnapshot.Builder subBuilder = null;
+                            if (branchMessageCase_ == 5) {
+                                subBuilder = ((RetrieveSnapshot) branchMessage_).toBuilder();
+                            }
+                            branchMessage_ =
+                                    input.readMessage(RetrieveSnapshot.parser(), extensionRegistry);
+                            if (subBuilder != null) {
+                                subBuilder.mergeFrom((RetrieveSnapshot) branchMessage_);
+                                branchMessage_ = subBuilder.buildPartial();
+                            }
+                            branchMessageCase_ = 5;
+                            break;
+                        }
+                        case 50: {
+                            ReturnSnapshot.Builder subBuilder = null;
+                            if (branchMessageCase_ == 6) {
+                                subBuilder = ((ReturnSnapshot) branchMessage_).toBuilder();
+                            }
+                            branchMessage_ =
+                                    input.readMessage(ReturnSnapshot.parser(), extensionRegistry);
+                            if (subBuilder != null) {
+                                subBuilder.mergeFrom((ReturnSnapshot) branchMessage_);
+                                branchMessage_ = subBuilder.buildPartial();
+                            }
+                            branchMessageCase_ = 6;
+                            break;
+                        }
+                        case 58: {
+                            SnapshotComplete.Builder subBuilder = null;
+                            if (branchMessageCase_ == 7) {
+                                subBuilder = ((SnapshotComplete) branchMessage_).toBuilder();
+                            }
+                            branchMessage_ =
+                                    input.readMessage(SnapshotComplete.parser(), extensionRegistry);
+                            if (subBuilder != null) {
+                                subBuilder.mergeFrom((SnapshotComplete) branchMessage_);
+                                branchMessage_ = subBuilder.buildPartial();
+                            }
+                            branchMessageCase_ = 7;
+                            break;
+                        }
+                        case 66: {
+                            TransferBatch.Builder subBuilder = null;
+                            if (branchMessageCase_ == 8) {
+                                subBuilder = ((TransferBatch) branchMessage_).toBuilder();
+                            }
+                            branchMessage_ =
+                                    input.readMessage(TransferBatch.parser(), extensionRegistry);
+                            if (subBuilder != null) {
+                                subBuilder.mergeFrom((TransferBatch) branchMessage_);
+                                branchMessage_ = subBuilder.buildPartial();
+                            }
+                            branchMessageCase_ = 8;
+                            break;
+                        }
+                        case 74: {
+                            MeshReady.Builder subBuilder = null;
+                            if (branchMessageCase_ == 9) {
+                                subBuilder = ((MeshReady) branchMessage_).toBuilder();
+                            }
+                            branchMessage_ =
+                                    input.readMessage(MeshReady.parser(), extensionRegistry);
+                            if (subBuilder != null) {
+                                subBuilder.mergeFrom((MeshReady) branchMessage_);
+                                branchMessage_ = subBuilder.buildPartial();
+                            }
+                            branchMessageCase_ = 9;
+                            break;
+                        }
+                    }
+                }
+            } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+                throw e.setUnfinishedMessage(this);
+            } catch (java.io.IOException e) {
+                throw new com.google.protobuf.InvalidProtocolBufferException(
+                        e).setUnfinishedMessage(this);
+            } finally {
+                this.unknownFields = unknownFields.build();
+                makeExtensionsImmutable();
+            }
+        }
+
+        public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+            return Bank.internal_static_BranchMessage_descriptor;
+        }
+
+        public static BranchMessage parseFrom(
+                java.nio.ByteBuffer data)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data);
+        }
+
+        public static BranchMessage parseFrom(
+                java.nio.ByteBuffer data,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data, extensionRegistry);
+        }
+
+        public static BranchMessage parseFrom(
+                com.google.protobuf.ByteString data)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data);
+        }
+
+        public static BranchMessage parseFrom(
+                com.google.protobuf.ByteString data,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data, extensionRegistry);
+        }
+
+        public static BranchMessage parseFrom(byte[] data)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data);
+        }
+
+        public static BranchMessage parseFrom(
+                byte[] data,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data, extensionRegistry);
+        }
+
+        public static BranchMessage parseFrom(java.io.InputStream input)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input);
+        }
+
+        public static BranchMessage parseFrom(
+                java.io.InputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input, extensionRegistry);
+        }
+
+        public static BranchMessage parseDelimitedFrom(java.io.InputStream input)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseDelimitedWithIOException(PARSER, input);
+        }
+
+        public static BranchMessage parseDelimitedFrom(
+                java.io.InputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+        }
+
+        public static BranchMessage parseFrom(
+                com.google.protobuf.CodedInputStream input)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input);
+        }
+
+        public static BranchMessage parseFrom(
+                com.google.protobuf.CodedInputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input, extensionRegistry);
+        }
+
+        public static Builder newBuilder() {
+            return DEFAULT_INSTANCE.toBuilder();
+        }
+
+        public static Builder newBuilder(BranchMessage prototype) {
+            return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+        }
+
+        public static BranchMessage getDefaultInstance() {
+            return DEFAULT_INSTANCE;
+        }
+
+        public static com.google.protobuf.Parser<BranchMessage> parser() {
+            return PARSER;
+        }
+
+        @Override
+        public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+            return this.unknownFields;
+        }
+
+        protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+            return Bank.internal_static_BranchMessage_fieldAccessorTable
+                    .ensureFieldAccessorsInitialized(
+                            BranchMessage.class, Builder.class);
+        }
+
+        public BranchMessageCase
+        getBranchMessageCase() {
+            return BranchMessageCase.forNumber(
+                    branchMessageCase_);
+        }
+
+        /**
+         * <code>.InitBranch init_branch = 1;</code>
+         */
+        public boolean hasInitBranch() {
+            return branchMessageCase_ == 1;
+        }
+
+        /**
+         * <code>.InitBranch init_branch = 1;</code>
+         */
+        public InitBranch getInitBranch() {
+            if (branchMessageCase_ == 1) {
+                return (InitBranch) branchMessage_;
+            }
+            return InitBranch.getDefaultInstance();
+        }
+
+        /**
+         * <code>.InitBranch init_branch = 1;</code>
+         */
+        public InitBranchOrBuilder getInitBranchOrBuilder() {
+            if (branchMessageCase_ == 1) {
+                return (InitBranch) branchMessage_;
+            }
+            return InitBranch.getDefaultInstance();
+        }
+
+        /**
+         * <code>.Transfer transfer = 2;</code>
+         */
+        public boolean hasTransfer() {
+            return branchMessageCase_ == 2;
+        }
+
+        /**
+         * <code>.Transfer transfer = 2;</code>
+         */
+        public Transfer getTransfer() {
+            if (branchMessageCase_ == 2) {
+                return (Transfer) branchMessage_;
+            }
+            return Transfer.getDefaultInstance();
+        }
+
+        /**
+         * <code>.Transfer transfer = 2;</code>
+         */
+        public TransferOrBuilder getTransferOrBuilder() {
+            if (branchMessageCase_ == 2) {
+                return (Transfer) branchMessage_;
+            }
+            return Transfer.getDefaultInstance();
+        }
+
+        /**
+         * <code>.InitSnapshot init_snapshot = 3;</code>
+         */
+        public boolean hasInitSnapshot() {
+            return branchMessageCase_ == 3;
+        }
+
+        /**
+         * <code>.InitSnapshot init_snapshot = 3;</code>
+         */
+        public InitSnapshot getInitSnapshot() {
+            if (branchMessageCase_ == 3) {
+                return (InitSnapshot) branchMessage_;
+            }
+            return InitSnapshot.getDefaultInstance();
+        }
+
+        /**
+         * <code>.InitSnapshot init_snapshot = 3;</code>
+         */
+        public InitSnapshotOrBuilder getInitSnapshotOrBuilder() {
+            if (branchMessageCase_ == 3) {
+                return (InitSnapshot) branchMessage_;
+            }
+            return InitSnapshot.getDefaultInstance();
+        }
+
+        /**
+         * <code>.Marker marker = 4;</code>
+         */
+        public boolean hasMarker() {
+            return branchMessageCase_ == 4;
+        }
+
+        /**
+         * <code>.Marker marker = 4;</code>
+         */
+        public Marker getMarker() {
+            if (branchMessageCase_ == 4) {
+                return (Marker) branchMessage_;
+            }
+            return Marker.getDefaultInstance();
+        }
+
+        /**
+         * <code>.Marker marker = 4;</code>
+         */
+        public MarkerOrBuilder getMarkerOrBuilder() {
+            if (branchMessageCase_ == 4) {
+                return (Marker) branchMessage_;
+            }
+            return Marker.getDefaultInstance();
+        }
+
+        /**
+         * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+         */
+        public boolean hasRetrieveSnapshot() {
+            return branchMessageCase_ == 5;
+        }
+
+        /**
+         * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+         */
+        public RetrieveSnapshot getRetrieveSnapshot() {
+            if (branchMessageCase_ == 5) {
+                return (RetrieveSnapshot) branchMessage_;
+            }
+            return RetrieveSnapshot.getDefaultInstance();
+        }
+
+        /**
+         * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+         */
+        public RetrieveSnapshotOrBuilder getRetrieveSnapshotOrBuilder() {
+            if (branchMessageCase_ == 5) {
+                return (RetrieveSnapshot) branchMessage_;
+            }
+            return RetrieveSnapshot.getDefaultInstance();
+        }
+
+        /**
+         * <code>.ReturnSnapshot return_snapshot = 6;</code>
+         */
+        public boolean hasReturnSnapshot() {
+            return branchMessageCase_ == 6;
+        }
+
+        /**
+         * <code>.ReturnSnapshot return_snapshot = 6;</code>
+         */
+        public ReturnSnapshot getReturnSnapshot() {
+            if (branchMessageCase_ == 6) {
+                return (ReturnSnapshot) branchMessage_;
+            }
+            return ReturnSnapshot.getDefaultInstance();
+        }
+
+        /**
+         * <code>.ReturnSnapshot return_snapshot = 6;</code>
+         */
+        public ReturnSnapshotOrBuilder getReturnSnapshotOrBuilder() {
+            if (branchMessageCase_ == 6) {
+                return (ReturnSnapshot) branchMessage_;
+            }
+            return ReturnSnapshot.getDefaultInstance();
+        }
+
+        /**
+         * <code>.SnapshotComplete snapshot_complete = 7;</code>
+         */
+        public boolean hasSnapshotComplete() {
+            return branchMessageCase_ == 7;
+        }
+
+        /**
+         * <code>.SnapshotComplete snapshot_complete = 7;</code>
+         */
+        public SnapshotComplete getSnapshotComplete() {
+            if (branchMessageCase_ == 7) {
+                return (SnapshotComplete) branchMessage_;
+            }
+            return SnapshotComplete.getDefaultInstance();
+        }
+
+        /**
+         * <code>.SnapshotComplete snapshot_complete = 7;</code>
+         */
+        public SnapshotCompleteOrBuilder getSnapshotCompleteOrBuilder() {
+            if (branchMessageCase_ == 7) {
+                return (SnapshotComplete) branchMessage_;
+            }
+            return SnapshotComplete.getDefaultInstance();
+        }
+
+        /**
+         * <code>.TransferBatch transfer_batch = 8;</code>
+         */
+        public boolean hasTransferBatch() {
+            return branchMessageCase_ == 8;
+        }
+
+        /**
+         * <code>.TransferBatch transfer_batch = 8;</code>
+         */
+        public TransferBatch getTransferBatch() {
+            if (branchMessageCase_ == 8) {
+                return (TransferBatch) branchMessage_;
+            }
+            return TransferBatch.getDefaultInstance();
+        }
+
+        /**
+         * <code>.TransferBatch transfer_batch = 8;</code>
+         */
+        public TransferBatchOrBuilder getTransferBatchOrBuilder() {
+            if (branchMessageCase_ == 8) {
+                return (TransferBatch) branchMessage_;
+            }
+            return TransferBatch.getDefaultInstance();
+        }
+
+        /**
+         * <code>.MeshReady mesh_ready = 9;</code>
+         */
+        public boolean hasMeshReady() {
+            return branchMessageCase_ == 9;
+        }
+
+        /**
+         * <code>.MeshReady mesh_ready = 9;</code>
+         */
+        public MeshReady getMeshReady() {
+            if (branchMessageCase_ == 9) {
+                return (MeshReady) branchMessage_;
+            }
+            return MeshReady.getDefaultInstance();
+        }
+
+        /**
+         * <code>.MeshReady mesh_ready = 9;</code>
+         */
+        public MeshReadyOrBuilder getMeshReadyOrBuilder() {
+            if (branchMessageCase_ == 9) {
+                return (MeshReady) branchMessage_;
+            }
+            return MeshReady.getDefaultInstance();
+        }
+
+        public final boolean isInitialized() {
+            byte isInitialized = memoizedIsInitialized;
+            if (isInitialized == 1) return true;
+            if (isInitialized == 0) return false;
+
+            memoizedIsInitialized = 1;
+            return true;
+        }
+
+        public void writeTo(com.google.protobuf.CodedOutputStream output)
+                throws java.io.IOException {
+            if (branchMessageCase_ == 1) {
+                output.writeMessage(1, (InitBranch) branchMessage_);
+            }
+            if (branchMessageCase_ == 2) {
+                output.writeMessage(2, (Transfer) branchMessage_);
+            }
+            if (branchMessageCase_ == 3) {
+                output.writeMessage(3, (InitSnapshot) branchMessage_);
+            }
+            if (branchMessageCase_ == 4) {
+                output.writeMessage(4, (Marker) branchMessage_);
+            }
+            if (branchMessageCase_ == 5) {
+                output.writeMessage(5, (RetrieveSnapshot) branchMessage_);
+            }
+            if (branchMessageCase_ == 6) {
+                output.writeMessage(6, (ReturnSnapshot) branchMessage_);
+            }
+            if (branchMessageCase_ == 7) {
+                output.writeMessage(7, (SnapshotComplete) branchMessage_);
+            }
+            if (branchMessageCase_ == 8) {
+                output.writeMessage(8, (TransferBatch) branchMessage_);
+            }
+            if (branchMessageCase_ == 9) {
+                output.writeMessage(9, (MeshReady) branchMessage_);
+            }
+            unknownFields.writeTo(output);
+        }
+
+        public int getSerializedSize() {
+            int size = memoizedSize;
+            if (size != -1) return size;
+
+            size = 0;
+            if (branchMessageCase_ == 1) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeMessageSize(1, (InitBranch) branchMessage_);
+            }
+            if (branchMessageCase_ == 2) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeMessageSize(2, (Transfer) branchMessage_);
+            }
+            if (branchMessageCase_ == 3) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeMessageSize(3, (InitSnapshot) branchMessage_);
+            }
+            if (branchMessageCase_ == 4) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeMessageSize(4, (Marker) branchMessage_);
+            }
+            if (branchMessageCase_ == 5) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeMessageSize(5, (RetrieveSnapshot) branchMessage_);
+            }
+            if (branchMessageCase_ == 6) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeMessageSize(6, (ReturnSnapshot) branchMessage_);
+            }
+            if (branchMessageCase_ == 7) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeMessageSize(7, (SnapshotComplete) branchMessage_);
+            }
+            if (branchMessageCase_ == 8) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeMessageSize(8, (TransferBatch) branchMessage_);
+            }
+            if (branchMessageCase_ == 9) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeMessageSize(9, (MeshReady) branchMessage_);
+            }
+            size += unknownFields.getSerializedSize();
+            memoizedSize = size;
+            return size;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof BranchMessage)) {
+                return super.equals(obj);
+            }
+            BranchMessage other = (BranchMessage) obj;
+
+            boolean result = true;
+            result = result && getBranchMessageCase().equals(
+                    other.getBranchMessageCase());
+            if (!result) return false;
+            switch (branchMessageCase_) {
+                case 1:
+                    result = result && getInitBranch()
+                            .equals(other.getInitBranch());
+                    break;
+                case 2:
+                    result = result && getTransfer()
+                            .equals(other.getTransfer());
+                    break;
+                case 3:
+                    result = result && getInitSnapshot()
+                            .equals(other.getInitSnapshot());
+                    break;
+                case 4:
+                    result = result && getMarker()
+                            .equals(other.getMarker());
+                    break;
+                case 5:
+                    result = result && getRetrieveSnapshot()
+                            .equals(other.getRetrieveSnapshot());
+                    break;
+                case 6:
+                    result = result && getReturnSnapshot()
+                            .equals(other.getReturnSnapshot());
+                    break;
+                case 7:
+                    result = result && getSnapshotComplete()
+                            .equals(other.getSnapshotComplete());
+                    break;
+                case 8:
+                    result = result && getTransferBatch()
+                            .equals(other.getTransferBatch());
+                    break;
+                case 9:
+                    result = result && getMeshReady()
+                            .equals(other.getMeshReady());
+                    break;
+                case 0:
+                default:
+            }
+            result = result && unknownFields.equals(other.unknownFields);
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            if (memoizedHashCode != 0) {
+                return memoizedHashCode;
+            }
+            int hash = 41;
+            hash = (19 * hash) + getDescriptor().hashCode();
+            switch (branchMessageCase_) {
+                case 1:
+                    hash = (37 * hash) + INIT_BRANCH_FIELD_NUMBER;
+                    hash = (53 * hash) + getInitBranch().hashCode();
+                    break;
+                case 2:
+                    hash = (37 * hash) + TRANSFER_FIELD_NUMBER;
+                    hash = (53 * hash) + getTransfer().hashCode();
+                    break;
+                case 3:
+                    hash = (37 * hash) + INIT_SNAPSHOT_FIELD_NUMBER;
+                    hash = (53 * hash) + getInitSnapshot().hashCode();
+                    break;
+                case 4:
+                    hash = (37 * hash) + MARKER_FIELD_NUMBER;
+                    hash = (53 * hash) + getMarker().hashCode();
+                    break;
+                case 5:
+                    hash = (37 * hash) + RETRIEVE_SNAPSHOT_FIELD_NUMBER;
+                    hash = (53 * hash) + getRetrieveSnapshot().hashCode();
+                    break;
+                case 6:
+                    hash = (37 * hash) + RETURN_SNAPSHOT_FIELD_NUMBER;
+                    hash = (53 * hash) + getReturnSnapshot().hashCode();
+                    break;
+                case 7:
+                    hash = (37 * hash) + SNAPSHOT_COMPLETE_FIELD_NUMBER;
+                    hash = (53 * hash) + getSnapshotComplete().hashCode();
+                    break;
+                case 8:
+                    hash = (37 * hash) + TRANSFER_BATCH_FIELD_NUMBER;
+                    hash = (53 * hash) + getTransferBatch().hashCode();
+                    break;
+                case 9:
+                    hash = (37 * hash) + MESH_READY_FIELD_NUMBER;
+                    hash = (53 * hash) + getMeshReady().hashCode();
+                    break;
+                case 0:
+                default:
+            }
+            hash = (29 * hash) + unknownFields.hashCode();
+            memoizedHashCode = hash;
+            return hash;
+        }
+
+        public Builder newBuilderForType() {
+            return newBuilder();
+        }
+
+        public Builder toBuilder() {
+            return this == DEFAULT_INSTANCE
+                    ? new Builder() : new Builder().mergeFrom(this);
+        }
+
+        @Override
+        protected Builder newBuilderForType(
+                com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+            Builder builder = new Builder(parent);
+            return builder;
+        }
+
+        @Override
+        public com.google.protobuf.Parser<BranchMessage> getParserForType() {
+            return PARSER;
+        }
+
+        public BranchMessage getDefaultInstanceForType() {
+            return DEFAULT_INSTANCE;
+        }
+
+        public enum BranchMessageCase
+                implements com.google.protobuf.Internal.EnumLite {
+            INIT_BRANCH(1),
+            TRANSFER(2),
+            INIT_SNAPSHOT(3),
+            MARKER(4),
+            RETRIEVE_SNAPSHOT(5),
+            RETURN_SNAPSHOT(6),
+            SNAPSHOT_COMPLETE(7),
+            TRANSFER_BATCH(8),
+            MESH_READY(9),
+            BRANCHMESSAGE_NOT_SET(0);
+            private final int value;
+
+            private BranchMessageCase(int value) {
+                this.value = value;
+            }
+
+            /**
+             * @deprecated Use {@link #forNumber(int)} instead.
+             */
+            @Deprecated
+            public static BranchMessageCase valueOf(int value) {
+                return forNumber(value);
+            }
+
+            public static BranchMessageCase forNumber(int value) {
+                switch (value) {
+                    case 1:
+                        return INIT_BRANCH;
+                    case 2:
+                        return TRANSFER;
+                    case 3:
+                        return INIT_SNAPSHOT;
+                    case 4:
+                        return MARKER;
+                    case 5:
+                        return RETRIEVE_SNAPSHOT;
+                    case 6:
+                        return RETURN_SNAPSHOT;
+                    case 7:
+                        return SNAPSHOT_COMPLETE;
+                    case 8:
+                        return TRANSFER_BATCH;
+                    case 9:
+                        return MESH_READY;
+                    case 0:
+                        return BRANCHMESSAGE_NOT_SET;
+                    default:
+                        return null;
+                }
+            }
+
+            public int getNumber() {
+                return this.value;
+            }
+        }
+
+        /**
+         * Protobuf type {@code BranchMessage}
+         */
+        public static final class Builder extends
+                com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+                // @@protoc_insertion_point(builder_implements:BranchMessage)
+                BranchMessageOrBuilder {
+            private int branchMessageCase_ = 0;
+            private Object branchMessage_;
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    InitBranch, InitBranch.Builder, InitBranchOrBuilder> initBranchBuilder_;
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    Transfer, Transfer.Builder, TransferOrBuilder> transferBuilder_;
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    InitSnapshot, InitSnapshot.Builder, InitSnapshotOrBuilder> initSnapshotBuilder_;
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    Marker, Marker.Builder, MarkerOrBuilder> markerBuilder_;
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    RetrieveSnapshot, RetrieveSnapshot.Builder, RetrieveSnapshotOrBuilder> retrieveSnapshotBuilder_;
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    ReturnSnapshot, ReturnSnapshot.Builder, ReturnSnapshotOrBuilder> returnSnapshotBuilder_;
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    SnapshotComplete, SnapshotComplete.Builder, SnapshotCompleteOrBuilder> snapshotCompleteBuilder_;
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    TransferBatch, TransferBatch.Builder, TransferBatchOrBuilder> transferBatchBuilder_;
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    MeshReady, MeshReady.Builder, MeshReadyOrBuilder> meshReadyBuilder_;
+
+            // Construct using Bank.BranchMessage.newBuilder()
+            private Builder() {
+                maybeForceBuilderInitialization();
+            }
+
+            private Builder(
+                    com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+                super(parent);
+                maybeForceBuilderInitialization();
+            }
+
+            public static final com.google.protobuf.Descriptors.Descriptor
+            getDescriptor() {
+                return Bank.internal_static_BranchMessage_descriptor;
+            }
+
+            protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+            internalGetFieldAccessorTable() {
+                return Bank.internal_static_BranchMessage_fieldAccessorTable
+                        .ensureFieldAccessorsInitialized(
+                                BranchMessage.class, Builder.class);
+            }
+
+            private void maybeForceBuilderInitialization() {
+                if (com.google.protobuf.GeneratedMessageV3
+                        .alwaysUseFieldBuilders) {
+                }
+            }
+
+            public Builder clear() {
+                super.clear();
+                branchMessageCase_ = 0;
+                branchMessage_ = null;
+                return this;
+            }
+
+            public com.google.protobuf.Descriptors.Descriptor
+            getDescriptorForType() {
+                return Bank.internal_static_BranchMessage_descriptor;
+            }
+
+            public BranchMessage getDefaultInstanceForType() {
+                return BranchMessage.getDefaultInstance();
+            }
+
+            public BranchMessage build() {
+                BranchMessage result = buildPartial();
+                if (!result.isInitialized()) {
+                    throw newUninitializedMessageException(result);
+                }
+                return result;
+            }
+
+            public BranchMessage buildPartial() {
+                BranchMessage result = new BranchMessage(this);
+                if (branchMessageCase_ == 1) {
+                    if (initBranchBuilder_ == null) {
+                        result.branchMessage_ = branchMessage_;
+                    } else {
+                        result.branchMessage_ = initBranchBuilder_.build();
+                    }
+                }
+                if (branchMessageCase_ == 2) {
+                    if (transferBuilder_ == null) {
+                        result.branchMessage_ = branchMessage_;
+                    } else {
+                        result.branchMessage_ = transferBuilder_.build();
+                    }
+                }
+                if (branchMessageCase_ == 3) {
+                    if (initSnapshotBuilder_ == null) {
+                        result.branchMessage_ = branchMessage_;
+                    } else {
+                        result.branchMessage_ = initSnapshotBuilder_.build();
+                    }
+                }
+                if (branchMessageCase_ == 4) {
+                    if (markerBuilder_ == null) {
+                        result.branchMessage_ = branchMessage_;
+                    } else {
+                        result.branchMessage_ = markerBuilder_.build();
+                    }
+                }
+                if (branchMessageCase_ == 5) {
+                    if (retrieveSnapshotBuilder_ == null) {
+                        result.branchMessage_ = branchMessage_;
+                    } else {
+                        result.branchMessage_ = retrieveSnapshotBuilder_.build();
+                    }
+                }
+                if (branchMessageCase_ == 6) {
+                    if (returnSnapshotBuilder_ == null) {
+                        result.branchMessage_ = branchMessage_;
+                    } else {
+                        result.branchMessage_ = returnSnapshotBuilder_.build();
+                    }
+                }
+                if (branchMessageCase_ == 7) {
+                    if (snapshotCompleteBuilder_ == null) {
+                        result.branchMessage_ = branchMessage_;
+                    } else {
+                        result.branchMessage_ = snapshotCompleteBuilder_.build();
+                    }
+                }
+                if (branchMessageCase_ == 8) {
+                    if (transferBatchBuilder_ == null) {
+                        result.branchMessage_ = branchMessage_;
+                    } else {
+                        result.branchMessage_ = transferBatchBuilder_.build();
+                    }
+                }
+                if (branchMessageCase_ == 9) {
+                    if (meshReadyBuilder_ == null) {
+                        result.branchMessage_ = branchMessage_;
+                    } else {
+                        result.branchMessage_ = meshReadyBuilder_.build();
+                    }
+                }
+                result.branchMessageCase_ = branchMessageCase_;
+                onBuilt();
+                return result;
+            }
+
+            public Builder clone() {
+                return (Builder) super.clone();
+            }
+
+            public Builder setField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field,
+                    Object value) {
+                return (Builder) super.setField(field, value);
+            }
+
+            public Builder clearField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field) {
+                return (Builder) super.clearField(field);
+            }
+
+            public Builder clearOneof(
+                    com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+                return (Builder) super.clearOneof(oneof);
+            }
+
+            public Builder setRepeatedField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field,
+                    int index, Object value) {
+                return (Builder) super.setRepeatedField(field, index, value);
+            }
+
+            public Builder addRepeatedField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field,
+                    Object value) {
+                return (Builder) super.addRepeatedField(field, value);
+            }
+
+            public Builder mergeFrom(com.google.protobuf.Message other) {
+                if (other instanceof BranchMessage) {
+                    return mergeFrom((BranchMessage) other);
+                } else {
+                    super.mergeFrom(other);
+                    return this;
+                }
+            }
+
+            public Builder mergeFrom(BranchMessage other) {
+                if (other == BranchMessage.getDefaultInstance()) return this;
+                switch (other.getBranchMessageCase()) {
+                    case INIT_BRANCH: {
+                        mergeInitBranch(other.getInitBranch());
+                        break;
+                    }
+                    case TRANSFER: {
+                        mergeTransfer(other.getTransfer());
+                        break;
+                    }
+                    case INIT_SNAPSHOT: {
+                        mergeInitSnapshot(other.getInitSnapshot());
+                        break;
+                    }
+                    case MARKER: {
+                        mergeMarker(other.getMarker());
+                        break;
+                    }
+                    case RETRIEVE_SNAPSHOT: {
+                        mergeRetrieveSnapshot(other.getRetrieveSnapshot());
+                        break;
+                    }
+                    case RETURN_SNAPSHOT: {
+                        mergeReturnSnapshot(other.getReturnSnapshot());
+                        break;
+                    }
+                    case SNAPSHOT_COMPLETE: {
+                        mergeSnapshotComplete(other.getSnapshotComplete());
+                        break;
+                    }
+                    case TRANSFER_BATCH: {
+                        mergeTransferBatch(other.getTransferBatch());
+                        break;
+                    }
+                    case MESH_READY: {
+                        mergeMeshReady(other.getMeshReady());
+                        break;
+                    }
+                    case BRANCHMESSAGE_NOT_SET: {
+                        break;
+                    }
+                }
+                this.mergeUnknownFields(other.unknownFields);
+                onChanged();
+                return this;
+            }
+
+            public final boolean isInitialized() {
+                return true;
+            }
+
+            public Builder mergeFrom(
+                    com.google.protobuf.CodedInputStream input,
+                    com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                    throws java.io.IOException {
+                BranchMessage parsedMessage = null;
+                try {
+                    parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+                } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+                    parsedMessage = (BranchMessage) e.getUnfinishedMessage();
+                    throw e.unwrapIOException();
+                } finally {
+                    if (parsedMessage != null) {
+                        mergeFrom(parsedMessage);
+                    }
+                }
+                return this;
+            }
+
+            public BranchMessageCase
+            getBranchMessageCase() {
+                return BranchMessageCase.forNumber(
+                        branchMessageCase_);
+            }
+
+            public Builder clearBranchMessage() {
+                branchMessageCase_ = 0;
+                branchMessage_ = null;
+                onChanged();
+                return this;
+            }
+
+            /**
+             * <code>.InitBranch init_branch = 1;</code>
+             */
+            public boolean hasInitBranch() {
+                return branchMessageCase_ == 1;
+            }
+
+            /**
+             * <code>.InitBranch init_branch = 1;</code>
+             */
+            public InitBranch getInitBranch() {
+                if (initBranchBuilder_ == null) {
+                    if (branchMessageCase_ == 1) {
+                        return (InitBranch) branchMessage_;
+                    }
+                    return InitBranch.getDefaultInstance();
+                } else {
+                    if (branchMessageCase_ == 1) {
+                        return initBranchBuilder_.getMessage();
+                    }
+                    return InitBranch.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.InitBranch init_branch = 1;</code>
+             */
+            public Builder setInitBranch(
+                    InitBranch.Builder builderForValue) {
+                if (initBranchBuilder_ == null) {
+                    branchMessage_ = builderForValue.build();
+                    onChanged();
+                } else {
+                    initBranchBuilder_.setMessage(builderForValue.build());
+                }
+                branchMessageCase_ = 1;
+                return this;
+            }
+
+            /**
+             * <code>.InitBranch init_branch = 1;</code>
+             */
+            public Builder setInitBranch(InitBranch value) {
+                if (initBranchBuilder_ == null) {
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    branchMessage_ = value;
+                    onChanged();
+                } else {
+                    initBranchBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 1;
+                return this;
+            }
+
+            /**
+             * <code>.InitBranch init_branch = 1;</code>
+             */
+            public Builder mergeInitBranch(InitBranch value) {
+                if (initBranchBuilder_ == null) {
+                    if (branchMessageCase_ == 1 &&
+                            branchMessage_ != InitBranch.getDefaultInstance()) {
+                        branchMessage_ = InitBranch.newBuilder((InitBranch) branchMessage_)
+                                .mergeFrom(value).buildPartial();
+                    } else {
+                        branchMessage_ = value;
+                    }
+                    onChanged();
+                } else {
                     if (branchMessageCase_ == 1) {
                         initBranchBuilder_.mergeFrom(value);
                     }
-                    initBranchBuilder_.setMessage(value);
+                    initBranchBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 1;
+                return this;
+            }
+
+            /**
+             * <code>.InitBranch init_branch = 1;</code>
+             */
+            public Builder clearInitBranch() {
+                if (initBranchBuilder_ == null) {
+                    if (branchMessageCase_ == 1) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                        onChanged();
+                    }
+                } else {
+                    if (branchMessageCase_ == 1) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                    }
+                    initBranchBuilder_.clear();
+                }
+                return this;
+            }
+
+            /**
+             * <code>.InitBranch init_branch = 1;</code>
+             */
+            public InitBranch.Builder getInitBranchBuilder() {
+                return getInitBranchFieldBuilder().getBuilder();
+            }
+
+            /**
+             * <code>.InitBranch init_branch = 1;</code>
+             */
+            public InitBranchOrBuilder getInitBranchOrBuilder() {
+                if ((branchMessageCase_ == 1) && (initBranchBuilder_ != null)) {
+                    return initBranchBuilder_.getMessageOrBuilder();
+                } else {
+                    if (branchMessageCase_ == 1) {
+                        return (InitBranch) branchMessage_;
+                    }
+                    return InitBranch.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.InitBranch init_branch = 1;</code>
+             */
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    InitBranch, InitBranch.Builder, InitBranchOrBuilder>
+            getInitBranchFieldBuilder() {
+                if (initBranchBuilder_ == null) {
+                    if (!(branchMessageCase_ == 1)) {
+                        branchMessage_ = InitBranch.getDefaultInstance();
+                    }
+                    initBranchBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
+                            InitBranch, InitBranch.Builder, InitBranchOrBuilder>(
+                            (InitBranch) branchMessage_,
+                            getParentForChildren(),
+                            isClean());
+                    branchMessage_ = null;
+                }
+                branchMessageCase_ = 1;
+                onChanged();
+                ;
+                return initBranchBuilder_;
+            }
+
+            /**
+             * <code>.Transfer transfer = 2;</code>
+             */
+            public boolean hasTransfer() {
+                return branchMessageCase_ == 2;
+            }
+
+            /**
+             * <code>.Transfer transfer = 2;</code>
+             */
+            public Transfer getTransfer() {
+                if (transferBuilder_ == null) {
+                    if (branchMessageCase_ == 2) {
+                        return (Transfer) branchMessage_;
+                    }
+                    return Transfer.getDefaultInstance();
+                } else {
+                    if (branchMessageCase_ == 2) {
+                        return transferBuilder_.getMessage();
+                    }
+                    return Transfer.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.Transfer transfer = 2;</code>
+             */
+            public Builder setTransfer(
+                    Transfer.Builder builderForValue) {
+                if (transferBuilder_ == null) {
+                    branchMessage_ = builderForValue.build();
+                    onChanged();
+                } else {
+                    transferBuilder_.setMessage(builderForValue.build());
+                }
+                branchMessageCase_ = 2;
+                return this;
+            }
+
+            /**
+             * <code>.Transfer transfer = 2;</code>
+             */
+            public Builder setTransfer(Transfer value) {
+                if (transferBuilder_ == null) {
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    branchMessage_ = value;
+                    onChanged();
+                } else {
+                    transferBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 2;
+                return this;
+            }
+
+            /**
+             * <code>.Transfer transfer = 2;</code>
+             */
+            public Builder mergeTransfer(Transfer value) {
+                if (transferBuilder_ == null) {
+                    if (branchMessageCase_ == 2 &&
+                            branchMessage_ != Transfer.getDefaultInstance()) {
+                        branchMessage_ = Transfer.newBuilder((Transfer) branchMessage_)
+                                .mergeFrom(value).buildPartial();
+                    } else {
+                        branchMessage_ = value;
+                    }
+                    onChanged();
+                } else {
+                    if (branchMessageCase_ == 2) {
+                        transferBuilder_.mergeFrom(value);
+                    }
+                    transferBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 2;
+                return this;
+            }
+
+            /**
+             * <code>.Transfer transfer = 2;</code>
+             */
+            public Builder clearTransfer() {
+                if (transferBuilder_ == null) {
+                    if (branchMessageCase_ == 2) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                        onChanged();
+                    }
+                } else {
+                    if (branchMessageCase_ == 2) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                    }
+                    transferBuilder_.clear();
+                }
+                return this;
+            }
+
+            /**
+             * <code>.Transfer transfer = 2;</code>
+             */
+            public Transfer.Builder getTransferBuilder() {
+                return getTransferFieldBuilder().getBuilder();
+            }
+
+            /**
+             * <code>.Transfer transfer = 2;</code>
+             */
+            public TransferOrBuilder getTransferOrBuilder() {
+                if ((branchMessageCase_ == 2) && (transferBuilder_ != null)) {
+                    return transferBuilder_.getMessageOrBuilder();
+                } else {
+                    if (branchMessageCase_ == 2) {
+                        return (Transfer) branchMessage_;
+                    }
+                    return Transfer.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.Transfer transfer = 2;</code>
+             */
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    Transfer, Transfer.Builder, TransferOrBuilder>
+            getTransferFieldBuilder() {
+                if (transferBuilder_ == null) {
+                    if (!(branchMessageCase_ == 2)) {
+                        branchMessage_ = Transfer.getDefaultInstance();
+                    }
+                    transferBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
+                            Transfer, Transfer.Builder, TransferOrBuilder>(
+                            (Transfer) branchMessage_,
+                            getParentForChildren(),
+                            isClean());
+                    branchMessage_ = null;
+                }
+                branchMessageCase_ = 2;
+                onChanged();
+                ;
+                return transferBuilder_;
+            }
+
+            /**
+             * <code>.InitSnapshot init_snapshot = 3;</code>
+             */
+            public boolean hasInitSnapshot() {
+                return branchMessageCase_ == 3;
+            }
+
+            /**
+             * <code>.InitSnapshot init_snapshot = 3;</code>
+             */
+            public InitSnapshot getInitSnapshot() {
+                if (initSnapshotBuilder_ == null) {
+                    if (branchMessageCase_ == 3) {
+                        return (InitSnapshot) branchMessage_;
+                    }
+                    return InitSnapshot.getDefaultInstance();
+                } else {
+                    if (branchMessageCase_ == 3) {
+                        return initSnapshotBuilder_.getMessage();
+                    }
+                    return InitSnapshot.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.InitSnapshot init_snapshot = 3;</code>
+             */
+            public Builder setInitSnapshot(
+                    InitSnapshot.Builder builderForValue) {
+                if (initSnapshotBuilder_ == null) {
+                    branchMessage_ = builderForValue.build();
+                    onChanged();
+                } else {
+                    initSnapshotBuilder_.setMessage(builderForValue.build());
+                }
+                branchMessageCase_ = 3;
+                return this;
+            }
+
+            /**
+             * <code>.InitSnapshot init_snapshot = 3;</code>
+             */
+            public Builder setInitSnapshot(InitSnapshot value) {
+                if (initSnapshotBuilder_ == null) {
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    branchMessage_ = value;
+                    onChanged();
+                } else {
+                    initSnapshotBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 3;
+                return this;
+            }
+
+            /**
+             * <code>.InitSnapshot init_snapshot = 3;</code>
+             */
+            public Builder mergeInitSnapshot(InitSnapshot value) {
+                if (initSnapshotBuilder_ == null) {
+                    if (branchMessageCase_ == 3 &&
+                            branchMessage_ != InitSnapshot.getDefaultInstance()) {
+                        branchMessage_ = InitSnapshot.newBuilder((InitSnapshot) branchMessage_)
+                                .mergeFrom(value).buildPartial();
+                    } else {
+                        branchMessage_ = value;
+                    }
+                    onChanged();
+                } else {
+                    if (branchMessageCase_ == 3) {
+                        initSnapshotBuilder_.mergeFrom(value);
+                    }
+                    initSnapshotBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 3;
+                return this;
+            }
+
+            /**
+             * <code>.InitSnapshot init_snapshot = 3;</code>
+             */
+            public Builder clearInitSnapshot() {
+                if (initSnapshotBuilder_ == null) {
+                    if (branchMessageCase_ == 3) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                        onChanged();
+                    }
+                } else {
+                    if (branchMessageCase_ == 3) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                    }
+                    initSnapshotBuilder_.clear();
+                }
+                return this;
+            }
+
+            /**
+             * <code>.InitSnapshot init_snapshot = 3;</code>
+             */
+            public InitSnapshot.Builder getInitSnapshotBuilder() {
+                return getInitSnapshotFieldBuilder().getBuilder();
+            }
+
+            /**
+             * <code>.InitSnapshot init_snapshot = 3;</code>
+             */
+            public InitSnapshotOrBuilder getInitSnapshotOrBuilder() {
+                if ((branchMessageCase_ == 3) && (initSnapshotBuilder_ != null)) {
+                    return initSnapshotBuilder_.getMessageOrBuilder();
+                } else {
+                    if (branchMessageCase_ == 3) {
+                        return (InitSnapshot) branchMessage_;
+                    }
+                    return InitSnapshot.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.InitSnapshot init_snapshot = 3;</code>
+             */
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    InitSnapshot, InitSnapshot.Builder, InitSnapshotOrBuilder>
+            getInitSnapshotFieldBuilder() {
+                if (initSnapshotBuilder_ == null) {
+                    if (!(branchMessageCase_ == 3)) {
+                        branchMessage_ = InitSnapshot.getDefaultInstance();
+                    }
+                    initSnapshotBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
+                            InitSnapshot, InitSnapshot.Builder, InitSnapshotOrBuilder>(
+                            (InitSnapshot) branchMessage_,
+                            getParentForChildren(),
+                            isClean());
+                    branchMessage_ = null;
+                }
+                branchMessageCase_ = 3;
+                onChanged();
+                ;
+                return initSnapshotBuilder_;
+            }
+
+            /**
+             * <code>.Marker marker = 4;</code>
+             */
+            public boolean hasMarker() {
+                return branchMessageCase_ == 4;
+            }
+
+            /**
+             * <code>.Marker marker = 4;</code>
+             */
+            public Marker getMarker() {
+                if (markerBuilder_ == null) {
+                    if (branchMessageCase_ == 4) {
+                        return (Marker) branchMessage_;
+                    }
+                    return Marker.getDefaultInstance();
+                } else {
+                    if (branchMessageCase_ == 4) {
+                        return markerBuilder_.getMessage();
+                    }
+                    return Marker.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.Marker marker = 4;</code>
+             */
+            public Builder setMarker(
+                    Marker.Builder builderForValue) {
+                if (markerBuilder_ == null) {
+                    branchMessage_ = builderForValue.build();
+                    onChanged();
+                } else {
+                    markerBuilder_.setMessage(builderForValue.build());
+                }
+                branchMessageCase_ = 4;
+                return this;
+            }
+
+            /**
+             * <code>.Marker marker = 4;</code>
+             */
+            public Builder setMarker(Marker value) {
+                if (markerBuilder_ == null) {
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    branchMessage_ = value;
+                    onChanged();
+                } else {
+                    markerBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 4;
+                return this;
+            }
+
+            /**
+             * <code>.Marker marker = 4;</code>
+             */
+            public Builder mergeMarker(Marker value) {
+                if (markerBuilder_ == null) {
+                    if (branchMessageCase_ == 4 &&
+                            branchMessage_ != Marker.getDefaultInstance()) {
+                        branchMessage_ = Marker.newBuilder((Marker) branchMessage_)
+                                .mergeFrom(value).buildPartial();
+                    } else {
+                        branchMessage_ = value;
+                    }
+                    onChanged();
+                } else {
+                    if (branchMessageCase_ == 4) {
+                        markerBuilder_.mergeFrom(value);
+                    }
+                    markerBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 4;
+                return this;
+            }
+
+            /**
+             * <code>.Marker marker = 4;</code>
+             */
+            public Builder clearMarker() {
+                if (markerBuilder_ == null) {
+                    if (branchMessageCase_ == 4) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                        onChanged();
+                    }
+                } else {
+                    if (branchMessageCase_ == 4) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                    }
+                    markerBuilder_.clear();
+                }
+                return this;
+            }
+
+            /**
+             * <code>.Marker marker = 4;</code>
+             */
+            public Marker.Builder getMarkerBuilder() {
+                return getMarkerFieldBuilder().getBuilder();
+            }
+
+            /**
+             * <code>.Marker marker = 4;</code>
+             */
+            public MarkerOrBuilder getMarkerOrBuilder() {
+                if ((branchMessageCase_ == 4) && (markerBuilder_ != null)) {
+                    return markerBuilder_.getMessageOrBuilder();
+                } else {
+                    if (branchMessageCase_ == 4) {
+                        return (Marker) branchMessage_;
+                    }
+                    return Marker.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.Marker marker = 4;</code>
+             */
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    Marker, Marker.Builder, MarkerOrBuilder>
+            getMarkerFieldBuilder() {
+                if (markerBuilder_ == null) {
+                    if (!(branchMessageCase_ == 4)) {
+                        branchMessage_ = Marker.getDefaultInstance();
+                    }
+                    markerBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
+                            Marker, Marker.Builder, MarkerOrBuilder>(
+                            (Marker) branchMessage_,
+                            getParentForChildren(),
+                            isClean());
+                    branchMessage_ = null;
+                }
+                branchMessageCase_ = 4;
+                onChanged();
+                ;
+                return markerBuilder_;
+            }
+
+            /**
+             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+             */
+            public boolean hasRetrieveSnapshot() {
+                return branchMessageCase_ == 5;
+            }
+
+            /**
+             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+             */
+            public RetrieveSnapshot getRetrieveSnapshot() {
+                if (retrieveSnapshotBuilder_ == null) {
+                    if (branchMessageCase_ == 5) {
+                        return (RetrieveSnapshot) branchMessage_;
+                    }
+                    return RetrieveSnapshot.getDefaultInstance();
+                } else {
+                    if (branchMessageCase_ == 5) {
+                        return retrieveSnapshotBuilder_.getMessage();
+                    }
+                    return RetrieveSnapshot.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+             */
+            public Builder setRetrieveSnapshot(
+                    RetrieveSnapshot.Builder builderForValue) {
+                if (retrieveSnapshotBuilder_ == null) {
+                    branchMessage_ = builderForValue.build();
+                    onChanged();
+                } else {
+                    retrieveSnapshotBuilder_.setMessage(builderForValue.build());
+                }
+                branchMessageCase_ = 5;
+                return this;
+            }
+
+            /**
+             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+             */
+            public Builder setRetrieveSnapshot(RetrieveSnapshot value) {
+                if (retrieveSnapshotBuilder_ == null) {
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    branchMessage_ = value;
+                    onChanged();
+                } else {
+                    retrieveSnapshotBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 5;
+                return this;
+            }
+
+            /**
+             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+             */
+            public Builder mergeRetrieveSnapshot(RetrieveSnapshot value) {
+                if (retrieveSnapshotBuilder_ == null) {
+                    if (branchMessageCase_ == 5 &&
+                            branchMessage_ != RetrieveSnapshot.getDefaultInstance()) {
+                        branchMessage_ = RetrieveSnapshot.newBuilder((RetrieveSnapshot) branchMessage_)
+                                .mergeFrom(value).buildPartial();
+                    } else {
+                        branchMessage_ = value;
+                    }
+                    onChanged();
+                } else {
+                    if (branchMessageCase_ == 5) {
+                        retrieveSnapshotBuilder_.mergeFrom(value);
+                    }
+                    retrieveSnapshotBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 5;
+                return this;
+            }
+
+            /**
+             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+             */
+            public Builder clearRetrieveSnapshot() {
+                if (retrieveSnapshotBuilder_ == null) {
+                    if (branchMessageCase_ == 5) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                        onChanged();
+                    }
+                } else {
+                    if (branchMessageCase_ == 5) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                    }
+                    retrieveSnapshotBuilder_.clear();
+                }
+                return this;
+            }
+
+            /**
+             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+             */
+            public RetrieveSnapshot.Builder getRetrieveSnapshotBuilder() {
+                return getRetrieveSnapshotFieldBuilder().getBuilder();
+            }
+
+            /**
+             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+             */
+            public RetrieveSnapshotOrBuilder getRetrieveSnapshotOrBuilder() {
+                if ((branchMessageCase_ == 5) && (retrieveSnapshotBuilder_ != null)) {
+                    return retrieveSnapshotBuilder_.getMessageOrBuilder();
+                } else {
+                    if (branchMessageCase_ == 5) {
+                        return (RetrieveSnapshot) branchMessage_;
+                    }
+                    return RetrieveSnapshot.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
+             */
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    RetrieveSnapshot, RetrieveSnapshot.Builder, RetrieveSnapshotOrBuilder>
+            getRetrieveSnapshotFieldBuilder() {
+                if (retrieveSnapshotBuilder_ == null) {
+                    if (!(branchMessageCase_ == 5)) {
+                        branchMessage_ = RetrieveSnapshot.getDefaultInstance();
+                    }
+                    retrieveSnapshotBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
+                            RetrieveSnapshot, RetrieveSnapshot.Builder, RetrieveSnapshotOrBuilder>(
+                            (RetrieveSnapshot) branchMessage_,
+                            getParentForChildren(),
+                            isClean());
+                    branchMessage_ = null;
+                }
+                branchMessageCase_ = 5;
+                onChanged();
+                ;
+                return retrieveSnapshotBuilder_;
+            }
+
+            /**
+             * <code>.ReturnSnapshot return_snapshot = 6;</code>
+             */
+            public boolean hasReturnSnapshot() {
+                return branchMessageCase_ == 6;
+            }
+
+            /**
+             * <code>.ReturnSnapshot return_snapshot = 6;</code>
+             */
+            public ReturnSnapshot getReturnSnapshot() {
+                if (returnSnapshotBuilder_ == null) {
+                    if (branchMessageCase_ == 6) {
+                        return (ReturnSnapshot) branchMessage_;
+                    }
+                    return ReturnSnapshot.getDefaultInstance();
+                } else {
+                    if (branchMessageCase_ == 6) {
+                        return returnSnapshotBuilder_.getMessage();
+                    }
+                    return ReturnSnapshot.getDefaultInstance();
                 }
-                branchMessageCase_ = 1;
+            }
+
+            /**
+             * <code>.ReturnSnapshot return_snapshot = 6;</code>
+             */
+            public Builder setReturnSnapshot(
+                    ReturnSnapshot.Builder builderForValue) {
+                if (returnSnapshotBuilder_ == null) {
+                    branchMessage_ = builderForValue.build();
+                    onChanged();
+                } else {
+                    returnSnapshotBuilder_.setMessage(builderForValue.build());
+                }
+                branchMessageCase_ = 6;
                 return this;
             }
 
             /**
-             * <code>.InitBranch init_branch = 1;</code>
+             * <code>.ReturnSnapshot return_snapshot = 6;</code>
              */
-            public Builder clearInitBranch() {
-                if (initBranchBuilder_ == null) {
-                    if (branchMessageCase_ == 1) {
+            public Builder setReturnSnapshot(ReturnSnapshot value) {
+                if (returnSnapshotBuilder_ == null) {
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    branchMessage_ = value;
+                    onChanged();
+                } else {
+                    returnSnapshotBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 6;
+                return this;
+            }
+
+            /**
+             * <code>.ReturnSnapshot return_snapshot = 6;</code>
+             */
+            public Builder mergeReturnSnapshot(ReturnSnapshot value) {
+                if (returnSnapshotBuilder_ == null) {
+                    if (branchMessageCase_ == 6 &&
+                            branchMessage_ != ReturnSnapshot.getDefaultInstance()) {
+                        branchMessage_ = ReturnSnapshot.newBuilder((ReturnSnapshot) branchMessage_)
+                                .mergeFrom(value).buildPartial();
+                    } else {
+                        branchMessage_ = value;
+                    }
+                    onChanged();
+                } else {
+                    if (branchMessageCase_ == 6) {
+                        returnSnapshotBuilder_.mergeFrom(value);
+                    }
+                    returnSnapshotBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 6;
+                return this;
+            }
+
+            /**
+             * <code>.ReturnSnapshot return_snapshot = 6;</code>
+             */
+            public Builder clearReturnSnapshot() {
+                if (returnSnapshotBuilder_ == null) {
+                    if (branchMessageCase_ == 6) {
                         branchMessageCase_ = 0;
                         branchMessage_ = null;
                         onChanged();
                     }
                 } else {
-                    if (branchMessageCase_ == 1) {
+                    if (branchMessageCase_ == 6) {
                         branchMessageCase_ = 0;
                         branchMessage_ = null;
                     }
-                    initBranchBuilder_.clear();
+                    returnSnapshotBuilder_.clear();
                 }
                 return this;
             }
 
             /**
-             * <code>.InitBranch init_branch = 1;</code>
+             * <code>.ReturnSnapshot return_snapshot = 6;</code>
              */
-            public InitBranch.Builder getInitBranchBuilder() {
-                return getInitBranchFieldBuilder().getBuilder();
+            public ReturnSnapshot.Builder getReturnSnapshotBuilder() {
+                return getReturnSnapshotFieldBuilder().getBuilder();
             }
 
             /**
-             * <code>.InitBranch init_branch = 1;</code>
+             * <code>.ReturnSnapshot return_snapshot = 6;</code>
              */
-            public InitBranchOrBuilder getInitBranchOrBuilder() {
-                if ((branchMessageCase_ == 1) && (initBranchBuilder_ != null)) {
-                    return initBranchBuilder_.getMessageOrBuilder();
+            public ReturnSnapshotOrBuilder getReturnSnapshotOrBuilder() {
+                if ((branchMessageCase_ == 6) && (returnSnapshotBuilder_ != null)) {
+                    return returnSnapshotBuilder_.getMessageOrBuilder();
                 } else {
-                    if (branchMessageCase_ == 1) {
-                        return (InitBranch) branchMessage_;
+                    if (branchMessageCase_ == 6) {
+                        return (ReturnSnapshot) branchMessage_;
                     }
-                    return InitBranch.getDefaultInstance();
+                    return ReturnSnapshot.getDefaultInstance();
                 }
             }
 
             /**
-             * <code>.InitBranch init_branch = 1;</code>
+             * <code>.ReturnSnapshot return_snapshot = 6;</code>
              */
             private com.google.protobuf.SingleFieldBuilderV3<
-                    InitBranch, InitBranch.Builder, InitBranchOrBuilder>
-            getInitBranchFieldBuilder() {
-                if (initBranchBuilder_ == null) {
-                    if (!(branchMessageCase_ == 1)) {
-                        branchMessage_ = InitBranch.getDefaultInstance();
+                    ReturnSnapshot, ReturnSnapshot.Builder, ReturnSnapshotOrBuilder>
+            getReturnSnapshotFieldBuilder() {
+                if (returnSnapshotBuilder_ == null) {
+                    if (!(branchMessageCase_ == 6)) {
+                        branchMessage_ = ReturnSnapshot.getDefaultInstance();
                     }
-                    initBranchBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
-                            InitBranch, InitBranch.Builder, InitBranchOrBuilder>(
-                            (InitBranch) branchMessage_,
+                    returnSnapshotBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
+                            ReturnSnapshot, ReturnSnapshot.Builder, ReturnSnapshotOrBuilder>(
+                            (ReturnSnapshot) branchMessage_,
                             getParentForChildren(),
                             isClean());
                     branchMessage_ = null;
                 }
-                branchMessageCase_ = 1;
+                branchMessageCase_ = 6;
                 onChanged();
                 ;
-                return initBranchBuilder_;
+                return returnSnapshotBuilder_;
             }
 
             /**
-             * <code>.Transfer transfer = 2;</code>
+             * <code>.SnapshotComplete snapshot_complete = 7;</code>
              */
-            public boolean hasTransfer() {
-                return branchMessageCase_ == 2;
+            public boolean hasSnapshotComplete() {
+                return branchMessageCase_ == 7;
             }
 
             /**
-             * <code>.Transfer transfer = 2;</code>
+             * <code>.SnapshotComplete snapshot_complete = 7;</code>
              */
-            public Transfer getTransfer() {
-                if (transferBuilder_ == null) {
-                    if (branchMessageCase_ == 2) {
-                        return (Transfer) branchMessage_;
+            public SnapshotComplete getSnapshotComplete() {
+                if (snapshotCompleteBuilder_ == null) {
+                    if (branchMessageCase_ == 7) {
+                        return (SnapshotComplete) branchMessage_;
                     }
-                    return Transfer.getDefaultInstance();
+                    return SnapshotComplete.getDefaultInstance();
                 } else {
-                    if (branchMessageCase_ == 2) {
-                        return transferBuilder_.getMessage();
+                    if (branchMessageCase_ == 7) {
+                        return snapshotCompleteBuilder_.getMessage();
                     }
-                    return Transfer.getDefaultInstance();
+                    return SnapshotComplete.getDefaultInstance();
                 }
             }
 
             /**
-             * <code>.Transfer transfer = 2;</code>
+             * <code>.SnapshotComplete snapshot_complete = 7;</code>
              */
-            public Builder setTransfer(
-                    Transfer.Builder builderForValue) {
-                if (transferBuilder_ == null) {
+            public Builder setSnapshotComplete(
+                    SnapshotComplete.Builder builderForValue) {
+                if (snapshotCompleteBuilder_ == null) {
                     branchMessage_ = builderForValue.build();
                     onChanged();
                 } else {
-                    transferBuilder_.setMessage(builderForValue.build());
+                    snapshotCompleteBuilder_.setMessage(builderForValue.build());
                 }
-                branchMessageCase_ = 2;
+                branchMessageCase_ = 7;
                 return this;
             }
 
             /**
-             * <code>.Transfer transfer = 2;</code>
+             * <code>.SnapshotComplete snapshot_complete = 7;</code>
              */
-            public Builder setTransfer(Transfer value) {
-                if (transferBuilder_ == null) {
+            public Builder setSnapshotComplete(SnapshotComplete value) {
+                if (snapshotCompleteBuilder_ == null) {
                     if (value == null) {
                         throw new NullPointerException();
                     }
                     branchMessage_ = value;
                     onChanged();
                 } else {
-                    transferBuilder_.setMessage(value);
+                    snapshotCompleteBuilder_.setMessage(value);
                 }
-                branchMessageCase_ = 2;
+                branchMessageCase_ = 7;
                 return this;
             }
 
             /**
-             * <code>.Transfer transfer = 2;</code>
+             * <code>.SnapshotComplete snapshot_complete = 7;</code>
              */
-            public Builder mergeTransfer(Transfer value) {
-                if (transferBuilder_ == null) {
-                    if (branchMessageCase_ == 2 &&
-                            branchMessage_ != Transfer.getDefaultInstance()) {
-                        branchMessage_ = Transfer.newBuilder((Transfer) branchMessage_)
+            public Builder mergeSnapshotComplete(SnapshotComplete value) {
+                if (snapshotCompleteBuilder_ == null) {
+                    if (branchMessageCase_ == 7 &&
+                            branchMessage_ != SnapshotComplete.getDefaultInstance()) {
+                        branchMessage_ = SnapshotComplete.newBuilder((SnapshotComplete) branchMessage_)
                                 .mergeFrom(value).buildPartial();
                     } else {
                         branchMessage_ = value;
                     }
                     onChanged();
                 } else {
-                    if (branchMessageCase_ == 2) {
-                        transferBuilder_.mergeFrom(value);
+                    if (branchMessageCase_ == 7) {
+                        snapshotCompleteBuilder_.mergeFrom(value);
                     }
-                    transferBuilder_.setMessage(value);
+                    snapshotCompleteBuilder_.setMessage(value);
                 }
-                branchMessageCase_ = 2;
+                branchMessageCase_ = 7;
                 return this;
             }
 
             /**
-             * <code>.Transfer transfer = 2;</code>
+             * <code>.SnapshotComplete snapshot_complete = 7;</code>
              */
-            public Builder clearTransfer() {
-                if (transferBuilder_ == null) {
-                    if (branchMessageCase_ == 2) {
+            public Builder clearSnapshotComplete() {
+                if (snapshotCompleteBuilder_ == null) {
+                    if (branchMessageCase_ == 7) {
                         branchMessageCase_ = 0;
                         branchMessage_ = null;
                         onChanged();
                     }
                 } else {
-                    if (branchMessageCase_ == 2) {
+                    if (branchMessageCase_ == 7) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                    }
+                    snapshotCompleteBuilder_.clear();
+                }
+                return this;
+            }
+
+            /**
+             * <code>.SnapshotComplete snapshot_complete = 7;</code>
+             */
+            public SnapshotComplete.Builder getSnapshotCompleteBuilder() {
+                return getSnapshotCompleteFieldBuilder().getBuilder();
+            }
+
+            /**
+             * <code>.SnapshotComplete snapshot_complete = 7;</code>
+             */
+            public SnapshotCompleteOrBuilder getSnapshotCompleteOrBuilder() {
+                if ((branchMessageCase_ == 7) && (snapshotCompleteBuilder_ != null)) {
+                    return snapshotCompleteBuilder_.getMessageOrBuilder();
+                } else {
+                    if (branchMessageCase_ == 7) {
+                        return (SnapshotComplete) branchMessage_;
+                    }
+                    return SnapshotComplete.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.SnapshotComplete snapshot_complete = 7;</code>
+             */
+            private com.google.protobuf.SingleFieldBuilderV3<
+                    SnapshotComplete, SnapshotComplete.Builder, SnapshotCompleteOrBuilder>
+            getSnapshotCompleteFieldBuilder() {
+                if (snapshotCompleteBuilder_ == null) {
+                    if (!(branchMessageCase_ == 7)) {
+                        branchMessage_ = SnapshotComplete.getDefaultInstance();
+                    }
+                    snapshotCompleteBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
+                            SnapshotComplete, SnapshotComplete.Builder, SnapshotCompleteOrBuilder>(
+                            (SnapshotComplete) branchMessage_,
+                            getParentForChildren(),
+                            isClean());
+                    branchMessage_ = null;
+                }
+                branchMessageCase_ = 7;
+                onChanged();
+                ;
+                return snapshotCompleteBuilder_;
+            }
+
+            /**
+             * <code>.TransferBatch transfer_batch = 8;</code>
+             */
+            public boolean hasTransferBatch() {
+                return branchMessageCase_ == 8;
+            }
+
+            /**
+             * <code>.TransferBatch transfer_batch = 8;</code>
+             */
+            public TransferBatch getTransferBatch() {
+                if (transferBatchBuilder_ == null) {
+                    if (branchMessageCase_ == 8) {
+                        return (TransferBatch) branchMessage_;
+                    }
+                    return TransferBatch.getDefaultInstance();
+                } else {
+                    if (branchMessageCase_ == 8) {
+                        return transferBatchBuilder_.getMessage();
+                    }
+                    return TransferBatch.getDefaultInstance();
+                }
+            }
+
+            /**
+             * <code>.TransferBatch transfer_batch = 8;</code>
+             */
+            public Builder setTransferBatch(
+                    TransferBatch.Builder builderForValue) {
+                if (transferBatchBuilder_ == null) {
+                    branchMessage_ = builderForValue.build();
+                    onChanged();
+                } else {
+                    transferBatchBuilder_.setMessage(builderForValue.build());
+                }
+                branchMessageCase_ = 8;
+                return this;
+            }
+
+            /**
+             * <code>.TransferBatch transfer_batch = 8;</code>
+             */
+            public Builder setTransferBatch(TransferBatch value) {
+                if (transferBatchBuilder_ == null) {
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    branchMessage_ = value;
+                    onChanged();
+                } else {
+                    transferBatchBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 8;
+                return this;
+            }
+
+            /**
+             * <code>.TransferBatch transfer_batch = 8;</code>
+             */
+            public Builder mergeTransferBatch(TransferBatch value) {
+                if (transferBatchBuilder_ == null) {
+                    if (branchMessageCase_ == 8 &&
+                            branchMessage_ != TransferBatch.getDefaultInstance()) {
+                        branchMessage_ = TransferBatch.newBuilder((TransferBatch) branchMessage_)
+                                .mergeFrom(value).buildPartial();
+                    } else {
+                        branchMessage_ = value;
+                    }
+                    onChanged();
+                } else {
+                    if (branchMessageCase_ == 8) {
+                        transferBatchBuilder_.mergeFrom(value);
+                    }
+                    transferBatchBuilder_.setMessage(value);
+                }
+                branchMessageCase_ = 8;
+                return this;
+            }
+
+            /**
+             * <code>.TransferBatch transfer_batch = 8;</code>
+             */
+            public Builder clearTransferBatch() {
+                if (transferBatchBuilder_ == null) {
+                    if (branchMessageCase_ == 8) {
+                        branchMessageCase_ = 0;
+                        branchMessage_ = null;
+                        onChanged();
+                    }
+                } else {
+                    if (branchMessageCase_ == 8) {
                         branchMessageCase_ = 0;
                         branchMessage_ = null;
                     }
-                    transferBuilder_.clear();
+                    transferBatchBuilder_.clear();
                 }
                 return this;
             }
 
             /**
-             * <code>.Transfer transfer = 2;</code>
+             * <code>.TransferBatch transfer_batch = 8;</code>
              */
-            public Transfer.Builder getTransferBuilder() {
-                return getTransferFieldBuilder().getBuilder();
+            public TransferBatch.Builder getTransferBatchBuilder() {
+                return getTransferBatchFieldBuilder().getBuilder();
             }
 
             /**
-             * <code>.Transfer transfer = 2;</code>
+             * <code>.TransferBatch transfer_batch = 8;</code>
              */
-            public TransferOrBuilder getTransferOrBuilder() {
-                if ((branchMessageCase_ == 2) && (transferBuilder_ != null)) {
-                    return transferBuilder_.getMessageOrBuilder();
+            public TransferBatchOrBuilder getTransferBatchOrBuilder() {
+                if ((branchMessageCase_ == 8) && (transferBatchBuilder_ != null)) {
+                    return transferBatchBuilder_.getMessageOrBuilder();
                 } else {
-                    if (branchMessageCase_ == 2) {
-                        return (Transfer) branchMessage_;
+                    if (branchMessageCase_ == 8) {
+                        return (TransferBatch) branchMessage_;
                     }
-                    return Transfer.getDefaultInstance();
+                    return TransferBatch.getDefaultInstance();
                 }
             }
 
             /**
-             * <code>.Transfer transfer = 2;</code>
+             * <code>.TransferBatch transfer_batch = 8;</code>
              */
             private com.google.protobuf.SingleFieldBuilderV3<
-                    Transfer, Transfer.Builder, TransferOrBuilder>
-            getTransferFieldBuilder() {
-                if (transferBuilder_ == null) {
-                    if (!(branchMessageCase_ == 2)) {
-                        branchMessage_ = Transfer.getDefaultInstance();
+                    TransferBatch, TransferBatch.Builder, TransferBatchOrBuilder>
+            getTransferBatchFieldBuilder() {
+                if (transferBatchBuilder_ == null) {
+                    if (!(branchMessageCase_ == 8)) {
+                        branchMessage_ = TransferBatch.getDefaultInstance();
                     }
-                    transferBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
-                            Transfer, Transfer.Builder, TransferOrBuilder>(
-                            (Transfer) branchMessage_,
+                    transferBatchBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
+                            TransferBatch, TransferBatch.Builder, TransferBatchOrBuilder>(
+                            (TransferBatch) branchMessage_,
                             getParentForChildren(),
                             isClean());
                     branchMessage_ = null;
                 }
-                branchMessageCase_ = 2;
+                branchMessageCase_ = 8;
                 onChanged();
                 ;
-                return transferBuilder_;
+                return transferBatchBuilder_;
             }
 
             /**
-             * <code>.InitSnapshot init_snapshot = 3;</code>
+             * <code>.MeshReady mesh_ready = 9;</code>
              */
-            public boolean hasInitSnapshot() {
-                return branchMessageCase_ == 3;
+            public boolean hasMeshReady() {
+                return branchMessageCase_ == 9;
             }
 
             /**
-             * <code>.InitSnapshot init_snapshot = 3;</code>
+             * <code>.MeshReady mesh_ready = 9;</code>
              */
-            public InitSnapshot getInitSnapshot() {
-                if (initSnapshotBuilder_ == null) {
-                    if (branchMessageCase_ == 3) {
-                        return (InitSnapshot) branchMessage_;
+            public MeshReady getMeshReady() {
+                if (meshReadyBuilder_ == null) {
+                    if (branchMessageCase_ == 9) {
+                        return (MeshReady) branchMessage_;
                     }
-                    return InitSnapshot.getDefaultInstance();
+                    return MeshReady.getDefaultInstance();
                 } else {
-                    if (branchMessageCase_ == 3) {
-                        return initSnapshotBuilder_.getMessage();
+                    if (branchMessageCase_ == 9) {
+                        return meshReadyBuilder_.getMessage();
                     }
-                    return InitSnapshot.getDefaultInstance();
+                    return MeshReady.getDefaultInstance();
                 }
             }
 
             /**
-             * <code>.InitSnapshot init_snapshot = 3;</code>
+             * <code>.MeshReady mesh_ready = 9;</code>
              */
-            public Builder setInitSnapshot(
-                    InitSnapshot.Builder builderForValue) {
-                if (initSnapshotBuilder_ == null) {
+            public Builder setMeshReady(
+                    MeshReady.Builder builderForValue) {
+                if (meshReadyBuilder_ == null) {
                     branchMessage_ = builderForValue.build();
                     onChanged();
                 } else {
-                    initSnapshotBuilder_.setMessage(builderForValue.build());
+                    meshReadyBuilder_.setMessage(builderForValue.build());
                 }
-                branchMessageCase_ = 3;
+                branchMessageCase_ = 9;
                 return this;
             }
 
             /**
-             * <code>.InitSnapshot init_snapshot = 3;</code>
+             * <code>.MeshReady mesh_ready = 9;</code>
              */
-            public Builder setInitSnapshot(InitSnapshot value) {
-                if (initSnapshotBuilder_ == null) {
+            public Builder setMeshReady(MeshReady value) {
+                if (meshReadyBuilder_ == null) {
                     if (value == null) {
                         throw new NullPointerException();
                     }
                     branchMessage_ = value;
                     onChanged();
                 } else {
-                    initSnapshotBuilder_.setMessage(value);
+                    meshReadyBuilder_.setMessage(value);
                 }
-                branchMessageCase_ = 3;
+                branchMessageCase_ = 9;
                 return this;
             }
 
             /**
-             * <code>.InitSnapshot init_snapshot = 3;</code>
+             * <code>.MeshReady mesh_ready = 9;</code>
              */
-            public Builder mergeInitSnapshot(InitSnapshot value) {
-                if (initSnapshotBuilder_ == null) {
-                    if (branchMessageCase_ == 3 &&
-                            branchMessage_ != InitSnapshot.getDefaultInstance()) {
-                        branchMessage_ = InitSnapshot.newBuilder((InitSnapshot) branchMessage_)
+            public Builder mergeMeshReady(MeshReady value) {
+                if (meshReadyBuilder_ == null) {
+                    if (branchMessageCase_ == 9 &&
+                            branchMessage_ != MeshReady.getDefaultInstance()) {
+                        branchMessage_ = MeshReady.newBuilder((MeshReady) branchMessage_)
                                 .mergeFrom(value).buildPartial();
                     } else {
                         branchMessage_ = value;
                     }
                     onChanged();
                 } else {
-                    if (branchMessageCase_ == 3) {
-                        initSnapshotBuilder_.mergeFrom(value);
+                    if (branchMessageCase_ == 9) {
+                        meshReadyBuilder_.mergeFrom(value);
                     }
-                    initSnapshotBuilder_.setMessage(value);
+                    meshReadyBuilder_.setMessage(value);
                 }
-                branchMessageCase_ = 3;
+                branchMessageCase_ = 9;
                 return this;
             }
 
             /**
-             * <code>.InitSnapshot init_snapshot = 3;</code>
+             * <code>.MeshReady mesh_ready = 9;</code>
              */
-            public Builder clearInitSnapshot() {
-                if (initSnapshotBuilder_ == null) {
-                    if (branchMessageCase_ == 3) {
+            public Builder clearMeshReady() {
+                if (meshReadyBuilder_ == null) {
+                    if (branchMessageCase_ == 9) {
                         branchMessageCase_ = 0;
                         branchMessage_ = null;
                         onChanged();
                     }
                 } else {
-                    if (branchMessageCase_ == 3) {
+                    if (branchMessageCase_ == 9) {
                         branchMessageCase_ = 0;
                         branchMessage_ = null;
                     }
-                    initSnapshotBuilder_.clear();
+                    meshReadyBuilder_.clear();
                 }
                 return this;
             }
 
             /**
-             * <code>.InitSnapshot init_snapshot = 3;</code>
+             * <code>.MeshReady mesh_ready = 9;</code>
              */
-            public InitSnapshot.Builder getInitSnapshotBuilder() {
-                return getInitSnapshotFieldBuilder().getBuilder();
+            public MeshReady.Builder getMeshReadyBuilder() {
+                return getMeshReadyFieldBuilder().getBuilder();
             }
 
             /**
-             * <code>.InitSnapshot init_snapshot = 3;</code>
+             * <code>.MeshReady mesh_ready = 9;</code>
              */
-            public InitSnapshotOrBuilder getInitSnapshotOrBuilder() {
-                if ((branchMessageCase_ == 3) && (initSnapshotBuilder_ != null)) {
-                    return initSnapshotBuilder_.getMessageOrBuilder();
+            public MeshReadyOrBuilder getMeshReadyOrBuilder() {
+                if ((branchMessageCase_ == 9) && (meshReadyBuilder_ != null)) {
+                    return meshReadyBuilder_.getMessageOrBuilder();
                 } else {
-                    if (branchMessageCase_ == 3) {
-                        return (InitSnapshot) branchMessage_;
+                    if (branchMessageCase_ == 9) {
+                        return (MeshReady) branchMessage_;
                     }
-                    return InitSnapshot.getDefaultInstance();
+                    return MeshReady.getDefaultInstance();
                 }
             }
 
             /**
-             * <code>.InitSnapshot init_snapshot = 3;</code>
+             * <code>.MeshReady mesh_ready = 9;</code>
              */
             private com.google.protobuf.SingleFieldBuilderV3<
-                    InitSnapshot, InitSnapshot.Builder, InitSnapshotOrBuilder>
-            getInitSnapshotFieldBuilder() {
-                if (initSnapshotBuilder_ == null) {
-                    if (!(branchMessageCase_ == 3)) {
-                        branchMessage_ = InitSnapshot.getDefaultInstance();
+                    MeshReady, MeshReady.Builder, MeshReadyOrBuilder>
+            getMeshReadyFieldBuilder() {
+                if (meshReadyBuilder_ == null) {
+                    if (!(branchMessageCase_ == 9)) {
+                        branchMessage_ = MeshReady.getDefaultInstance();
                     }
-                    initSnapshotBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
-                            InitSnapshot, InitSnapshot.Builder, InitSnapshotOrBuilder>(
-                            (InitSnapshot) branchMessage_,
+                    meshReadyBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
+                            MeshReady, MeshReady.Builder, MeshReadyOrBuilder>(
+                            (MeshReady) branchMessage_,
                             getParentForChildren(),
                             isClean());
                     branchMessage_ = null;
                 }
-                branchMessageCase_ = 3;
+                branchMessageCase_ = 9;
                 onChanged();
                 ;
-                return initSnapshotBuilder_;
+                return meshReadyBuilder_;
+            }
+
+            public final Builder setUnknownFields(
+                    final com.google.protobuf.UnknownFieldSet unknownFields) {
+                return super.setUnknownFieldsProto3(unknownFields);
+            }
+
+            public final Builder mergeUnknownFields(
+                    final com.google.protobuf.UnknownFieldSet unknownFields) {
+                return super.mergeUnknownFields(unknownFields);
+            }
+
+
+            // @@protoc_insertion_point(builder_scope:BranchMessage)
+        }
+
+    }
+
+    /**
+     * Protobuf type {@code MeshReady}
+     */
+    public static final class MeshReady extends
+            com.google.protobuf.GeneratedMessageV3 implements
+            // @@protoc_insertion_point(message_implements:MeshReady)
+            MeshReadyOrBuilder {
+        public static final int BRANCH_INDEX_FIELD_NUMBER = 1;
+        private static final long serialVersionUID = 0L;
+        // @@protoc_insertion_point(class_scope:MeshReady)
+        private static final MeshReady DEFAULT_INSTANCE;
+        private static final com.google.protobuf.Parser<MeshReady>
+                PARSER = new com.google.protobuf.AbstractParser<MeshReady>() {
+            public MeshReady parsePartialFrom(
+                    com.google.protobuf.CodedInputStream input,
+                    com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                    throws com.google.protobuf.InvalidProtocolBufferException {
+                return new MeshReady(input, extensionRegistry);
+            }
+        };
+
+        static {
+            DEFAULT_INSTANCE = new MeshReady();
+        }
+
+        private int branchIndex_;
+        private byte memoizedIsInitialized = -1;
+
+        // Use MeshReady.newBuilder() to construct.
+        private MeshReady(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+            super(builder);
+        }
+
+        private MeshReady() {
+            branchIndex_ = 0;
+        }
+
+        private MeshReady(
+                com.google.protobuf.CodedInputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            this();
+            int mutable_bitField0_ = 0;
+            com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+                    com.google.protobuf.UnknownFieldSet.newBuilder();
+            try {
+                boolean done = false;
+                while (!done) {
+                    int tag = input.readTag();
+                    switch (tag) {
+                        case 0:
+                            done = true;
+                            break;
+                        default: {
+                            if (!parseUnknownFieldProto3(
+                                    input, unknownFields, extensionRegistry, tag)) {
+                                done = true;
+                            }
+                            break;
+                        }
+                        case 8: {
+
+                            branchIndex_ = input.readUInt32();
+                            break;
+                        }
+                    }
+                }
+            } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+                throw e.setUnfinishedMessage(this);
+            } catch (java.io.IOException e) {
+                throw new com.google.protobuf.InvalidProtocolBufferException(
+                        e).setUnfinishedMessage(this);
+            } finally {
+                this.unknownFields = unknownFields.build();
+                makeExtensionsImmutable();
             }
+        }
+
+        public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+            return Bank.internal_static_MeshReady_descriptor;
+        }
+
+        public static MeshReady parseFrom(
+                java.nio.ByteBuffer data)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data);
+        }
+
+        public static MeshReady parseFrom(
+                java.nio.ByteBuffer data,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data, extensionRegistry);
+        }
+
+        public static MeshReady parseFrom(
+                com.google.protobuf.ByteString data)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data);
+        }
+
+        public static MeshReady parseFrom(
+                com.google.protobuf.ByteString data,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data, extensionRegistry);
+        }
+
+        public static MeshReady parseFrom(byte[] data)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data);
+        }
+
+        public static MeshReady parseFrom(
+                byte[] data,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws com.google.protobuf.InvalidProtocolBufferException {
+            return PARSER.parseFrom(data, extensionRegistry);
+        }
+
+        public static MeshReady parseFrom(java.io.InputStream input)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input);
+        }
+
+        public static MeshReady parseFrom(
+                java.io.InputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input, extensionRegistry);
+        }
+
+        public static MeshReady parseDelimitedFrom(java.io.InputStream input)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseDelimitedWithIOException(PARSER, input);
+        }
+
+        public static MeshReady parseDelimitedFrom(
+                java.io.InputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+        }
+
+        public static MeshReady parseFrom(
+                com.google.protobuf.CodedInputStream input)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input);
+        }
+
+        public static MeshReady parseFrom(
+                com.google.protobuf.CodedInputStream input,
+                com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                throws java.io.IOException {
+            return com.google.protobuf.GeneratedMessageV3
+                    .parseWithIOException(PARSER, input, extensionRegistry);
+        }
+
+        public static Builder newBuilder() {
+            return DEFAULT_INSTANCE.toBuilder();
+        }
+
+        public static Builder newBuilder(MeshReady prototype) {
+            return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+        }
+
+        public static MeshReady getDefaultInstance() {
+            return DEFAULT_INSTANCE;
+        }
+
+        public static com.google.protobuf.Parser<MeshReady> parser() {
+            return PARSER;
+        }
+
+        @Override
+        public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+            return this.unknownFields;
+        }
+
+        protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+            return Bank.internal_static_MeshReady_fieldAccessorTable
+                    .ensureFieldAccessorsInitialized(
+                            MeshReady.class, Builder.class);
+        }
+
+        /**
+         * <code>uint32 branch_index = 1;</code>
+         */
+        public int getBranchIndex() {
+            return branchIndex_;
+        }
 
-            /**
-             * <code>.Marker marker = 4;</code>
-             */
-            public boolean hasMarker() {
-                return branchMessageCase_ == 4;
-            }
+        public final boolean isInitialized() {
+            byte isInitialized = memoizedIsInitialized;
+            if (isInitialized == 1) return true;
+            if (isInitialized == 0) return false;
 
-            /**
-             * <code>.Marker marker = 4;</code>
-             */
-            public Marker getMarker() {
-                if (markerBuilder_ == null) {
-                    if (branchMessageCase_ == 4) {
-                        return (Marker) branchMessage_;
-                    }
-                    return Marker.getDefaultInstance();
-                } else {
-                    if (branchMessageCase_ == 4) {
-                        return markerBuilder_.getMessage();
-                    }
-                    return Marker.getDefaultInstance();
-                }
-            }
+            memoizedIsInitialized = 1;
+            return true;
+        }
 
-            /**
-             * <code>.Marker marker = 4;</code>
-             */
-            public Builder setMarker(
-                    Marker.Builder builderForValue) {
-                if (markerBuilder_ == null) {
-                    branchMessage_ = builderForValue.build();
-                    onChanged();
-                } else {
-                    markerBuilder_.setMessage(builderForValue.build());
-                }
-                branchMessageCase_ = 4;
-                return this;
+        public void writeTo(com.google.protobuf.CodedOutputStream output)
+                throws java.io.IOException {
+            if (branchIndex_ != 0) {
+                output.writeUInt32(1, branchIndex_);
             }
+            unknownFields.writeTo(output);
+        }
 
-            /**
-             * <code>.Marker marker = 4;</code>
-             */
-            public Builder setMarker(Marker value) {
-                if (markerBuilder_ == null) {
-                    if (value == null) {
-                        throw new NullPointerException();
-                    }
-                    branchMessage_ = value;
-                    onChanged();
-                } else {
-                    markerBuilder_.setMessage(value);
-                }
-                branchMessageCase_ = 4;
-                return this;
-            }
+        public int getSerializedSize() {
+            int size = memoizedSize;
+            if (size != -1) return size;
 
-            /**
-             * <code>.Marker marker = 4;</code>
-             */
-            public Builder mergeMarker(Marker value) {
-                if (markerBuilder_ == null) {
-                    if (branchMessageCase_ == 4 &&
-                            branchMessage_ != Marker.getDefaultInstance()) {
-                        branchMessage_ = Marker.newBuilder((Marker) branchMessage_)
-                                .mergeFrom(value).buildPartial();
-                    } else {
-                        branchMessage_ = value;
-                    }
-                    onChanged();
-                } else {
-                    if (branchMessageCase_ == 4) {
-                        markerBuilder_.mergeFrom(value);
-                    }
-                    markerBuilder_.setMessage(value);
-                }
-                branchMessageCase_ = 4;
-                return this;
+            size = 0;
+            if (branchIndex_ != 0) {
+                size += com.google.protobuf.CodedOutputStream
+                        .computeUInt32Size(1, branchIndex_);
             }
+            size += unknownFields.getSerializedSize();
+            memoizedSize = size;
+            return size;
+        }
 
-            /**
-             * <code>.Marker marker = 4;</code>
-             */
-            public Builder clearMarker() {
-                if (markerBuilder_ == null) {
-                    if (branchMessageCase_ == 4) {
-                        branchMessageCase_ = 0;
-                        branchMessage_ = null;
-                        onChanged();
-                    }
-                } else {
-                    if (branchMessageCase_ == 4) {
-                        branchMessageCase_ = 0;
-                        branchMessage_ = null;
-                    }
-                    markerBuilder_.clear();
-                }
-                return this;
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
             }
-
-            /**
-             * <code>.Marker marker = 4;</code>
-             */
-            public Marker.Builder getMarkerBuilder() {
-                return getMarkerFieldBuilder().getBuilder();
+            if (!(obj instanceof MeshReady)) {
+                return super.equals(obj);
             }
+            MeshReady other = (MeshReady) obj;
 
-            /**
-             * <code>.Marker marker = 4;</code>
-             */
-            public MarkerOrBuilder getMarkerOrBuilder() {
-                if ((branchMessageCase_ == 4) && (markerBuilder_ != null)) {
-                    return markerBuilder_.getMessageOrBuilder();
-                } else {
-                    if (branchMessageCase_ == 4) {
-                        return (Marker) branchMessage_;
-                    }
-                    return Marker.getDefaultInstance();
-                }
-            }
+            boolean result = true;
+            result = result && (getBranchIndex()
+                    == other.getBranchIndex());
+            result = result && unknownFields.equals(other.unknownFields);
+            return result;
+        }
 
-            /**
-             * <code>.Marker marker = 4;</code>
-             */
-            private com.google.protobuf.SingleFieldBuilderV3<
-                    Marker, Marker.Builder, MarkerOrBuilder>
-            getMarkerFieldBuilder() {
-                if (markerBuilder_ == null) {
-                    if (!(branchMessageCase_ == 4)) {
-                        branchMessage_ = Marker.getDefaultInstance();
-                    }
-                    markerBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
-                            Marker, Marker.Builder, MarkerOrBuilder>(
-                            (Marker) branchMessage_,
-                            getParentForChildren(),
-                            isClean());
-                    branchMessage_ = null;
-                }
-                branchMessageCase_ = 4;
-                onChanged();
-                ;
-                return markerBuilder_;
+        @Override
+        public int hashCode() {
+            if (memoizedHashCode != 0) {
+                return memoizedHashCode;
             }
+            int hash = 41;
+            hash = (19 * hash) + getDescriptor().hashCode();
+            hash = (37 * hash) + BRANCH_INDEX_FIELD_NUMBER;
+            hash = (53 * hash) + getBranchIndex();
+            hash = (29 * hash) + unknownFields.hashCode();
+            memoizedHashCode = hash;
+            return hash;
+        }
 
-            /**
-             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-             */
-            public boolean hasRetrieveSnapshot() {
-                return branchMessageCase_ == 5;
-            }
+        public Builder newBuilderForType() {
+            return newBuilder();
+        }
 
-            /**
-             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-             */
-            public RetrieveSnapshot getRetrieveSnapshot() {
-                if (retrieveSnapshotBuilder_ == null) {
-                    if (branchMessageCase_ == 5) {
-                        return (RetrieveSnapshot) branchMessage_;
-                    }
-                    return RetrieveSnapshot.getDefaultInstance();
-                } else {
-                    if (branchMessageCase_ == 5) {
-                        return retrieveSnapshotBuilder_.getMessage();
-                    }
-                    return RetrieveSnapshot.getDefaultInstance();
-                }
+        public Builder toBuilder() {
+            return this == DEFAULT_INSTANCE
+                    ? new Builder() : new Builder().mergeFrom(this);
+        }
+
+        @Override
+        protected Builder newBuilderForType(
+                com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+            Builder builder = new Builder(parent);
+            return builder;
+        }
+
+        @Override
+        public com.google.protobuf.Parser<MeshReady> getParserForType() {
+            return PARSER;
+        }
+
+        public MeshReady getDefaultInstanceForType() {
+            return DEFAULT_INSTANCE;
+        }
+
+        /**
+         * Protobuf type {@code MeshReady}
+         */
+        public static final class Builder extends
+                com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+                // @@protoc_insertion_point(builder_implements:MeshReady)
+                MeshReadyOrBuilder {
+            private int branchIndex_;
+
+            // Construct using Bank.MeshReady.newBuilder()
+            private Builder() {
+                maybeForceBuilderInitialization();
             }
 
-            /**
-             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-             */
-            public Builder setRetrieveSnapshot(
-                    RetrieveSnapshot.Builder builderForValue) {
-                if (retrieveSnapshotBuilder_ == null) {
-                    branchMessage_ = builderForValue.build();
-                    onChanged();
-                } else {
-                    retrieveSnapshotBuilder_.setMessage(builderForValue.build());
-                }
-                branchMessageCase_ = 5;
-                return this;
+            private Builder(
+                    com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+                super(parent);
+                maybeForceBuilderInitialization();
             }
 
-            /**
-             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-             */
-            public Builder setRetrieveSnapshot(RetrieveSnapshot value) {
-                if (retrieveSnapshotBuilder_ == null) {
-                    if (value == null) {
-                        throw new NullPointerException();
-                    }
-                    branchMessage_ = value;
-                    onChanged();
-                } else {
-                    retrieveSnapshotBuilder_.setMessage(value);
-                }
-                branchMessageCase_ = 5;
-                return this;
+            public static final com.google.protobuf.Descriptors.Descriptor
+            getDescriptor() {
+                return Bank.internal_static_MeshReady_descriptor;
+            }
+
+            protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+            internalGetFieldAccessorTable() {
+                return Bank.internal_static_MeshReady_fieldAccessorTable
+                        .ensureFieldAccessorsInitialized(
+                                MeshReady.class, Builder.class);
             }
 
-            /**
-             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-             */
-            public Builder mergeRetrieveSnapshot(RetrieveSnapshot value) {
-                if (retrieveSnapshotBuilder_ == null) {
-                    if (branchMessageCase_ == 5 &&
-                            branchMessage_ != RetrieveSnapshot.getDefaultInstance()) {
-                        branchMessage_ = RetrieveSnapshot.newBuilder((RetrieveSnapshot) branchMessage_)
-                                .mergeFrom(value).buildPartial();
-                    } else {
-                        branchMessage_ = value;
-                    }
-                    onChanged();
-                } else {
-                    if (branchMessageCase_ == 5) {
-                        retrieveSnapshotBuilder_.mergeFrom(value);
-                    }
-                    retrieveSnapshotBuilder_.setMessage(value);
+            private void maybeForceBuilderInitialization() {
+                if (com.google.protobuf.GeneratedMessageV3
+                        .alwaysUseFieldBuilders) {
                 }
-                branchMessageCase_ = 5;
-                return this;
             }
 
-            /**
-             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-             */
-            public Builder clearRetrieveSnapshot() {
-                if (retrieveSnapshotBuilder_ == null) {
-                    if (branchMessageCase_ == 5) {
-                        branchMessageCase_ = 0;
-                        branchMessage_ = null;
-                        onChanged();
-                    }
-                } else {
-                    if (branchMessageCase_ == 5) {
-                        branchMessageCase_ = 0;
-                        branchMessage_ = null;
-                    }
-                    retrieveSnapshotBuilder_.clear();
-                }
+            public Builder clear() {
+                super.clear();
+                branchIndex_ = 0;
+
                 return this;
             }
 
-            /**
-             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-             */
-            public RetrieveSnapshot.Builder getRetrieveSnapshotBuilder() {
-                return getRetrieveSnapshotFieldBuilder().getBuilder();
+            public com.google.protobuf.Descriptors.Descriptor
+            getDescriptorForType() {
+                return Bank.internal_static_MeshReady_descriptor;
             }
 
-            /**
-             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-             */
-            public RetrieveSnapshotOrBuilder getRetrieveSnapshotOrBuilder() {
-                if ((branchMessageCase_ == 5) && (retrieveSnapshotBuilder_ != null)) {
-                    return retrieveSnapshotBuilder_.getMessageOrBuilder();
-                } else {
-                    if (branchMessageCase_ == 5) {
-                        return (RetrieveSnapshot) branchMessage_;
-                    }
-                    return RetrieveSnapshot.getDefaultInstance();
-                }
+            public MeshReady getDefaultInstanceForType() {
+                return MeshReady.getDefaultInstance();
             }
 
-            /**
-             * <code>.RetrieveSnapshot retrieve_snapshot = 5;</code>
-             */
-            private com.google.protobuf.SingleFieldBuilderV3<
-                    RetrieveSnapshot, RetrieveSnapshot.Builder, RetrieveSnapshotOrBuilder>
-            getRetrieveSnapshotFieldBuilder() {
-                if (retrieveSnapshotBuilder_ == null) {
-                    if (!(branchMessageCase_ == 5)) {
-                        branchMessage_ = RetrieveSnapshot.getDefaultInstance();
-                    }
-                    retrieveSnapshotBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
-                            RetrieveSnapshot, RetrieveSnapshot.Builder, RetrieveSnapshotOrBuilder>(
-                            (RetrieveSnapshot) branchMessage_,
-                            getParentForChildren(),
-                            isClean());
-                    branchMessage_ = null;
+            public MeshReady build() {
+                MeshReady result = buildPartial();
+                if (!result.isInitialized()) {
+                    throw newUninitializedMessageException(result);
                 }
-                branchMessageCase_ = 5;
-                onChanged();
-                ;
-                return retrieveSnapshotBuilder_;
+                return result;
             }
 
-            /**
-             * <code>.ReturnSnapshot return_snapshot = 6;</code>
-             */
-            public boolean hasReturnSnapshot() {
-                return branchMessageCase_ == 6;
+            public MeshReady buildPartial() {
+                MeshReady result = new MeshReady(this);
+                result.branchIndex_ = branchIndex_;
+                onBuilt();
+                return result;
             }
 
-            /**
-             * <code>.ReturnSnapshot return_snapshot = 6;</code>
-             */
-            public ReturnSnapshot getReturnSnapshot() {
-                if (returnSnapshotBuilder_ == null) {
-                    if (branchMessageCase_ == 6) {
-                        return (ReturnSnapshot) branchMessage_;
-                    }
-                    return ReturnSnapshot.getDefaultInstance();
-                } else {
-                    if (branchMessageCase_ == 6) {
-                        return returnSnapshotBuilder_.getMessage();
-                    }
-                    return ReturnSnapshot.getDefaultInstance();
-                }
+            public Builder clone() {
+                return (Builder) super.clone();
             }
 
-            /**
-             * <code>.ReturnSnapshot return_snapshot = 6;</code>
-             */
-            public Builder setReturnSnapshot(
-                    ReturnSnapshot.Builder builderForValue) {
-                if (returnSnapshotBuilder_ == null) {
-                    branchMessage_ = builderForValue.build();
-                    onChanged();
-                } else {
-                    returnSnapshotBuilder_.setMessage(builderForValue.build());
-                }
-                branchMessageCase_ = 6;
-                return this;
+            public Builder setField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field,
+                    Object value) {
+                return (Builder) super.setField(field, value);
             }
 
-            /**
-             * <code>.ReturnSnapshot return_snapshot = 6;</code>
-             */
-            public Builder setReturnSnapshot(ReturnSnapshot value) {
-                if (returnSnapshotBuilder_ == null) {
-                    if (value == null) {
-                        throw new NullPointerException();
-                    }
-                    branchMessage_ = value;
-                    onChanged();
+            public Builder clearField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field) {
+                return (Builder) super.clearField(field);
+            }
+
+            public Builder clearOneof(
+                    com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+                return (Builder) super.clearOneof(oneof);
+            }
+
+            public Builder setRepeatedField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field,
+                    int index, Object value) {
+                return (Builder) super.setRepeatedField(field, index, value);
+            }
+
+            public Builder addRepeatedField(
+                    com.google.protobuf.Descriptors.FieldDescriptor field,
+                    Object value) {
+                return (Builder) super.addRepeatedField(field, value);
+            }
+
+            public Builder mergeFrom(com.google.protobuf.Message other) {
+                if (other instanceof MeshReady) {
+                    return mergeFrom((MeshReady) other);
                 } else {
-                    returnSnapshotBuilder_.setMessage(value);
+                    super.mergeFrom(other);
+                    return this;
                 }
-                branchMessageCase_ = 6;
-                return this;
             }
 
-            /**
-             * <code>.ReturnSnapshot return_snapshot = 6;</code>
-             */
-            public Builder mergeReturnSnapshot(ReturnSnapshot value) {
-                if (returnSnapshotBuilder_ == null) {
-                    if (branchMessageCase_ == 6 &&
-                            branchMessage_ != ReturnSnapshot.getDefaultInstance()) {
-                        branchMessage_ = ReturnSnapshot.newBuilder((ReturnSnapshot) branchMessage_)
-                                .mergeFrom(value).buildPartial();
-                    } else {
-                        branchMessage_ = value;
-                    }
-                    onChanged();
-                } else {
-                    if (branchMessageCase_ == 6) {
-                        returnSnapshotBuilder_.mergeFrom(value);
-                    }
-                    returnSnapshotBuilder_.setMessage(value);
+            public Builder mergeFrom(MeshReady other) {
+                if (other == MeshReady.getDefaultInstance()) return this;
+                if (other.getBranchIndex() != 0) {
+                    setBranchIndex(other.getBranchIndex());
                 }
-                branchMessageCase_ = 6;
+                this.mergeUnknownFields(other.unknownFields);
+                onChanged();
                 return this;
             }
 
-            /**
-             * <code>.ReturnSnapshot return_snapshot = 6;</code>
-             */
-            public Builder clearReturnSnapshot() {
-                if (returnSnapshotBuilder_ == null) {
-                    if (branchMessageCase_ == 6) {
-                        branchMessageCase_ = 0;
-                        branchMessage_ = null;
-                        onChanged();
-                    }
-                } else {
-                    if (branchMessageCase_ == 6) {
-                        branchMessageCase_ = 0;
-                        branchMessage_ = null;
+            public final boolean isInitialized() {
+                return true;
+            }
+
+            public Builder mergeFrom(
+                    com.google.protobuf.CodedInputStream input,
+                    com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                    throws java.io.IOException {
+                MeshReady parsedMessage = null;
+                try {
+                    parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+                } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+                    parsedMessage = (MeshReady) e.getUnfinishedMessage();
+                    throw e.unwrapIOException();
+                } finally {
+                    if (parsedMessage != null) {
+                        mergeFrom(parsedMessage);
                     }
-                    returnSnapshotBuilder_.clear();
                 }
                 return this;
             }
 
             /**
-             * <code>.ReturnSnapshot return_snapshot = 6;</code>
+             * <code>uint32 branch_index = 1;</code>
              */
-            public ReturnSnapshot.Builder getReturnSnapshotBuilder() {
-                return getReturnSnapshotFieldBuilder().getBuilder();
+            public int getBranchIndex() {
+                return branchIndex_;
             }
 
             /**
-             * <code>.ReturnSnapshot return_snapshot = 6;</code>
+             * <code>uint32 branch_index = 1;</code>
              */
-            public ReturnSnapshotOrBuilder getReturnSnapshotOrBuilder() {
-                if ((branchMessageCase_ == 6) && (returnSnapshotBuilder_ != null)) {
-                    return returnSnapshotBuilder_.getMessageOrBuilder();
-                } else {
-                    if (branchMessageCase_ == 6) {
-                        return (ReturnSnapshot) branchMessage_;
-                    }
-                    return ReturnSnapshot.getDefaultInstance();
-                }
+            public Builder setBranchIndex(int value) {
+
+                branchIndex_ = value;
+                onChanged();
+                return this;
             }
 
             /**
-             * <code>.ReturnSnapshot return_snapshot = 6;</code>
+             * <code>uint32 branch_index = 1;</code>
              */
-            private com.google.protobuf.SingleFieldBuilderV3<
-                    ReturnSnapshot, ReturnSnapshot.Builder, ReturnSnapshotOrBuilder>
-            getReturnSnapshotFieldBuilder() {
-                if (returnSnapshotBuilder_ == null) {
-                    if (!(branchMessageCase_ == 6)) {
-                        branchMessage_ = ReturnSnapshot.getDefaultInstance();
-                    }
-                    returnSnapshotBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
-                            ReturnSnapshot, ReturnSnapshot.Builder, ReturnSnapshotOrBuilder>(
-                            (ReturnSnapshot) branchMessage_,
-                            getParentForChildren(),
-                            isClean());
-                    branchMessage_ = null;
-                }
-                branchMessageCase_ = 6;
+            public Builder clearBranchIndex() {
+
+                branchIndex_ = 0;
                 onChanged();
-                ;
-                return returnSnapshotBuilder_;
+                return this;
             }
 
             public final Builder setUnknownFields(
@@ -6967,7 +10519,7 @@ public final class Bank {
             }
 
 
-            // @@protoc_insertion_point(builder_scope:BranchMessage)
+            // @@protoc_insertion_point(builder_scope:MeshReady)
         }
 
     }